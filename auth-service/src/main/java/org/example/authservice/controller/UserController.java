@@ -6,6 +6,7 @@ import org.example.authservice.db.User;
 import org.example.authservice.dto.GoogleToken;
 import org.example.authservice.dto.LoginUserDTO;
 import org.example.authservice.dto.UserDTO;
+import org.example.authservice.dto.UserInsensitiveInfoDTO;
 import org.example.authservice.service.UserServiceImpl;
 import org.hibernate.Hibernate;
 import org.springframework.http.HttpStatus;
@@ -16,6 +17,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Collections;
+import java.util.List;
 
 
 @RestController
@@ -32,6 +34,18 @@ public class UserController {
         return user;
     }
 
+    @Hidden
+    @PostMapping("/users/batch")
+    public List<UserInsensitiveInfoDTO> getUsersByIds(@RequestBody List<String> userIds) {
+        return userService.getUsersByIds(userIds).stream()
+                .map(user -> UserInsensitiveInfoDTO.builder()
+                        .id(user.getId())
+                        .username(user.getUsername())
+                        .email(user.getEmail())
+                        .build())
+                .toList();
+    }
+
     @PostMapping("/registration")
     public ResponseEntity<Object> addUser(@RequestBody UserDTO userDTO) {
 
@@ -1,8 +1,12 @@
 package org.example.authservice.db;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +15,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findById(String id);
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
+
+    // Пользователи из ids, которые состоят в общей группе с userId, и сам userId; group_members ведет groups-service
+    @Query("SELECT u FROM User u WHERE u.id IN :ids AND (u.id = :userId OR EXISTS (" +
+            "SELECT g.id FROM Group g JOIN g.members me JOIN g.members other WHERE me.id = :userId AND other = u))")
+    List<User> findByIdInSharingGroupWith(@Param("ids") Collection<String> ids, @Param("userId") String userId);
 }
\ No newline at end of file
@@ -9,11 +9,14 @@ import org.example.authservice.dto.UserDTO;
 import org.keycloak.representations.AccessTokenResponse;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 
 public interface UserService {
     UserDTO createUser(UserDTO userRegistrationRecord);
     AccessTokenResponse login(LoginUserDTO loginUserDTO);
     GoogleToken loginByGoogle(GoogleToken googleToken) throws IOException, InterruptedException;
     User getUserById(String userId);
+    List<User> getUsersByIds(Collection<String> userIds);
     void deleteUserById(String userId);
 }
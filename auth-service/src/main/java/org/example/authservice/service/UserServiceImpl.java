@@ -27,6 +27,7 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.logging.Logger;
@@ -44,6 +45,8 @@ public class UserServiceImpl implements UserService {
 
     private final ModelMapper modelMapper;
 
+    public static final int maxBatchSize = 100;
+
     static Logger logger = Logger.getLogger(String.valueOf(UserServiceImpl.class));
 
     public UserServiceImpl(Keycloak keycloak, UserRepository userRepository,
@@ -132,6 +135,24 @@ public class UserServiceImpl implements UserService {
         return fromUserRepresentationToUser(getUsersResource().get(userId).toRepresentation());
     }
 
+    /**
+     * Пользователи по списку id одним запросом к user_entity, без обращений к Keycloak по одному.
+     * Ненайденные id пропускаются.
+     */
+    @Override
+    // Только те, с кем текущий пользователь состоит в общей группе: перебором id нельзя собрать чужие email
+    public List<User> getUsersByIds(Collection<String> userIds) {
+        if (userIds.size() > maxBatchSize) {
+            throw new IllegalArgumentException("No more than " + maxBatchSize + " users per request");
+        }
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        JwtAuthenticationToken authentication =
+                (JwtAuthenticationToken) SecurityContextHolder.getContext().getAuthentication();
+        return userRepository.findByIdInSharingGroupWith(userIds, authentication.getToken().getSubject());
+    }
+
     @Override
     public void deleteUserById(String userId) {
         try (Response delete = getUsersResource().delete(userId)){
@@ -16,6 +16,8 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.List;
+
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -50,6 +52,25 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.username").value("testUser"));
     }
 
+    @Test
+    void getUsersByIds_shouldReturnUsersInOneCall() throws Exception {
+        User first = new User();
+        first.setId("user1");
+        first.setUsername("first");
+        User second = new User();
+        second.setId("user2");
+        second.setUsername("second");
+        when(userService.getUsersByIds(List.of("user1", "user2"))).thenReturn(List.of(first, second));
+
+        mockMvc.perform(post("/users/batch")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(List.of("user1", "user2"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].username").value("second"));
+        verify(userService, times(1)).getUsersByIds(anyList());
+    }
+
     @Test
     void addUser_shouldReturnJwtToken() throws Exception {
         UserDTO userDTO = new UserDTO();
@@ -0,0 +1,61 @@
+package org.example.authservice;
+
+import org.example.authservice.db.User;
+import org.example.authservice.db.UserRepository;
+import org.example.authservice.service.UserServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserServiceImpl userService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        userService = new UserServiceImpl(null, userRepository, null, null, null);
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").subject("caller").build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void getUsersByIds_shouldReturnOnlyUsersSharingGroupWithCaller() {
+        User member = new User();
+        member.setId("user1");
+        when(userRepository.findByIdInSharingGroupWith(List.of("user1", "stranger"), "caller"))
+                .thenReturn(List.of(member));
+
+        List<User> users = userService.getUsersByIds(List.of("user1", "stranger"));
+
+        assertThat(users).containsExactly(member);
+    }
+
+    @Test
+    void getUsersByIds_shouldRejectTooManyIds() {
+        List<String> ids = IntStream.rangeClosed(0, UserServiceImpl.maxBatchSize)
+                .mapToObj(String::valueOf).toList();
+
+        assertThatThrownBy(() -> userService.getUsersByIds(ids)).isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(userRepository);
+    }
+}
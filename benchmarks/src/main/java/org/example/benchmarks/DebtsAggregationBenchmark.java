@@ -0,0 +1,131 @@
+package org.example.benchmarks;
+
+import org.example.expensesuserservice.db.CounterpartyBalance;
+import org.example.expensesuserservice.db.ExpenseUserRepository;
+import org.example.expensesuserservice.db.GroupBalanceRepository;
+import org.example.expensesuserservice.dto.AggregatedDebtSummary;
+import org.example.expensesuserservice.service.DebtsService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Сравнение накопления долгов в getAggregatedDebts: старый путь на BigDecimal и новый на long (Money).
+ * Репозиторий заглушен, так что меряется только расчет в памяти.
+ * <p>
+ * Запуск с замером аллокаций: {@code java -cp benchmarks/target/benchmarks.jar org.example.benchmarks.DebtsAggregationBenchmark}
+ * (или {@code java -jar benchmarks.jar DebtsAggregation -prof gc}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DebtsAggregationBenchmark {
+
+    private static final String CURRENT_USER = "user-0";
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"50"})
+    public int members;
+
+    private List<CounterpartyBalance> balances;
+
+    private DebtsService debtsService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        balances = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            String other = "user-" + (1 + random.nextInt(members - 1));
+            BigDecimal amount = BigDecimal.valueOf(100 + random.nextInt(1_000_000), 2);
+            balances.add(random.nextBoolean()
+                    ? new CounterpartyBalance(CURRENT_USER, "current", other, other, amount, "Group")
+                    : new CounterpartyBalance(other, other, CURRENT_USER, "current", amount, "Group"));
+        }
+
+        // stubOnly: Mockito не запоминает вызовы, иначе они накапливались бы между итерациями
+        GroupBalanceRepository groupBalanceRepository = mock(GroupBalanceRepository.class, withSettings().stubOnly());
+        when(groupBalanceRepository.findCounterpartyBalances(anyLong(), anyString())).thenReturn(balances);
+        debtsService = new DebtsService(groupBalanceRepository,
+                mock(ExpenseUserRepository.class, withSettings().stubOnly()));
+    }
+
+    @Benchmark
+    public AggregatedDebtSummary bigDecimalAccumulation() {
+        return LegacyDebtsAggregation.aggregate(CURRENT_USER, balances);
+    }
+
+    @Benchmark
+    public AggregatedDebtSummary longMinorUnitsAccumulation() {
+        return debtsService.getAggregatedDebts(CURRENT_USER, 1L, false);
+    }
+
+    /**
+     * Прежняя реализация: сложение BigDecimal прямо в UserBalance на каждой строке.
+     */
+    static final class LegacyDebtsAggregation {
+
+        private LegacyDebtsAggregation() {
+        }
+
+        static AggregatedDebtSummary aggregate(String userId, List<CounterpartyBalance> rows) {
+            Map<String, AggregatedDebtSummary.UserBalance> balanceMap = new HashMap<>();
+            String groupName = null;
+
+            for (CounterpartyBalance row : rows) {
+                groupName = row.groupName();
+                boolean youAreDebtor = row.debtorId().equals(userId);
+                String otherId = youAreDebtor ? row.creditorId() : row.debtorId();
+                String otherName = youAreDebtor ? row.creditorName() : row.debtorName();
+
+                AggregatedDebtSummary.UserBalance balance = balanceMap
+                        .computeIfAbsent(otherId, id -> AggregatedDebtSummary.UserBalance.builder()
+                                .userId(otherId)
+                                .username(otherName)
+                                .youOwe(BigDecimal.ZERO)
+                                .owesYou(BigDecimal.ZERO)
+                                .netBalance(BigDecimal.ZERO)
+                                .build());
+
+                if (youAreDebtor) {
+                    balance.setYouOwe(balance.getYouOwe().add(row.amount()));
+                } else {
+                    balance.setOwesYou(balance.getOwesYou().add(row.amount()));
+                }
+            }
+
+            for (AggregatedDebtSummary.UserBalance balance : balanceMap.values()) {
+                balance.setNetBalance(balance.getOwesYou().subtract(balance.getYouOwe()));
+            }
+
+            return AggregatedDebtSummary.builder()
+                    .groupName(groupName)
+                    .balances(new ArrayList<>(balanceMap.values()))
+                    .build();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DebtsAggregationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
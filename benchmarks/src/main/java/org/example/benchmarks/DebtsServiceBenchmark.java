@@ -0,0 +1,81 @@
+package org.example.benchmarks;
+
+import org.example.expensesuserservice.db.CounterpartyBalance;
+import org.example.expensesuserservice.db.ExpenseDebtRow;
+import org.example.expensesuserservice.db.ExpenseUserRepository;
+import org.example.expensesuserservice.db.GroupBalanceRepository;
+import org.example.expensesuserservice.dto.AggregatedDebtSummary;
+import org.example.expensesuserservice.service.DebtsService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * DebtsService.getAggregatedDebts с заглушенными репозиториями: сводка по балансам
+ * и разбивка по расходам (details=true), которая растет с числом расходов.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DebtsServiceBenchmark {
+
+    private static final String CURRENT_USER = "user-0";
+
+    @Param({"10", "50"})
+    public int groupSize;
+
+    @Param({"1000", "100000"})
+    public int expenses;
+
+    private DebtsService debtsService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+
+        // group_balances: по строке на каждое направление долга с каждым участником
+        List<CounterpartyBalance> balances = new ArrayList<>();
+        for (int i = 1; i < groupSize; i++) {
+            String other = "user-" + i;
+            balances.add(new CounterpartyBalance(CURRENT_USER, "current", other, other,
+                    BigDecimal.valueOf(random.nextInt(1_000_000), 2), "Group"));
+            balances.add(new CounterpartyBalance(other, other, CURRENT_USER, "current",
+                    BigDecimal.valueOf(random.nextInt(1_000_000), 2), "Group"));
+        }
+
+        List<ExpenseDebtRow> rows = new ArrayList<>(expenses);
+        for (long e = 0; e < expenses; e++) {
+            String other = "user-" + (1 + random.nextInt(groupSize - 1));
+            BigDecimal amount = BigDecimal.valueOf(100 + random.nextInt(100_000), 2);
+            rows.add(random.nextBoolean()
+                    ? new ExpenseDebtRow(e, "Expense " + e, CURRENT_USER, other, amount, BigDecimal.ZERO)
+                    : new ExpenseDebtRow(e, "Expense " + e, other, CURRENT_USER, amount, BigDecimal.ZERO));
+        }
+
+        GroupBalanceRepository groupBalanceRepository = mock(GroupBalanceRepository.class, withSettings().stubOnly());
+        when(groupBalanceRepository.findCounterpartyBalances(anyLong(), anyString())).thenReturn(balances);
+        ExpenseUserRepository expenseUserRepository = mock(ExpenseUserRepository.class, withSettings().stubOnly());
+        when(expenseUserRepository.findDebtRowsForUserAndGroup(anyString(), anyLong())).thenReturn(rows);
+
+        debtsService = new DebtsService(groupBalanceRepository, expenseUserRepository);
+    }
+
+    @Benchmark
+    public AggregatedDebtSummary aggregatedDebts() {
+        return debtsService.getAggregatedDebts(CURRENT_USER, 1L, false);
+    }
+
+    @Benchmark
+    public AggregatedDebtSummary aggregatedDebtsWithDetails() {
+        return debtsService.getAggregatedDebts(CURRENT_USER, 1L, true);
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Латентность списка расходов группы на реальном PostgreSQL: прежний доступ (расходы, затем
+ * ленивая загрузка expense_users каждого расхода) против одного запроса с LEFT JOIN на долю пользователя.
+ * <p>
+ * Данные создаются в отдельной схеме bench_expenses и удаляются после прогона.
+ * Подключение: -Dbench.jdbc.url, -Dbench.jdbc.user, -Dbench.jdbc.password (по умолчанию — БД из application.properties).
+ * {@code java -jar benchmarks/target/benchmarks.jar ExpenseListingQuery}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ExpenseListingQueryBenchmark {
+
+    private static final String SCHEMA = "bench_expenses";
+    private static final long GROUP_ID = 1L;
+    private static final String CURRENT_USER = "user-0";
+
+    @Param({"10000"})
+    public int expenses;
+
+    @Param({"10"})
+    public int groupSize;
+
+    private Connection connection;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5444/keycloak"),
+                System.getProperty("bench.jdbc.user", "keycloak"),
+                System.getProperty("bench.jdbc.password", "keycloak"));
+
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            st.execute("CREATE SCHEMA " + SCHEMA);
+            st.execute("CREATE TABLE " + SCHEMA + ".expenses (id bigserial PRIMARY KEY, group_id bigint NOT NULL, " +
+                    "name varchar(255) NOT NULL, date date NOT NULL, amount numeric(38, 2) NOT NULL, " +
+                    "currency varchar(3) NOT NULL, user_who_created varchar(255) NOT NULL)");
+            st.execute("CREATE TABLE " + SCHEMA + ".expense_users (id bigserial PRIMARY KEY, " +
+                    "expense_id bigint NOT NULL REFERENCES " + SCHEMA + ".expenses(id), " +
+                    "user_entity_id varchar(255) NOT NULL, amount numeric(38, 2) NOT NULL, paid numeric(38, 2) NOT NULL)");
+            st.execute("CREATE INDEX ON " + SCHEMA + ".expenses (group_id)");
+            st.execute("CREATE INDEX ON " + SCHEMA + ".expense_users (expense_id)");
+
+            st.execute("INSERT INTO " + SCHEMA + ".expenses (group_id, name, date, amount, currency, user_who_created) " +
+                    "SELECT " + GROUP_ID + ", 'Expense ' || i, DATE '2024-01-01' + (i % 365), 100.00, 'RUB', " +
+                    "'user-' || (i % " + groupSize + ") FROM generate_series(1, " + expenses + ") AS i");
+            st.execute("INSERT INTO " + SCHEMA + ".expense_users (expense_id, user_entity_id, amount, paid) " +
+                    "SELECT e.id, 'user-' || m, 100.00 / " + groupSize + ", 0 FROM " + SCHEMA + ".expenses e " +
+                    "CROSS JOIN generate_series(0, " + (groupSize - 1) + ") AS m");
+            st.execute("ANALYZE " + SCHEMA + ".expenses");
+            st.execute("ANALYZE " + SCHEMA + ".expense_users");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+        connection.close();
+    }
+
+    /**
+     * Как работал getExpenses с fromExpenseToExpenseDto: список расходов и по запросу на expenseUsers каждого.
+     */
+    @Benchmark
+    public void perExpenseLazyLoad(Blackhole bh) throws SQLException {
+        List<Long> ids = new ArrayList<>(expenses);
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT id, name, date, amount, currency, user_who_created FROM " + SCHEMA + ".expenses WHERE group_id = ?")) {
+            ps.setLong(1, GROUP_ID);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                    bh.consume(rs.getString(2));
+                }
+            }
+        }
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT id, user_entity_id, amount, paid FROM " + SCHEMA + ".expense_users WHERE expense_id = ?")) {
+            for (Long id : ids) {
+                ps.setLong(1, id);
+                BigDecimal share = BigDecimal.ZERO;
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        if (CURRENT_USER.equals(rs.getString(2))) {
+                            share = rs.getBigDecimal(3);
+                        }
+                    }
+                }
+                bh.consume(share);
+            }
+        }
+    }
+
+    /**
+     * Как ExpenseRepository.findExpenseDtosForMember: один запрос с долей текущего пользователя.
+     */
+    @Benchmark
+    public void singleJoinProjection(Blackhole bh) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT e.id, e.name, e.date, e.amount, e.currency, e.user_who_created, COALESCE(eu.amount, 0) " +
+                        "FROM " + SCHEMA + ".expenses e " +
+                        "LEFT JOIN " + SCHEMA + ".expense_users eu ON eu.expense_id = e.id AND eu.user_entity_id = ? " +
+                        "WHERE e.group_id = ? ORDER BY e.id")) {
+            ps.setString(1, CURRENT_USER);
+            ps.setLong(2, GROUP_ID);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    bh.consume(rs.getString(2));
+                    bh.consume(rs.getBigDecimal(7));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.benchmarks;
+
+import org.example.expensesuserservice.config.TokenConverterProperties;
+import org.example.expensesuserservice.security.KeycloakJwtTokenConverter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор ролей Keycloak из JWT — выполняется на каждом запросе к сервисам.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeycloakJwtTokenConverterBenchmark {
+
+    private static final String RESOURCE_ID = "SplitWalletClient";
+
+    @Param({"1", "10"})
+    public int roles;
+
+    private KeycloakJwtTokenConverter converter;
+
+    private Jwt jwt;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TokenConverterProperties properties = new TokenConverterProperties();
+        properties.setResourceId(RESOURCE_ID);
+        properties.setPrincipalAttribute("preferred_username");
+        converter = new KeycloakJwtTokenConverter(new JwtGrantedAuthoritiesConverter(), properties);
+
+        List<String> roleNames = new ArrayList<>(roles);
+        for (int i = 0; i < roles; i++) {
+            roleNames.add("role-" + i);
+        }
+
+        Instant now = Instant.now();
+        jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("9f0c1c1e-5a41-4f0e-9a53-2c1f3d0d7e11")
+                .claim("preferred_username", "user")
+                .claim("scope", "openid profile email")
+                .claim("resource_access", Map.of(RESOURCE_ID, Map.of("roles", roleNames)))
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(300))
+                .build();
+    }
+
+    @Benchmark
+    public JwtAuthenticationToken convert() {
+        return converter.convert(jwt);
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.benchmarks;
+
+import org.example.expensesservice.db.Expense;
+import org.example.expensesservice.dto.ExpenseDto;
+import org.example.expensesservice.dto.ExpenseMapper;
+import org.example.expensesservice.other.Group;
+import org.example.expensesservice.other.User;
+import org.example.expensesuserservice.db.ExpenseUser;
+import org.example.expensesuserservice.dto.ExpenseUserDto;
+import org.example.expensesuserservice.dto.ExpenseUserMapper;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразование сущностей в DTO: через ModelMapper, как было в ExpenseController и ExpenseUserController,
+ * и через ExpenseMapper/ExpenseUserMapper (*Mapper), которые используются сейчас.
+ * Время на одну сущность — результат, деленный на expenses (или groupSize); выделение памяти
+ * на сущность — gc.alloc.rate.norm из {@code -prof gc}, деленный так же.
+ * <p>
+ * {@code java -jar benchmarks/target/benchmarks.jar ModelMapperBenchmark -prof gc}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelMapperBenchmark {
+
+    @Param({"10", "50"})
+    public int groupSize;
+
+    @Param({"100", "10000"})
+    public int expenses;
+
+    // Один экземпляр на приложение, как был бин в *ServiceApplication
+    private final ModelMapper modelMapper = new ModelMapper();
+
+    private List<Expense> expenseList;
+
+    private List<ExpenseUser> expenseUsers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Group group = new Group();
+        group.setId(1L);
+        group.setName("Group");
+
+        expenseList = new ArrayList<>(expenses);
+        for (long i = 0; i < expenses; i++) {
+            Expense expense = new Expense();
+            expense.setId(i);
+            expense.setName("Expense " + i);
+            expense.setDescription("Description");
+            expense.setDate(LocalDate.now());
+            expense.setAmount(BigDecimal.valueOf(10_000, 2));
+            expense.setUserWhoCreated(new User("user-" + (i % groupSize)));
+            expense.setGroup(group);
+            expenseList.add(expense);
+        }
+
+        // Участники одного расхода — то, что возвращает GET /groups/{groupId}/expenses/{expenseId}
+        org.example.expensesuserservice.other.Expense expense = new org.example.expensesuserservice.other.Expense();
+        expense.setId(1L);
+        expenseUsers = new ArrayList<>(groupSize);
+        for (long i = 0; i < groupSize; i++) {
+            ExpenseUser eu = new ExpenseUser();
+            eu.setId(i);
+            eu.setUser(new org.example.expensesuserservice.other.User("user-" + i));
+            eu.setExpense(expense);
+            eu.setAmount(BigDecimal.valueOf(1_000, 2));
+            eu.setPaid(BigDecimal.ZERO);
+            expenseUsers.add(eu);
+        }
+    }
+
+    @Benchmark
+    public void expensesToDto(Blackhole bh) {
+        for (Expense expense : expenseList) {
+            bh.consume(modelMapper.map(expense, ExpenseDto.class));
+        }
+    }
+
+    @Benchmark
+    public void expensesToDtoMapper(Blackhole bh) {
+        for (Expense expense : expenseList) {
+            bh.consume(ExpenseMapper.toDto(expense));
+        }
+    }
+
+    @Benchmark
+    public void expenseUsersToDto(Blackhole bh) {
+        for (ExpenseUser eu : expenseUsers) {
+            bh.consume(modelMapper.map(eu, ExpenseUserDto.class));
+        }
+    }
+
+    @Benchmark
+    public void expenseUsersToDtoMapper(Blackhole bh) {
+        for (ExpenseUser eu : expenseUsers) {
+            bh.consume(ExpenseUserMapper.toDto(eu));
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузка на notification-service, запущенный с профилем loadtest (транспорт simulated, без FCM).
+ * Шлет запросы с постоянной частотой (открытая модель: задержка считается от запланированного момента отправки,
+ * так что очередь на клиенте не прячет медленные ответы), затем ждет опустошения push_deliveries
+ * и печатает перцентили задержки ответа и доставки из метрики push.delivery.latency.
+ * <p>
+ * {@code java -cp benchmarks/target/benchmarks.jar org.example.benchmarks.NotificationLoadTest
+ * --users=id1,id2 [--url=http://localhost:8095] [--rate=2000] [--duration=PT30S] [--bulk-ratio=0.2]
+ * [--recipients=20] [--devices=2] [--bearer=JWT] [--service-token=SECRET]}
+ * <p>
+ * users — существующие пользователи Keycloak. С bearer им сначала регистрируется devices токенов,
+ * каждый десятый с префиксом dead- (отклоняется заглушкой с UNREGISTERED). Без bearer используются
+ * уже зарегистрированные токены, а метрики доставки читаются только если /actuator/metrics доступен.
+ * service-token — значение service-client.service-token notification-service, без него рассылки отклоняются.
+ */
+public class NotificationLoadTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final String url;
+
+    private final String bearer;
+
+    private final String serviceToken;
+
+    private NotificationLoadTest(String url, String bearer, String serviceToken) {
+        this.url = url;
+        this.bearer = bearer;
+        this.serviceToken = serviceToken;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        if (!options.containsKey("users")) {
+            throw new IllegalArgumentException("--users is required");
+        }
+        List<String> users = Arrays.asList(options.get("users").split(","));
+
+        NotificationLoadTest loadTest = new NotificationLoadTest(
+                options.getOrDefault("url", "http://localhost:8095"), options.get("bearer"),
+                options.get("service-token"));
+        if (loadTest.bearer != null) {
+            loadTest.registerDevices(users, Integer.parseInt(options.getOrDefault("devices", "2")));
+        }
+        loadTest.run(users,
+                Integer.parseInt(options.getOrDefault("rate", "2000")),
+                Duration.parse(options.getOrDefault("duration", "PT30S")),
+                Double.parseDouble(options.getOrDefault("bulk-ratio", "0.2")),
+                Integer.parseInt(options.getOrDefault("recipients", "20")),
+                Integer.parseInt(options.getOrDefault("max-in-flight", "2000")));
+        loadTest.awaitDrain(Duration.ofMinutes(5));
+        loadTest.printDeliveryMetrics();
+    }
+
+    private void registerDevices(List<String> users, int devices) {
+        int registered = 0;
+        for (String userId : users) {
+            for (int i = 0; i < devices; i++) {
+                String token = (registered % 10 == 9 ? "dead-" : "loadtest-") + userId + "-" + i;
+                HttpResponse<String> response = httpClient.sendAsync(
+                        request("/users/" + encode(userId) + "/tokens").POST(json(Map.of("token", token))).build(),
+                        HttpResponse.BodyHandlers.ofString()).join();
+                if (response.statusCode() >= 300) {
+                    throw new IllegalStateException("Token registration failed: " + response.statusCode()
+                            + " " + response.body());
+                }
+                registered++;
+            }
+        }
+        System.out.printf("Registered %d devices for %d users%n", registered, users.size());
+    }
+
+    private void run(List<String> users, int rate, Duration duration, double bulkRatio, int recipients,
+                     int maxInFlight) {
+        int total = (int) (rate * duration.toMillis() / 1000);
+        long intervalNanos = 1_000_000_000L / rate;
+        long[] latencies = new long[total];
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        LongAdder errors = new LongAdder();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        List<CompletableFuture<Void>> requests = new ArrayList<>(total);
+
+        System.out.printf("Sending %d requests at %d/s for %s%n", total, rate, duration);
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long scheduledAt = start + i * intervalNanos;
+            long wait = scheduledAt - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.acquireUninterruptibly();
+            int index = i;
+            requests.add(httpClient.sendAsync(nextRequest(users, bulkRatio, recipients),
+                            HttpResponse.BodyHandlers.discarding())
+                    .handle((response, e) -> {
+                        latencies[index] = System.nanoTime() - scheduledAt;
+                        if (e != null) {
+                            errors.increment();
+                        } else {
+                            statuses.computeIfAbsent(response.statusCode(), code -> new LongAdder()).increment();
+                        }
+                        inFlight.release();
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        System.out.printf("Sent %d requests in %.1f s (%.0f/s), statuses %s, errors %d%n",
+                total, seconds, total / seconds, statuses, errors.sum());
+        System.out.printf("Response latency ms: p50 %.1f, p95 %.1f, p99 %.1f, max %.1f%n",
+                percentile(latencies, 0.5), percentile(latencies, 0.95), percentile(latencies, 0.99),
+                percentile(latencies, 1.0));
+    }
+
+    private HttpRequest nextRequest(List<String> users, double bulkRatio, int recipients) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < bulkRatio) {
+            List<String> userIds = new ArrayList<>(recipients);
+            for (int i = 0; i < recipients; i++) {
+                userIds.add(users.get(random.nextInt(users.size())));
+            }
+            return request("/users/notifications")
+                    .POST(json(Map.of("userIds", userIds, "title", "Load test", "message", "bulk")))
+                    .build();
+        }
+        String userId = users.get(random.nextInt(users.size()));
+        return request("/users/" + encode(userId) + "/notifications")
+                .POST(json(Map.of("title", "Load test", "message", "single")))
+                .build();
+    }
+
+    private void awaitDrain(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            JsonNode depth = metric("push.queue.depth", null);
+            if (depth == null) {
+                return;
+            }
+            double value = depth.path("measurements").path(0).path("value").asDouble();
+            if (value == 0) {
+                return;
+            }
+            System.out.printf("Waiting for push_deliveries to drain: %.0f left%n", value);
+            Thread.sleep(1000);
+        }
+        System.out.println("push_deliveries did not drain in " + timeout);
+    }
+
+    private void printDeliveryMetrics() {
+        if (metric("push.delivery.latency", null) == null) {
+            System.out.println("/actuator/metrics is not reachable, pass --bearer to read delivery metrics");
+            return;
+        }
+        StringBuilder line = new StringBuilder("Delivery latency ms (push.delivery.latency):");
+        for (String phi : List.of("0.5", "0.95", "0.99")) {
+            JsonNode percentile = metric("push.delivery.latency.percentile", "phi:" + phi);
+            double seconds = percentile == null ? Double.NaN
+                    : percentile.path("measurements").path(0).path("value").asDouble();
+            line.append(String.format(" p%d %.1f", Math.round(Double.parseDouble(phi) * 100), seconds * 1000));
+        }
+        System.out.println(line);
+        for (String outcome : List.of("sent", "retried", "dropped", "pruned")) {
+            JsonNode counter = metric("push.deliveries", "outcome:" + outcome);
+            System.out.printf("push.deliveries %s: %.0f%n", outcome,
+                    counter == null ? 0 : counter.path("measurements").path(0).path("value").asDouble());
+        }
+    }
+
+    private JsonNode metric(String name, String tag) {
+        String path = "/actuator/metrics/" + name + (tag == null ? "" : "?tag=" + encode(tag));
+        HttpResponse<String> response = httpClient.sendAsync(request(path).GET().build(),
+                HttpResponse.BodyHandlers.ofString()).join();
+        if (response.statusCode() != 200) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(url + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json");
+        if (bearer != null) {
+            builder.header("Authorization", "Bearer " + bearer);
+        }
+        if (serviceToken != null) {
+            builder.header("X-Service-Token", serviceToken);
+        }
+        return builder;
+    }
+
+    private static HttpRequest.BodyPublisher json(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body));
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static double percentile(long[] sortedNanos, double quantile) {
+        if (sortedNanos.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(quantile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))] / 1e6;
+    }
+}
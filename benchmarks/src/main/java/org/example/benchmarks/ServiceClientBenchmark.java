@@ -0,0 +1,153 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.serviceclient.GatewayServiceResolver;
+import org.example.serviceclient.GroupsClient;
+import org.example.serviceclient.ServiceClientProperties;
+import org.example.serviceclient.ServiceHttpClient;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Получение группы из groups-service: прежний AuthServiceClient.getGroupById (ответ целиком в String,
+ * затем readValue) против GroupsClient из service-client (разбор из InputStream).
+ * Ответ отдает локальный com.sun.net.httpserver с JSON группы, members участников и expenses расходов;
+ * он говорит только HTTP/1.1, так что сравнивается буферизация и разбор, а не мультиплексирование.
+ * Разбор в JsonNode, чтобы не зависеть от сущностей сервисов. Аллокации — с {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceClientBenchmark {
+
+    @Param({"10", "50"})
+    public int members;
+
+    @Param({"100", "10000"})
+    public int expenses;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private HttpServer server;
+
+    private ExecutorService serverExecutor;
+
+    private String baseUrl;
+
+    private HttpClient legacyClient;
+
+    private ServiceHttpClient serviceHttpClient;
+
+    private GroupsClient groupsClient;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        byte[] group = objectMapper.writeValueAsBytes(group());
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/groups-service/groups/1", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, group.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(group);
+            }
+        });
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+
+        // Как в удаленном AuthServiceClient
+        legacyClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        serviceHttpClient = new ServiceHttpClient(new ServiceClientProperties(), new GatewayServiceResolver(baseUrl),
+                new SimpleMeterRegistry());
+        groupsClient = new GroupsClient(serviceHttpClient, 100);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        serviceHttpClient.close();
+        server.stop(0);
+        serverExecutor.shutdown();
+    }
+
+    @Benchmark
+    public JsonNode legacyGetGroupById() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/groups-service/groups/1"))
+                .header("Authorization", "Bearer token")
+                .GET()
+                .build();
+        HttpResponse<String> response = legacyClient.send(request, HttpResponse.BodyHandlers.ofString());
+        return objectMapper.readValue(response.body(), JsonNode.class);
+    }
+
+    @Benchmark
+    public JsonNode groupsClientGetGroup() {
+        return groupsClient.getGroup("Bearer token", 1L, JsonNode.class);
+    }
+
+    private Map<String, Object> group() {
+        List<Map<String, Object>> users = new ArrayList<>(members);
+        for (int i = 0; i < members; i++) {
+            users.add(user("user-" + i));
+        }
+        List<Map<String, Object>> events = new ArrayList<>(expenses);
+        for (long i = 0; i < expenses; i++) {
+            Map<String, Object> expense = new LinkedHashMap<>();
+            expense.put("id", i);
+            expense.put("name", "Expense " + i);
+            expense.put("description", "Description");
+            expense.put("amount", "100.00");
+            expense.put("currency", "RUB");
+            expense.put("date", LocalDate.now());
+            expense.put("userWhoCreated", users.get((int) (i % members)));
+            events.add(expense);
+        }
+        Map<String, Object> group = new LinkedHashMap<>();
+        group.put("id", 1L);
+        group.put("name", "Group");
+        group.put("userOwner", users.get(0));
+        group.put("uniqueCode", "ABCDEF");
+        group.put("members", users);
+        group.put("events", events);
+        group.put("isClosed", false);
+        return group;
+    }
+
+    private static Map<String, Object> user(String id) {
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("id", id);
+        user.put("username", id);
+        user.put("email", id + "@example.com");
+        return user;
+    }
+}
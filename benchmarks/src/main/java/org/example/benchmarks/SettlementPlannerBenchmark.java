@@ -0,0 +1,97 @@
+package org.example.benchmarks;
+
+import org.example.expensesuserservice.service.SettlementPlanner;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * План погашения для группы на пределе GroupService.maxSizeOfGroup (50 участников) со 100k расходов.
+ * <p>
+ * planFromExpenseRows — полный проход по всем строкам expense_users в памяти;
+ * planFromPairs — то, что делает эндпоинт: PostgreSQL уже свернул строки до пар "должник → кредитор".
+ * <p>
+ * Запуск: {@code mvn -pl benchmarks -am package && java -jar benchmarks/target/benchmarks.jar SettlementPlanner}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SettlementPlannerBenchmark {
+
+    @Param({"50"})
+    public int members;
+
+    @Param({"100000"})
+    public int expenses;
+
+    private String[] userIds;
+
+    // Строки expense_users без создателя расхода: индексы должника/кредитора и остаток долга в копейках
+    private int[] rowDebtor;
+    private int[] rowCreditor;
+    private long[] rowAmount;
+    private int rows;
+
+    private long[][] pairTotals;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        userIds = new String[members];
+        for (int i = 0; i < members; i++) {
+            userIds[i] = "user-" + i;
+        }
+
+        int capacity = expenses * members;
+        rowDebtor = new int[capacity];
+        rowCreditor = new int[capacity];
+        rowAmount = new long[capacity];
+        pairTotals = new long[members][members];
+
+        for (int e = 0; e < expenses; e++) {
+            int creditor = random.nextInt(members);
+            int participants = 2 + random.nextInt(members - 1);
+            long share = 100 + random.nextInt(100_000);
+            int offset = random.nextInt(members);
+            for (int p = 0; p < participants; p++) {
+                int debtor = (offset + p) % members;
+                if (debtor == creditor) continue;
+                // Часть участников уже что-то оплатила
+                long outstanding = random.nextInt(4) == 0 ? share / 2 : share;
+                rowDebtor[rows] = debtor;
+                rowCreditor[rows] = creditor;
+                rowAmount[rows] = outstanding;
+                pairTotals[debtor][creditor] += outstanding;
+                rows++;
+            }
+        }
+    }
+
+    @Benchmark
+    public List<SettlementPlanner.Transfer> planFromExpenseRows() {
+        SettlementPlanner.NetPositions positions = new SettlementPlanner.NetPositions();
+        for (int i = 0; i < rows; i++) {
+            positions.addDebt(userIds[rowDebtor[i]], userIds[rowCreditor[i]], rowAmount[i]);
+        }
+        return SettlementPlanner.plan(positions);
+    }
+
+    @Benchmark
+    public List<SettlementPlanner.Transfer> planFromPairs() {
+        SettlementPlanner.NetPositions positions = new SettlementPlanner.NetPositions();
+        for (int d = 0; d < members; d++) {
+            for (int c = 0; c < members; c++) {
+                long amount = pairTotals[d][c];
+                if (amount != 0) {
+                    positions.addDebt(userIds[d], userIds[c], amount);
+                }
+            }
+        }
+        return SettlementPlanner.plan(positions);
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кодирование и разбор тела между сервисами: полный Group из GET /groups/{groupId} с расходами и долями.
+ * json-string — прежний путь через writeValueAsString/readValue(String), json — байты без строки,
+ * cbor (service-client.cbor) и smile — бинарные форматы Jackson. Размер тела печатается при запуске.
+ * <p>
+ * {@code java -jar benchmarks/target/benchmarks.jar WireFormatBenchmark -prof gc}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json-string", "json", "cbor", "smile"})
+    public String format;
+
+    @Param({"100", "10000"})
+    public int expenses;
+
+    @Param({"10"})
+    public int members;
+
+    private ObjectMapper mapper;
+
+    private Map<String, Object> group;
+
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            case "json-string", "json" -> new ObjectMapper();
+            case "cbor" -> new CBORMapper();
+            case "smile" -> new SmileMapper();
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+        mapper.registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        group = group();
+        payload = serialize();
+        System.out.printf("%n%s, %d expenses: %d bytes on the wire%n", format, expenses, payload.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        if ("json-string".equals(format)) {
+            return mapper.writeValueAsString(group).getBytes(StandardCharsets.UTF_8);
+        }
+        return mapper.writeValueAsBytes(group);
+    }
+
+    @Benchmark
+    public JsonNode deserialize() throws IOException {
+        if ("json-string".equals(format)) {
+            return mapper.readValue(new String(payload, StandardCharsets.UTF_8), JsonNode.class);
+        }
+        return mapper.readValue(payload, JsonNode.class);
+    }
+
+    private Map<String, Object> group() {
+        List<Map<String, Object>> users = new ArrayList<>(members);
+        for (int i = 0; i < members; i++) {
+            Map<String, Object> user = new LinkedHashMap<>();
+            user.put("id", "3f2b9c1e-0000-4000-8000-" + String.format("%012d", i));
+            user.put("username", "user" + i);
+            user.put("email", "user" + i + "@example.com");
+            users.add(user);
+        }
+        List<Map<String, Object>> events = new ArrayList<>(expenses);
+        for (long i = 0; i < expenses; i++) {
+            List<Map<String, Object>> expenseUsers = new ArrayList<>(members);
+            for (Map<String, Object> user : users) {
+                Map<String, Object> expenseUser = new LinkedHashMap<>();
+                expenseUser.put("id", i * members + expenseUsers.size());
+                expenseUser.put("user", user);
+                expenseUser.put("amount", 10.00);
+                expenseUser.put("paid", 0.00);
+                expenseUsers.add(expenseUser);
+            }
+            Map<String, Object> expense = new LinkedHashMap<>();
+            expense.put("id", i);
+            expense.put("name", "Expense " + i);
+            expense.put("description", "Description");
+            expense.put("amount", 100.00);
+            expense.put("currency", "RUB");
+            expense.put("date", LocalDate.now());
+            expense.put("isActive", true);
+            expense.put("userWhoCreated", users.get((int) (i % members)));
+            expense.put("expenseUsers", expenseUsers);
+            events.add(expense);
+        }
+        Map<String, Object> group = new LinkedHashMap<>();
+        group.put("id", 1L);
+        group.put("name", "Group");
+        group.put("userOwner", users.get(0));
+        group.put("uniqueCode", "ABCDEF");
+        group.put("members", users);
+        group.put("events", events);
+        group.put("isClosed", false);
+        group.put("version", 0L);
+        return group;
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.expensesservice.service;
+
+import org.example.expensesservice.db.Expense;
+import org.example.expensesservice.other.ExpenseUser;
+import org.example.expensesservice.other.Group;
+import org.example.expensesservice.other.User;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Раскладка расхода поровну между участниками (ExpenseService.fillDefaultExpenseUsers).
+ * Класс лежит в пакете сервиса, потому что метод виден только внутри пакета.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FillDefaultExpenseUsersBenchmark {
+
+    @Param({"2", "10", "50"})
+    public int groupSize;
+
+    @Param({"1000", "10000"})
+    public int expenses;
+
+    private ExpenseService expenseService;
+
+    private Group group;
+
+    private List<Expense> expenseList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Репозитории и клиент в этом методе не используются
+        expenseService = new ExpenseService(null, null, null);
+
+        group = new Group();
+        group.setId(1L);
+        List<User> members = new ArrayList<>(groupSize);
+        for (int i = 0; i < groupSize; i++) {
+            members.add(new User("user-" + i));
+        }
+        group.setMembers(members);
+
+        Random random = new Random(42);
+        expenseList = new ArrayList<>(expenses);
+        for (int i = 0; i < expenses; i++) {
+            Expense expense = new Expense();
+            expense.setAmount(BigDecimal.valueOf(100 + random.nextInt(10_000_000), 2));
+            expense.setCurrency("RUB");
+            expense.setGroup(group);
+            expenseList.add(expense);
+        }
+    }
+
+    @Benchmark
+    public void fillDefaultExpenseUsers(Blackhole bh) {
+        for (Expense expense : expenseList) {
+            ArrayList<ExpenseUser> expenseUsers = expenseService.fillDefaultExpenseUsers(group, expense);
+            bh.consume(expenseUsers);
+        }
+    }
+}
@@ -2,14 +2,14 @@ package org.example.expensesservice;
 
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Info;
-import org.modelmapper.ModelMapper;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
-import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableDiscoveryClient
+@EnableScheduling
 @OpenAPIDefinition(
         info = @Info(
                 title = "Expense API",
@@ -23,9 +23,4 @@ public class ExpensesServiceApplication {
         SpringApplication.run(ExpensesServiceApplication.class, args);
     }
 
-    @Bean
-    ModelMapper modelMapper(){
-        return new ModelMapper();
-    }
-
 }
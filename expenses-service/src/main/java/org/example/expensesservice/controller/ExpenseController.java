@@ -6,14 +6,16 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.core.HttpHeaders;
 import lombok.AllArgsConstructor;
-import org.example.expensesservice.client.AuthServiceClient;
 import org.example.expensesservice.db.Expense;
 import org.example.expensesservice.dto.ExpenseDto;
+import org.example.expensesservice.dto.ExpenseMapper;
+import org.example.expensesservice.dto.ExpensePage;
 import org.example.expensesservice.other.ExpenseUser;
 import org.example.expensesservice.request.CreateExpenseRequest;
 import org.example.expensesservice.request.UpdateExpenseRequest;
 import org.example.expensesservice.service.ExpenseService;
-import org.modelmapper.ModelMapper;
+import org.example.serviceclient.GroupsClient;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -21,6 +23,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -30,11 +33,9 @@ import java.util.List;
 @Tag(name = "Expense", description = "Operations about expenses")
 public class ExpenseController {
 
-    private final ModelMapper modelMapper;
-
     private final ExpenseService expenseService;
 
-    private final AuthServiceClient authServiceClient;
+    private final GroupsClient groupsClient;
 
     @Operation(
             summary = "Получить все расходы группы",
@@ -52,13 +53,37 @@ public class ExpenseController {
         var jwt = (Jwt) authentication.getPrincipal();
         String currentUserId = jwt.getClaim("sub");
 
-        List<Expense> expenses = expenseService.getExpenses(currentUserId, groupId);
-        List<ExpenseDto> expenseDtos = expenses.stream()
-                .map(expense -> fromExpenseToExpenseDto(expense, currentUserId))
-                .toList();
+        List<ExpenseDto> expenseDtos = expenseService.getExpenses(currentUserId, groupId);
         return ResponseEntity.status(201).body(expenseDtos);
     }
 
+    @Operation(
+            summary = "Получить расходы группы постранично",
+            description = "Возвращает расходы группы от новых к старым, не больше 100 на страницу. " +
+                    "Можно отфильтровать по датам (from, to включительно), валюте и создателю. " +
+                    "Для следующей страницы передайте nextCursor из ответа в параметр cursor. " +
+                    "Доступно только для участников группы."
+    )
+    @GetMapping("/page")
+    public ResponseEntity<ExpensePage> getExpensePage
+            (
+                    @PathVariable Long groupId,
+                    @RequestParam(value = "cursor", required = false) String cursor,
+                    @RequestParam(value = "limit", defaultValue = "50") int limit,
+                    @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                    @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                    @RequestParam(value = "currency", required = false) String currency,
+                    @RequestParam(value = "createdBy", required = false) String createdBy,
+                    HttpServletRequest req
+            ) {
+        var authentication = (Authentication) req.getUserPrincipal();
+        var jwt = (Jwt) authentication.getPrincipal();
+        String currentUserId = jwt.getClaim("sub");
+
+        return ResponseEntity.ok(expenseService.getExpensePage(currentUserId, groupId, cursor, limit,
+                from, to, currency, createdBy));
+    }
+
     @Operation(
             summary = "Создать новый расход",
             description = "Создает новый расход в указанной группе. " +
@@ -78,7 +103,7 @@ public class ExpenseController {
         var jwt = (Jwt) authentication.getPrincipal();
         String currentUserId = jwt.getClaim("sub");
 
-        var group = authServiceClient.getGroupById(authHeader, groupId);
+        var group = groupsClient.getGroupDescriptor(authHeader, groupId);
         var returned = expenseService.createExpense(createExpenseRequest, currentUserId, group);
         var expenseDto = fromExpenseToExpenseDto(returned, currentUserId);
         return ResponseEntity.status(201).body(expenseDto);
@@ -121,12 +146,12 @@ public class ExpenseController {
         String currentUserId = jwt.getClaim("sub");
 
         var updatedParticipants = expenseService.updateExpense(expenseId, requests, currentUserId, groupId);
-        return ResponseEntity.status(201).body(fromExpenseToDTO(updatedParticipants));
+        return ResponseEntity.status(201).body(ExpenseMapper.toDto(updatedParticipants));
     }
 
 
     private ExpenseDto fromExpenseToExpenseDto(Expense expense, String currentUserId) {
-        var expenseDto = modelMapper.map(expense, ExpenseDto.class);
+        var expenseDto = ExpenseMapper.toDto(expense);
         var amount = expense.getExpenseUsers().stream()
                 .filter(eu -> eu.getUser() != null && currentUserId.equals(eu.getUser().getId()))
                 .findFirst()
@@ -135,7 +160,4 @@ public class ExpenseController {
         expenseDto.setCurrentUserPaid(amount);
         return expenseDto;
     }
-
-    private ExpenseDto fromExpenseToDTO(Expense expense) {return modelMapper.map(expense, ExpenseDto.class);}
-
 }
\ No newline at end of file
@@ -15,7 +15,9 @@ import java.util.List;
 @Data
 @Entity
 @NoArgsConstructor
-@Table(name = "expenses")
+@Table(name = "expenses",
+        // Keyset-пагинация списка расходов группы по (date, id)
+        indexes = @Index(name = "idx_expenses_group_date_id", columnList = "group_id, date, id"))
 public class Expense {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -1,8 +1,13 @@
 package org.example.expensesservice.db;
 
+import org.example.expensesservice.dto.ExpenseDto;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,4 +15,42 @@ import java.util.Optional;
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     List<Expense> getExpensesByGroupId(Long groupId);
     Optional<Expense> findByIdAndGroupId(Long id, Long groupId);
+
+    // Расходы группы вместе с долей текущего пользователя одним SQL-запросом, без загрузки expenseUsers.
+    // Пустой результат, если пользователь не участник группы
+    @Query("SELECT new org.example.expensesservice.dto.ExpenseDto(" +
+            "e.id, e.createdAt, e.updatedAt, e.name, e.date, e.description, e.amount, e.currency, " +
+            "e.userWhoCreated.id, e.isActive, e.group.id, COALESCE(eu.amount, 0)) " +
+            "FROM Expense e " +
+            "LEFT JOIN e.expenseUsers eu ON eu.user.id = :userId " +
+            "WHERE e.group.id = :groupId " +
+            "AND EXISTS (SELECT 1 FROM Group g JOIN g.members m WHERE g.id = :groupId AND m.id = :userId) " +
+            "ORDER BY e.id")
+    List<ExpenseDto> findExpenseDtosForMember(@Param("groupId") Long groupId, @Param("userId") String userId);
+
+    // Страница расходов после курсора (date, id) в порядке от новых к старым, с фильтрами
+    @Query("SELECT new org.example.expensesservice.dto.ExpenseDto(" +
+            "e.id, e.createdAt, e.updatedAt, e.name, e.date, e.description, e.amount, e.currency, " +
+            "e.userWhoCreated.id, e.isActive, e.group.id, COALESCE(eu.amount, 0)) " +
+            "FROM Expense e " +
+            "LEFT JOIN e.expenseUsers eu ON eu.user.id = :userId " +
+            "WHERE e.group.id = :groupId " +
+            "AND (e.date < :cursorDate OR (e.date = :cursorDate AND e.id < :cursorId)) " +
+            "AND e.date BETWEEN :fromDate AND :toDate " +
+            "AND (:currency IS NULL OR e.currency = :currency) " +
+            "AND (:creatorId IS NULL OR e.userWhoCreated.id = :creatorId) " +
+            "AND EXISTS (SELECT 1 FROM Group g JOIN g.members m WHERE g.id = :groupId AND m.id = :userId) " +
+            "ORDER BY e.date DESC, e.id DESC")
+    List<ExpenseDto> findExpensePage(@Param("groupId") Long groupId,
+                                     @Param("userId") String userId,
+                                     @Param("cursorDate") LocalDate cursorDate,
+                                     @Param("cursorId") Long cursorId,
+                                     @Param("fromDate") LocalDate fromDate,
+                                     @Param("toDate") LocalDate toDate,
+                                     @Param("currency") String currency,
+                                     @Param("creatorId") String creatorId,
+                                     Pageable pageable);
+
+    @Query("SELECT COUNT(m) > 0 FROM Group g JOIN g.members m WHERE g.id = :groupId AND m.id = :userId")
+    boolean isMember(@Param("groupId") Long groupId, @Param("userId") String userId);
 }
@@ -0,0 +1,30 @@
+package org.example.expensesservice.db;
+
+import org.example.expensesservice.other.GroupBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+
+@Repository
+public interface GroupBalanceRepository extends JpaRepository<GroupBalance, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO group_balances (group_id, debtor_id, creditor_id, currency, net_amount) " +
+            "VALUES (:groupId, :debtorId, :creditorId, :currency, :delta) " +
+            "ON CONFLICT (group_id, debtor_id, creditor_id, currency) " +
+            "DO UPDATE SET net_amount = group_balances.net_amount + EXCLUDED.net_amount",
+            nativeQuery = true)
+    void addToBalance(@Param("groupId") Long groupId,
+                      @Param("debtorId") String debtorId,
+                      @Param("creditorId") String creditorId,
+                      @Param("currency") String currency,
+                      @Param("delta") BigDecimal delta);
+
+    // Та же блокировка, что и в expensesUser-service
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:groupId)", nativeQuery = true)
+    Integer lockGroup(@Param("groupId") Long groupId);
+}
@@ -0,0 +1,17 @@
+package org.example.expensesservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExpensePage {
+    private List<ExpenseDto> items;
+    private String nextCursor; // Передать в cursor для следующей страницы; null — это последняя страница
+}
@@ -0,0 +1,45 @@
+package org.example.expensesservice.other;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Копия сущности из expensesUser-service: баланс пары "должник → кредитор" внутри группы.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "group_balances",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_group_balances_pair",
+                columnNames = {"group_id", "debtor_id", "creditor_id", "currency"}),
+        indexes = {
+                @Index(name = "idx_group_balances_group_creditor", columnList = "group_id, creditor_id"),
+                @Index(name = "idx_group_balances_debtor_group", columnList = "debtor_id, group_id"),
+                @Index(name = "idx_group_balances_creditor_group", columnList = "creditor_id, group_id")
+        })
+public class GroupBalance {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "debtor_id", nullable = false)
+    private User debtor;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "creditor_id", nullable = false)
+    private User creditor;
+
+    @Column(name = "net_amount", nullable = false)
+    private BigDecimal netAmount;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+}
@@ -4,19 +4,26 @@ import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.ForbiddenException;
 import lombok.AllArgsConstructor;
-import org.example.expensesservice.client.AuthServiceClient;
 import org.example.expensesservice.db.Expense;
 import org.example.expensesservice.db.ExpenseRepository;
+import org.example.expensesservice.db.GroupBalanceRepository;
+import org.example.expensesservice.dto.ExpenseDto;
+import org.example.expensesservice.dto.ExpensePage;
+import org.example.serviceclient.money.Money;
 import org.example.expensesservice.other.ExpenseUser;
 import org.example.expensesservice.other.Group;
 import org.example.expensesservice.other.User;
 import org.example.expensesservice.request.CreateExpenseRequest;
-import org.example.expensesservice.request.NotificationRequest;
 import org.example.expensesservice.request.UpdateExpenseRequest;
+import org.example.serviceclient.dto.GroupDescriptor;
+import org.example.serviceclient.outbox.NotificationOutboxService;
+import org.example.serviceclient.request.NotificationRequest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -26,34 +33,81 @@ import java.util.Objects;
 @AllArgsConstructor
 public class ExpenseService {
 
+    public static final int maxPageSize = 100;
+
+    private static final LocalDate minDate = LocalDate.of(1, 1, 1);
+
+    private static final LocalDate maxDate = LocalDate.of(9999, 12, 31);
+
     private final ExpenseRepository expenseRepository;
 
-    private final AuthServiceClient authServiceClient;
+    private final NotificationOutboxService notificationOutboxService;
 
-    public List<Expense> getExpenses(String currentUserId, Long groupId) {
-        var expenses = expenseRepository.getExpensesByGroupId(groupId);
+    private final GroupBalanceRepository groupBalanceRepository;
 
+    public List<ExpenseDto> getExpenses(String currentUserId, Long groupId) {
+        var expenses = expenseRepository.findExpenseDtosForMember(groupId, currentUserId);
+
+        // Членство проверяется внутри запроса, отдельный запрос нужен только чтобы различить причины пустого ответа
         if (expenses.isEmpty()) {
+            if (!expenseRepository.isMember(groupId, currentUserId)) {
+                throw new ForbiddenException("You are not a member");
+            }
             throw new EntityNotFoundException("Expense not found");
         }
-        expenses.get(0).getGroup().getMembers().stream()
-                .filter(eu -> eu.getId().equals(currentUserId))
-                .findFirst().orElseThrow(() -> new ForbiddenException("You are not a member"));
-
 
         return expenses;
     }
 
-    public Expense createExpense(CreateExpenseRequest createExpenseRequest, String currentUserId, Group group) {
+    /**
+     * Страница расходов группы от новых к старым. Следующая страница — по nextCursor из ответа.
+     */
+    public ExpensePage getExpensePage(String currentUserId, Long groupId, String cursor, int limit,
+                                      LocalDate from, LocalDate to, String currency, String creatorId) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        ExpenseCursor position = ExpenseCursor.decode(cursor);
+
+        // Запрашиваем на один расход больше, чтобы понять, есть ли следующая страница
+        List<ExpenseDto> items = expenseRepository.findExpensePage(groupId, currentUserId,
+                position.date(), position.id(),
+                from != null ? from : minDate, to != null ? to : maxDate,
+                currency, creatorId, PageRequest.of(0, limit + 1));
+
+        // Как и в getExpenses: пустой ответ без членства — это отказ в доступе
+        if (items.isEmpty() && !expenseRepository.isMember(groupId, currentUserId)) {
+            throw new ForbiddenException("You are not a member");
+        }
+
+        String nextCursor = null;
+        if (items.size() > limit) {
+            items = items.subList(0, limit);
+            ExpenseDto last = items.get(limit - 1);
+            nextCursor = new ExpenseCursor(last.getDate(), last.getId()).encode();
+        }
+
+        return ExpensePage.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Transactional
+    public Expense createExpense(CreateExpenseRequest createExpenseRequest, String currentUserId,
+                                 GroupDescriptor descriptor) {
         var toSave = new Expense();
-        if (!group.getMembers().stream().map(User::getId)
-                .toList().contains(currentUserId)) {
-            throw new IllegalArgumentException("You don't member of group with id " + group.getId());
+        if (!descriptor.hasMember(currentUserId)) {
+            throw new IllegalArgumentException("You don't member of group with id " + descriptor.getId());
         }
 
-        if (Boolean.TRUE.equals(group.getIsClosed())) {
+        if (descriptor.isClosed()) {
             throw new IllegalArgumentException("This group is closed");
         }
+        var group = groupOf(descriptor);
 
         toSave.setAmount(createExpenseRequest.getAmount());
         toSave.setDescription(createExpenseRequest.getDescription());
@@ -71,35 +125,42 @@ public class ExpenseService {
                 .orElseThrow(() -> new EntityNotFoundException("User with id " + currentUserId + " not found"));
         expUs.setPaid(expUs.getAmount());
 
-        var members = toSave.getGroup().getMembers();
-
-        authServiceClient.sendNotificationToMultipleUsers(members,
+        notificationOutboxService.enqueueForGroup(group.getId(),
                 new NotificationRequest("Добавление расхода",
                         String.format("Новый расход был добавлен в группу %s", toSave.getGroup().getName())));
 
-        return expenseRepository.save(toSave);
+        var saved = expenseRepository.save(toSave);
+        applyToBalances(saved, saved.getCurrency(), saved.getExpenseUsers(), false);
+
+        return saved;
+    }
+
+    // Ссылка на группу для сохранения расхода: из описания нужны только id, название и участники
+    private static Group groupOf(GroupDescriptor descriptor) {
+        var group = new Group();
+        group.setId(descriptor.getId());
+        group.setName(descriptor.getName());
+        group.setIsClosed(descriptor.isClosed());
+        group.setMembers(new ArrayList<>(descriptor.getMemberIds().stream().map(User::new).toList()));
+        return group;
     }
 
-    //На вид не очень продумано, это временно. Кто знает, как лучше, делайте
-    private ArrayList<ExpenseUser> fillDefaultExpenseUsers(Group group, Expense expense) {
+    // Видимость пакета — чтобы раскладку можно было мерить в benchmarks
+    ArrayList<ExpenseUser> fillDefaultExpenseUsers(Group group, Expense expense) {
         ArrayList<ExpenseUser> expenseUsers = new ArrayList<>();
-        BigDecimal totalAmount = expense.getAmount();
         int memberCount = group.getMembers().size();
         if (memberCount == 0) {
             return expenseUsers;
         }
-        BigDecimal share = totalAmount.divide(BigDecimal.valueOf(memberCount), 2, RoundingMode.DOWN);
-
-        BigDecimal remainder = totalAmount.subtract(share.multiply(BigDecimal.valueOf(memberCount)));
+        // Делим в копейках; остаток от деления достается первому участнику
+        long[] shares = Money.of(expense.getAmount(), expense.getCurrency()).split(memberCount);
 
         for (int i = 0; i < memberCount; i++) {
             User user = group.getMembers().get(i);
             ExpenseUser expenseUser = new ExpenseUser();
             expenseUser.setUser(user);
             expenseUser.setExpense(expense);
-
-            BigDecimal finalShare = (i == 0) ? share.add(remainder) : share;
-            expenseUser.setAmount(finalShare);
+            expenseUser.setAmount(Money.toBigDecimal(shares[i]));
             expenseUser.setPaid(BigDecimal.ZERO);
 
             expenseUsers.add(expenseUser);
@@ -108,6 +169,7 @@ public class ExpenseService {
         return expenseUsers;
     }
 
+    @Transactional
     public void deleteExpense(Long expenseId,String currentUserId, Long groupId) {
         var toDelete = expenseRepository.findByIdAndGroupId(expenseId, groupId)
                 .orElseThrow(()-> new EntityNotFoundException("Group or expence" + groupId +" " + expenseId + " not found"));
@@ -118,15 +180,16 @@ public class ExpenseService {
             throw new IllegalArgumentException("Only the owner can delete to expense");
         }
 
-        var members = toDelete.getGroup().getMembers();
-
-        authServiceClient.sendNotificationToMultipleUsers(members,
+        notificationOutboxService.enqueueForGroup(groupId,
                 new NotificationRequest("Удаление расхода",
                         String.format("Расход %s был удален из группы %s", toDelete.getName(), toDelete.getGroup().getName())));
 
+        applyToBalances(toDelete, toDelete.getCurrency(), toDelete.getExpenseUsers(), true);
+
         expenseRepository.delete(toDelete);
     }
 
+    @Transactional
     public Expense updateExpense(Long expenseId, @Valid UpdateExpenseRequest requests, String currentUserId, Long groupId) {
 
         var expense = expenseRepository.findByIdAndGroupId(expenseId, groupId)
@@ -145,9 +208,15 @@ public class ExpenseService {
                 .filter(Objects::nonNull)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
+        // До изменения балансов: отклоненный запрос не должен их трогать
         if(requests.getAmount().compareTo(totalAmount) < 0){
-            expense.getExpenseUsers().clear();
+            throw new IllegalArgumentException(
+                    "The amount of the expense must not be less than the sum of the participants in the expense.");
         }
+
+        // Снимаем старое состояние расхода с балансов группы (валюта могла измениться)
+        applyToBalances(expense, expense.getCurrency(), expense.getExpenseUsers(), true);
+
         expense.setAmount(requests.getAmount());
         expense.setDescription(requests.getDescription());
         expense.setDate(requests.getDate());
@@ -155,12 +224,34 @@ public class ExpenseService {
         expense.setName(requests.getName());
         expense.setUpdatedAt(LocalDateTime.now());
 
-        var members = expense.getGroup().getMembers();
-
-        authServiceClient.sendNotificationToMultipleUsers(members,
+        notificationOutboxService.enqueueForGroup(groupId,
                 new NotificationRequest("Обновление расхода",
                         String.format("Изменение расхода %s в группе %s", expense.getName(), expense.getGroup().getName())));
 
-        return expenseRepository.save(expense);
+        var saved = expenseRepository.save(expense);
+        applyToBalances(saved, saved.getCurrency(), saved.getExpenseUsers(), false);
+
+        return saved;
+    }
+
+    // Поддерживает group_balances (см. expensesUser-service) в той же транзакции, что и expense_users
+    private void applyToBalances(Expense expense, String currency, List<ExpenseUser> expenseUsers, boolean negate) {
+        if (expenseUsers == null || expenseUsers.isEmpty()) {
+            return;
+        }
+        Long groupId = expense.getGroup().getId();
+        String creditorId = expense.getUserWhoCreated().getId();
+        groupBalanceRepository.lockGroup(groupId);
+
+        for (ExpenseUser eu : expenseUsers) {
+            String debtorId = eu.getUser().getId();
+            if (creditorId.equals(debtorId)) continue;
+
+            BigDecimal outstanding = eu.getAmount().subtract(eu.getPaid());
+            if (outstanding.signum() == 0) continue;
+
+            groupBalanceRepository.addToBalance(groupId, debtorId, creditorId, currency,
+                    negate ? outstanding.negate() : outstanding);
+        }
     }
 }
\ No newline at end of file
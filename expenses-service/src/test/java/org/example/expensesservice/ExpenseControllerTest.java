@@ -1,22 +1,23 @@
 package org.example.expensesservice;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.example.expensesservice.client.AuthServiceClient;
 import org.example.expensesservice.controller.ExpenseController;
 import org.example.expensesservice.db.Expense;
 import org.example.expensesservice.dto.ExpenseDto;
 import org.example.expensesservice.other.ExpenseUser;
 import org.example.expensesservice.other.Group;
+import org.example.expensesservice.other.User;
 import org.example.expensesservice.request.CreateExpenseRequest;
 import org.example.expensesservice.request.UpdateExpenseRequest;
 import org.example.expensesservice.service.ExpenseService;
+import org.example.serviceclient.GroupsClient;
+import org.example.serviceclient.dto.GroupDescriptor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -42,10 +43,7 @@ class ExpenseControllerTest {
     private ExpenseService expenseService;
 
     @Mock
-    private AuthServiceClient authServiceClient;
-
-    @Mock
-    private ModelMapper modelMapper;
+    private GroupsClient groupsClient;
 
     private MockMvc mockMvc;
 
@@ -74,32 +72,20 @@ class ExpenseControllerTest {
     void getExpenses_shouldReturnListOfExpenses() throws Exception {
         Long groupId = 1L;
 
-        Expense expense1 = new Expense();
-        Expense expense2 = new Expense();
-        ExpenseUser expenseUser1 = new ExpenseUser();
-        ExpenseUser expenseUser2 = new ExpenseUser();
-        expenseUser1.setId(1L);
-        expenseUser2.setId(2L);
-        expenseUser1.setAmount(BigDecimal.valueOf(100));
-        expenseUser2.setAmount(BigDecimal.valueOf(200));
-        expense1.setExpenseUsers(List.of(expenseUser1));
-        expense2.setExpenseUsers(List.of(expenseUser2));
-
         ExpenseDto expenseDto1 = new ExpenseDto();
         expenseDto1.setCurrentUserPaid(BigDecimal.valueOf(100));
         ExpenseDto expenseDto2 = new ExpenseDto();
         expenseDto2.setCurrentUserPaid(BigDecimal.valueOf(200));
 
-        when(expenseService.getExpenses(userId, groupId)).thenReturn(List.of(expense1, expense2));
-        when(modelMapper.map(eq(expense1), eq(ExpenseDto.class))).thenReturn(expenseDto1);
-        when(modelMapper.map(eq(expense2), eq(ExpenseDto.class))).thenReturn(expenseDto2);
+        when(expenseService.getExpenses(userId, groupId)).thenReturn(List.of(expenseDto1, expenseDto2));
 
         mockMvc.perform(MockMvcRequestBuilders
                         .get("/groups/{groupId}/expenses", groupId)
                         .principal(auth)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isCreated())
-                .andExpect(jsonPath("$.length()").value(2));
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].currentUserPaid").value(200));
 
         verify(expenseService).getExpenses(userId, groupId);
         verifyNoMoreInteractions(expenseService);
@@ -115,17 +101,23 @@ class ExpenseControllerTest {
         createRequest.setDescription("Team lunch");
         createRequest.setCurrency("USD");
 
+        Group expenseGroup = new Group();
+        expenseGroup.setId(groupId);
+        ExpenseUser share = new ExpenseUser();
+        share.setUser(new User(userId));
+        share.setAmount(BigDecimal.valueOf(250));
         Expense createdExpense = new Expense();
-        createdExpense.setExpenseUsers(List.of(new ExpenseUser()));
+        createdExpense.setId(7L);
+        createdExpense.setName("Lunch");
+        createdExpense.setAmount(BigDecimal.valueOf(500));
+        createdExpense.setUserWhoCreated(new User(userId));
+        createdExpense.setGroup(expenseGroup);
+        createdExpense.setExpenseUsers(List.of(share));
 
-        ExpenseDto expenseDto = new ExpenseDto();
+        GroupDescriptor group = GroupDescriptor.builder().id(groupId).build();
 
-        Group group = new Group();
-        group.setId(groupId);
-
-        when(authServiceClient.getGroupById(anyString(), eq(groupId))).thenReturn(group);
+        when(groupsClient.getGroupDescriptor(anyString(), eq(groupId))).thenReturn(group);
         when(expenseService.createExpense(any(CreateExpenseRequest.class), eq(userId), eq(group))).thenReturn(createdExpense);
-        when(modelMapper.map(eq(createdExpense), eq(ExpenseDto.class))).thenReturn(expenseDto);
 
         mockMvc.perform(MockMvcRequestBuilders
                         .post("/groups/{groupId}/expenses", groupId)
@@ -133,7 +125,13 @@ class ExpenseControllerTest {
                         .header("Authorization", "Bearer token")
                         .principal(auth)
                         .content(objectMapper.writeValueAsString(createRequest)))
-                .andExpect(status().isCreated());
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.name").value("Lunch"))
+                .andExpect(jsonPath("$.currency").value("RUB"))
+                .andExpect(jsonPath("$.userWhoCreatedId").value(userId))
+                .andExpect(jsonPath("$.groupId").value(groupId))
+                .andExpect(jsonPath("$.currentUserPaid").value(250));
 
         verify(expenseService).createExpense(any(CreateExpenseRequest.class), eq(userId), eq(group));
         verifyNoMoreInteractions(expenseService);
@@ -170,17 +168,20 @@ class ExpenseControllerTest {
 
 
         Expense updatedExpense = new Expense();
-        ExpenseDto updatedExpenseDto = new ExpenseDto();
+        updatedExpense.setId(expenseId);
+        updatedExpense.setName("Updated Expense");
 
         when(expenseService.updateExpense(expenseId, updateRequest, userId, groupId)).thenReturn(updatedExpense);
-        when(modelMapper.map(updatedExpense, ExpenseDto.class)).thenReturn(updatedExpenseDto);
 
         mockMvc.perform(MockMvcRequestBuilders
                         .put("/groups/{groupId}/expenses/{expenseId}", groupId, expenseId)
                         .contentType(MediaType.APPLICATION_JSON)
                         .principal(auth)
                         .content(objectMapper.writeValueAsString(updateRequest)))
-                .andExpect(status().isCreated());
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(expenseId))
+                .andExpect(jsonPath("$.name").value("Updated Expense"))
+                .andExpect(jsonPath("$.groupId").doesNotExist());
 
         verify(expenseService).updateExpense(expenseId, updateRequest, userId, groupId);
         verifyNoMoreInteractions(expenseService);
@@ -4,17 +4,25 @@ import jakarta.persistence.EntityNotFoundException;
 import jakarta.ws.rs.ForbiddenException;
 import org.example.expensesservice.db.Expense;
 import org.example.expensesservice.db.ExpenseRepository;
+import org.example.expensesservice.db.GroupBalanceRepository;
+import org.example.expensesservice.dto.ExpenseDto;
+import org.example.expensesservice.dto.ExpensePage;
 import org.example.expensesservice.other.ExpenseUser;
 import org.example.expensesservice.other.Group;
 import org.example.expensesservice.other.User;
 import org.example.expensesservice.request.CreateExpenseRequest;
 import org.example.expensesservice.request.UpdateExpenseRequest;
+import org.example.expensesservice.service.ExpenseCursor;
 import org.example.expensesservice.service.ExpenseService;
+import org.example.serviceclient.dto.GroupDescriptor;
+import org.example.serviceclient.outbox.NotificationOutboxService;
+import org.example.serviceclient.request.NotificationRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -32,6 +40,12 @@ class ExpenseServiceTest {
     @Mock
     private ExpenseRepository expenseRepository;
 
+    @Mock
+    private NotificationOutboxService notificationOutboxService;
+
+    @Mock
+    private GroupBalanceRepository groupBalanceRepository;
+
     @InjectMocks
     private ExpenseService expenseService;
 
@@ -44,22 +58,23 @@ class ExpenseServiceTest {
     void getExpenses_shouldReturnExpenses() {
         String userId = "user1";
         Long groupId = 1L;
-        Group group = new Group();
-        group.setMembers(List.of(new User(userId)));
 
-        Expense expense = new Expense();
-        expense.setGroup(group);
+        ExpenseDto expense = new ExpenseDto();
+        expense.setCurrentUserPaid(new BigDecimal("25.00"));
 
-        when(expenseRepository.getExpensesByGroupId(groupId)).thenReturn(List.of(expense));
+        when(expenseRepository.findExpenseDtosForMember(groupId, userId)).thenReturn(List.of(expense));
 
         var result = expenseService.getExpenses(userId, groupId);
 
         assertThat(result).hasSize(1);
+        assertThat(result.get(0).getCurrentUserPaid()).isEqualByComparingTo("25.00");
+        verify(expenseRepository, never()).isMember(anyLong(), anyString());
     }
 
     @Test
     void getExpenses_shouldThrow_whenExpensesNotFound() {
-        when(expenseRepository.getExpensesByGroupId(1L)).thenReturn(new ArrayList<>());
+        when(expenseRepository.findExpenseDtosForMember(1L, "user1")).thenReturn(new ArrayList<>());
+        when(expenseRepository.isMember(1L, "user1")).thenReturn(true);
 
         assertThatThrownBy(() -> expenseService.getExpenses("user1", 1L))
                 .isInstanceOf(EntityNotFoundException.class);
@@ -67,25 +82,75 @@ class ExpenseServiceTest {
 
     @Test
     void getExpenses_shouldThrow_whenUserNotMember() {
+        when(expenseRepository.findExpenseDtosForMember(1L, "user1")).thenReturn(new ArrayList<>());
+        when(expenseRepository.isMember(1L, "user1")).thenReturn(false);
+
+        assertThatThrownBy(() -> expenseService.getExpenses("user1", 1L))
+                .isInstanceOf(ForbiddenException.class);
+    }
+
+    @Test
+    void getExpensePage_shouldReturnNextCursor_whenMoreExpensesExist() {
         String userId = "user1";
-        Group group = new Group();
-        group.setMembers(new ArrayList<>());
+        ExpenseDto newest = ExpenseDto.builder().id(3L).date(LocalDate.of(2025, 3, 1)).build();
+        ExpenseDto middle = ExpenseDto.builder().id(2L).date(LocalDate.of(2025, 2, 1)).build();
+        ExpenseDto oldest = ExpenseDto.builder().id(1L).date(LocalDate.of(2025, 1, 1)).build();
 
-        Expense expense = new Expense();
-        expense.setGroup(group);
+        when(expenseRepository.findExpensePage(eq(1L), eq(userId), any(), anyLong(), any(), any(),
+                isNull(), isNull(), eq(PageRequest.of(0, 3)))).thenReturn(List.of(newest, middle, oldest));
+
+        ExpensePage page = expenseService.getExpensePage(userId, 1L, null, 2, null, null, null, null);
+
+        assertThat(page.getItems()).containsExactly(newest, middle);
+        ExpenseCursor cursor = ExpenseCursor.decode(page.getNextCursor());
+        assertThat(cursor.date()).isEqualTo(LocalDate.of(2025, 2, 1));
+        assertThat(cursor.id()).isEqualTo(2L);
+    }
+
+    @Test
+    void getExpensePage_shouldContinueFromCursor() {
+        String userId = "user1";
+        String cursor = new ExpenseCursor(LocalDate.of(2025, 2, 1), 2L).encode();
+        ExpenseDto oldest = ExpenseDto.builder().id(1L).date(LocalDate.of(2025, 1, 1)).build();
+
+        when(expenseRepository.findExpensePage(eq(1L), eq(userId), eq(LocalDate.of(2025, 2, 1)), eq(2L),
+                any(), any(), eq("RUB"), isNull(), any())).thenReturn(List.of(oldest));
 
-        when(expenseRepository.getExpensesByGroupId(1L)).thenReturn(List.of(expense));
+        ExpensePage page = expenseService.getExpensePage(userId, 1L, cursor, 2, null, null, "RUB", null);
 
-        assertThatThrownBy(() -> expenseService.getExpenses(userId, 1L))
+        assertThat(page.getItems()).containsExactly(oldest);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getExpensePage_shouldThrow_whenLimitTooLarge() {
+        assertThatThrownBy(() -> expenseService.getExpensePage("user1", 1L, null,
+                ExpenseService.maxPageSize + 1, null, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void getExpensePage_shouldThrow_whenCursorIsInvalid() {
+        assertThatThrownBy(() -> expenseService.getExpensePage("user1", 1L, "not-a-cursor", 10, null, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid cursor");
+    }
+
+    @Test
+    void getExpensePage_shouldThrow_whenUserNotMember() {
+        when(expenseRepository.findExpensePage(anyLong(), anyString(), any(), anyLong(), any(), any(),
+                any(), any(), any())).thenReturn(new ArrayList<>());
+        when(expenseRepository.isMember(1L, "user1")).thenReturn(false);
+
+        assertThatThrownBy(() -> expenseService.getExpensePage("user1", 1L, null, 10, null, null, null, null))
                 .isInstanceOf(ForbiddenException.class);
     }
 
     @Test
     void createExpense_shouldCreateSuccessfully() {
         String userId = "user1";
-        Group group = new Group();
-        group.setMembers(List.of(new User(userId)));
-        group.setIsClosed(false);
+        GroupDescriptor group = GroupDescriptor.builder()
+                .id(1L).name("Trip").closed(false).memberIds(List.of(userId)).build();
 
         CreateExpenseRequest request = new CreateExpenseRequest();
         request.setAmount(new BigDecimal("100"));
@@ -101,13 +166,14 @@ class ExpenseServiceTest {
         assertThat(result.getAmount()).isEqualByComparingTo("100");
         assertThat(result.getName()).isEqualTo("Lunch");
         assertThat(result.getExpenseUsers()).isNotEmpty();
+        assertThat(result.getGroup().getId()).isEqualTo(1L);
+        verify(notificationOutboxService).enqueueForGroup(eq(group.getId()), any(NotificationRequest.class));
     }
 
     @Test
     void createExpense_shouldThrow_whenUserNotMember() {
         String userId = "user1";
-        Group group = new Group();
-        group.setMembers(new ArrayList<>());
+        GroupDescriptor group = GroupDescriptor.builder().id(1L).memberIds(new ArrayList<>()).build();
 
         CreateExpenseRequest request = new CreateExpenseRequest();
 
@@ -119,9 +185,8 @@ class ExpenseServiceTest {
     @Test
     void createExpense_shouldThrow_whenGroupClosed() {
         String userId = "user1";
-        Group group = new Group();
-        group.setMembers(List.of(new User(userId)));
-        group.setIsClosed(true);
+        GroupDescriptor group = GroupDescriptor.builder()
+                .id(1L).closed(true).memberIds(List.of(userId)).build();
 
         CreateExpenseRequest request = new CreateExpenseRequest();
 
@@ -141,12 +206,14 @@ class ExpenseServiceTest {
 
         Expense expense = new Expense();
         expense.setGroup(group);
+        expense.setUserWhoCreated(new User(userId));
 
         when(expenseRepository.findByIdAndGroupId(expenseId, groupId)).thenReturn(Optional.of(expense));
 
         expenseService.deleteExpense(expenseId, userId, groupId);
 
         verify(expenseRepository).delete(expense);
+        verify(notificationOutboxService).enqueueForGroup(eq(groupId), any(NotificationRequest.class));
     }
 
     @Test
@@ -180,11 +247,17 @@ class ExpenseServiceTest {
         group.setIsClosed(false);
         group.setMembers(List.of(member));
 
+        group.setId(groupId);
+
         ExpenseUser expenseUser = new ExpenseUser();
+        expenseUser.setUser(new User("user2"));
         expenseUser.setAmount(new BigDecimal("10"));
+        expenseUser.setPaid(BigDecimal.ZERO);
 
         Expense expense = new Expense();
         expense.setGroup(group);
+        expense.setUserWhoCreated(member);
+        expense.setCurrency("RUB");
         expense.setExpenseUsers(List.of(expenseUser));
         expense.setAmount(new BigDecimal("100"));
 
@@ -202,6 +275,9 @@ class ExpenseServiceTest {
 
         assertThat(result.getAmount()).isEqualByComparingTo("200");
         assertThat(result.getDescription()).isEqualTo("Updated description");
+        // Долг переносится из старой валюты в новую
+        verify(groupBalanceRepository).addToBalance(groupId, "user2", userId, "RUB", new BigDecimal("-10"));
+        verify(groupBalanceRepository).addToBalance(groupId, "user2", userId, "USD", new BigDecimal("10"));
     }
 
     @Test
@@ -260,5 +336,7 @@ class ExpenseServiceTest {
         assertThatThrownBy(() -> expenseService.updateExpense(1L, request, "user1", 1L))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("must not be less");
+        verifyNoInteractions(groupBalanceRepository);
+        verify(expenseRepository, never()).save(any());
     }
 }
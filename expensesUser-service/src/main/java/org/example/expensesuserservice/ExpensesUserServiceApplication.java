@@ -2,14 +2,14 @@ package org.example.expensesuserservice;
 
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Info;
-import org.modelmapper.ModelMapper;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
-import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableDiscoveryClient
+@EnableScheduling
 @OpenAPIDefinition(
         info = @Info(
                 title = "ExpenseUser API",
@@ -22,9 +22,4 @@ public class ExpensesUserServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(ExpensesUserServiceApplication.class, args);
     }
-
-    @Bean
-    ModelMapper modelMapper(){
-        return new ModelMapper();
-    }
 }
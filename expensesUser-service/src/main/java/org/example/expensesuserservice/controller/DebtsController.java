@@ -6,15 +6,17 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import org.example.expensesuserservice.dto.AggregatedDebtSummary;
-import org.example.expensesuserservice.dto.UserOwedInGroupData;
+import org.example.expensesuserservice.dto.DebtsSummary;
+import org.example.expensesuserservice.dto.SettlementPlan;
 import org.example.expensesuserservice.service.DebtsService;
+import org.example.expensesuserservice.service.SettlementPlanService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -22,24 +24,57 @@ import java.util.List;
 @RestController
 @AllArgsConstructor
 @Validated
-@RequestMapping("/group")
 @Tag(name = "Debts", description = "API for debts")
 public class DebtsController {
 
     private final DebtsService debtsService;
 
+    private final SettlementPlanService settlementPlanService;
+
     @Operation(
             summary = "Получить подробную информацию о том, сколько денег и кому и в каких группах должен текущий пользователь",
-            description = "Возвращает подробную информацию о том, сколько денег и кому и в каких группах должен текущий пользователь"
+            description = "Возвращает подробную информацию о том, сколько денег и кому и в каких группах должен текущий пользователь. " +
+                    "С details=true для каждого участника добавляется разбивка по расходам"
     )
-    @GetMapping("/{groupId}/debts")
-    public ResponseEntity<AggregatedDebtSummary> getSumOfYouOwed(HttpServletRequest req, @PathVariable("groupId") Long groupId) {
+    @GetMapping("/group/{groupId}/debts")
+    public ResponseEntity<AggregatedDebtSummary> getSumOfYouOwed(HttpServletRequest req, @PathVariable("groupId") Long groupId,
+                                                                 @RequestParam(value = "details", defaultValue = "false") boolean details) {
         var authentication = (Authentication) req.getUserPrincipal();
         var jwt = (Jwt) authentication.getPrincipal();
         String currentUserId = jwt.getClaim("sub");
 
-        var result = debtsService.getAggregatedDebts(currentUserId, groupId);
+        var result = debtsService.getAggregatedDebts(currentUserId, groupId, details);
         return ResponseEntity.ok(result);
     }
 
+    @Operation(
+            summary = "Получить план погашения долгов группы",
+            description = "Возвращает минимальный набор переводов, после которых все долги в группе будут закрыты. " +
+                    "Доступно только для участников группы."
+    )
+    @GetMapping("/group/{groupId}/settlement-plan")
+    public ResponseEntity<SettlementPlan> getSettlementPlan(HttpServletRequest req, @PathVariable("groupId") Long groupId) {
+        var authentication = (Authentication) req.getUserPrincipal();
+        var jwt = (Jwt) authentication.getPrincipal();
+        String currentUserId = jwt.getClaim("sub");
+
+        return ResponseEntity.ok(settlementPlanService.getSettlementPlan(currentUserId, groupId));
+    }
+
+    @Operation(
+            summary = "Получить сводку долгов текущего пользователя по всем группам",
+            description = "Возвращает балансы по группам постранично (не больше 100 групп на страницу) и общие итоги. " +
+                    "Для следующей страницы передайте nextCursor из ответа в параметр cursor"
+    )
+    @GetMapping("/debts/summary")
+    public ResponseEntity<DebtsSummary> getDebtsSummary(HttpServletRequest req,
+                                                        @RequestParam(value = "cursor", required = false) Long cursor,
+                                                        @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        var authentication = (Authentication) req.getUserPrincipal();
+        var jwt = (Jwt) authentication.getPrincipal();
+        String currentUserId = jwt.getClaim("sub");
+
+        return ResponseEntity.ok(debtsService.getDebtsSummary(currentUserId, cursor, limit));
+    }
+
 }
\ No newline at end of file
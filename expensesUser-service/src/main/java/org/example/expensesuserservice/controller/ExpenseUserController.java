@@ -6,13 +6,13 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.core.HttpHeaders;
 import lombok.AllArgsConstructor;
-import org.example.expensesuserservice.client.AuthServiceClient;
 import org.example.expensesuserservice.db.ExpenseUser;
 import org.example.expensesuserservice.dto.ExpenseUserDto;
+import org.example.expensesuserservice.dto.ExpenseUserMapper;
 import org.example.expensesuserservice.request.UpdateExpenseParticipantRequest;
 import org.example.expensesuserservice.request.UpdatePaidAmountRequest;
 import org.example.expensesuserservice.service.ExpenseUserService;
-import org.modelmapper.ModelMapper;
+import org.example.serviceclient.GroupsClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -30,8 +30,7 @@ import java.util.List;
 public class ExpenseUserController {
 
     private final ExpenseUserService expenseUserService;
-    private final AuthServiceClient authServiceClient;
-    private final ModelMapper modelMapper;
+    private final GroupsClient groupsClient;
 
     @Operation(
             summary = "Получить участников расхода",
@@ -50,7 +49,7 @@ public class ExpenseUserController {
 
         List<ExpenseUserDto> expenseUserDtos = expenseUserService.getExpenseUsers(expenseId, currentUserId)
                 .stream()
-                .map(expense -> modelMapper.map(expense, ExpenseUserDto.class))
+                .map(ExpenseUserMapper::toDto)
                 .toList();
         return ResponseEntity.ok().body(expenseUserDtos);
     }
@@ -72,10 +71,10 @@ public class ExpenseUserController {
         var jwt = (Jwt) authentication.getPrincipal();
         String currentUserId = jwt.getClaim("sub");
 
-        var group = authServiceClient.getGroupById(authHeader, groupId);
+        var group = groupsClient.getGroupDescriptor(authHeader, groupId);
         List<ExpenseUser> updatedParticipants = expenseUserService.updateExpenseUser( expenseId, requests,currentUserId, group);
         return ResponseEntity.status(201).body(updatedParticipants.stream()
-                .map(eu -> modelMapper.map(eu, ExpenseUserDto.class))
+                .map(ExpenseUserMapper::toDto)
                 .toList());
     }
 
@@ -97,7 +96,7 @@ public class ExpenseUserController {
         String currentUserId = jwt.getClaim("sub");
 
         ExpenseUser updated = expenseUserService.updatePaidAmount(expenseId, userId, request, currentUserId);
-        return ResponseEntity.status(201).body(modelMapper.map(updated, ExpenseUserDto.class));
+        return ResponseEntity.status(201).body(ExpenseUserMapper.toDto(updated));
     }
 
     @Operation(
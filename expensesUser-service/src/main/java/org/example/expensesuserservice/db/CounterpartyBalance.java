@@ -0,0 +1,11 @@
+package org.example.expensesuserservice.db;
+
+import java.math.BigDecimal;
+
+/**
+ * Сумма долга по паре "должник → кредитор" в группе (все валюты вместе) и название группы.
+ */
+public record CounterpartyBalance(String debtorId, String debtorName,
+                                  String creditorId, String creditorName,
+                                  BigDecimal amount, String groupName) {
+}
@@ -0,0 +1,6 @@
+package org.example.expensesuserservice.db;
+
+import java.math.BigDecimal;
+
+public record DebtTotals(BigDecimal youOwe, BigDecimal owesYou) {
+}
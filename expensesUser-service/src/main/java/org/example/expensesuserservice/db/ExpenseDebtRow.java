@@ -0,0 +1,8 @@
+package org.example.expensesuserservice.db;
+
+import java.math.BigDecimal;
+
+public record ExpenseDebtRow(Long expenseId, String expenseName,
+                             String debtorId, String creditorId,
+                             BigDecimal amount, BigDecimal paid) {
+}
@@ -0,0 +1,11 @@
+package org.example.expensesuserservice.db;
+
+import org.example.expensesuserservice.other.Expense;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface ExpenseRepository extends JpaRepository<Expense, Long> {
+    // Принадлежность расхода группе проверяется в общей БД, а не по списку расходов из groups-service
+    Optional<Expense> findByIdAndGroupId(Long id, Long groupId);
+}
@@ -18,20 +18,23 @@ public interface ExpenseUserRepository extends JpaRepository<ExpenseUser, Long>
             "AND eu.user.id <> :creditorId")
     Optional<List<ExpenseUser>> findDebtorsForUser(@Param("creditorId") String creditorId);
 
-    @Query("SELECT eu FROM ExpenseUser eu " +
-            "WHERE eu.user.id = :userId " +
-            "AND eu.expense.group.id = :groupId")
-    Optional<List<ExpenseUser>> findByUserIdAndGroupId(@Param("userId") String userId,
-                                             @Param("groupId") Long groupId);
-
-    @Query("SELECT eu FROM ExpenseUser eu " +
-            "WHERE eu.expense.userWhoCreated.id = :creditorId " +
-            "AND eu.user.id <> :creditorId " +
-            "AND eu.expense.group.id = :groupId")
-    Optional<List<ExpenseUser>> findDebtorsForUserAndGroup(@Param("creditorId") String creditorId,
-                                                 @Param("groupId") Long groupId);
-
-
-
-
+    @Query("SELECT new org.example.expensesuserservice.db.ExpenseDebtRow(" +
+            "e.id, e.name, eu.user.id, e.userWhoCreated.id, eu.amount, eu.paid) " +
+            "FROM ExpenseUser eu JOIN eu.expense e " +
+            "WHERE e.group.id = :groupId " +
+            "AND eu.user.id <> e.userWhoCreated.id " +
+            "AND (eu.user.id = :userId OR e.userWhoCreated.id = :userId)")
+    List<ExpenseDebtRow> findDebtRowsForUserAndGroup(@Param("userId") String userId,
+                                                     @Param("groupId") Long groupId);
+
+    @Query("SELECT new org.example.expensesuserservice.db.PairOutstanding(" +
+            "eu.user.id, e.userWhoCreated.id, e.currency, SUM(eu.amount - eu.paid)) " +
+            "FROM ExpenseUser eu JOIN eu.expense e " +
+            "WHERE e.group.id = :groupId " +
+            "AND eu.user.id <> e.userWhoCreated.id " +
+            "GROUP BY eu.user.id, e.userWhoCreated.id, e.currency")
+    List<PairOutstanding> sumOutstandingByPairForGroup(@Param("groupId") Long groupId);
+
+    @Query("SELECT DISTINCT eu.expense.group.id FROM ExpenseUser eu")
+    List<Long> findAllGroupIds();
 }
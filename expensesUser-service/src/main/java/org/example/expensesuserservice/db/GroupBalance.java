@@ -0,0 +1,57 @@
+package org.example.expensesuserservice.db;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.expensesuserservice.other.User;
+
+import java.math.BigDecimal;
+
+/**
+ * Материализованный баланс пары "должник → кредитор" внутри группы.
+ * Хранит сумму (amount - paid) по всем расходам, которые создал кредитор и в которых участвует должник.
+ * Обновляется в той же транзакции, что и записи expense_users.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "group_balances",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_group_balances_pair",
+                columnNames = {"group_id", "debtor_id", "creditor_id", "currency"}),
+        indexes = {
+                @Index(name = "idx_group_balances_group_creditor", columnList = "group_id, creditor_id"),
+                // Для сводки по всем группам пользователя (/debts/summary)
+                @Index(name = "idx_group_balances_debtor_group", columnList = "debtor_id, group_id"),
+                @Index(name = "idx_group_balances_creditor_group", columnList = "creditor_id, group_id")
+        })
+public class GroupBalance {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "debtor_id", nullable = false)
+    private User debtor; // Кто должен
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "creditor_id", nullable = false)
+    private User creditor; // Кому должен (создатель расходов)
+
+    @Column(name = "net_amount", nullable = false)
+    private BigDecimal netAmount; // Сколько осталось оплатить
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    public GroupBalance(Long groupId, String debtorId, String creditorId, String currency, BigDecimal netAmount) {
+        this.groupId = groupId;
+        this.debtor = new User(debtorId);
+        this.creditor = new User(creditorId);
+        this.currency = currency;
+        this.netAmount = netAmount;
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.expensesuserservice.db;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface GroupBalanceRepository extends JpaRepository<GroupBalance, Long> {
+
+    // Один запрос без загрузки сущностей: суммы по парам с участием пользователя вместе с именами и названием группы
+    @Query("SELECT new org.example.expensesuserservice.db.CounterpartyBalance(" +
+            "d.id, d.username, c.id, c.username, SUM(b.netAmount), g.name) " +
+            "FROM GroupBalance b " +
+            "JOIN b.debtor d " +
+            "JOIN b.creditor c " +
+            "JOIN Group g ON g.id = b.groupId " +
+            "WHERE b.groupId = :groupId " +
+            "AND (d.id = :userId OR c.id = :userId) " +
+            "GROUP BY d.id, d.username, c.id, c.username, g.name")
+    List<CounterpartyBalance> findCounterpartyBalances(@Param("groupId") Long groupId,
+                                                       @Param("userId") String userId);
+
+    // Keyset по group_id: страница групп пользователя, агрегированная в PostgreSQL
+    @Query("SELECT new org.example.expensesuserservice.db.GroupDebtTotals(" +
+            "b.groupId, g.name, " +
+            "SUM(CASE WHEN b.debtor.id = :userId THEN b.netAmount ELSE 0 END), " +
+            "SUM(CASE WHEN b.creditor.id = :userId THEN b.netAmount ELSE 0 END)) " +
+            "FROM GroupBalance b " +
+            "JOIN Group g ON g.id = b.groupId " +
+            "WHERE (b.debtor.id = :userId OR b.creditor.id = :userId) " +
+            "AND b.groupId > :afterGroupId " +
+            "GROUP BY b.groupId, g.name " +
+            "ORDER BY b.groupId")
+    List<GroupDebtTotals> findGroupTotalsAfter(@Param("userId") String userId,
+                                               @Param("afterGroupId") Long afterGroupId,
+                                               Pageable pageable);
+
+    @Query("SELECT new org.example.expensesuserservice.db.DebtTotals(" +
+            "COALESCE(SUM(CASE WHEN b.debtor.id = :userId THEN b.netAmount ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN b.creditor.id = :userId THEN b.netAmount ELSE 0 END), 0)) " +
+            "FROM GroupBalance b " +
+            "WHERE b.debtor.id = :userId OR b.creditor.id = :userId")
+    DebtTotals sumTotalsForUser(@Param("userId") String userId);
+
+    @Query("SELECT COUNT(m) > 0 FROM Group g JOIN g.members m WHERE g.id = :groupId AND m.id = :userId")
+    boolean isMember(@Param("groupId") Long groupId, @Param("userId") String userId);
+
+    @Query("SELECT new org.example.expensesuserservice.db.PairOutstanding(" +
+            "b.debtor.id, b.creditor.id, b.currency, b.netAmount) " +
+            "FROM GroupBalance b WHERE b.groupId = :groupId")
+    List<PairOutstanding> findPairsByGroupId(@Param("groupId") Long groupId);
+
+    @Query("SELECT DISTINCT b.groupId FROM GroupBalance b")
+    List<Long> findAllGroupIds();
+
+    @Modifying
+    @Query(value = "INSERT INTO group_balances (group_id, debtor_id, creditor_id, currency, net_amount) " +
+            "VALUES (:groupId, :debtorId, :creditorId, :currency, :delta) " +
+            "ON CONFLICT (group_id, debtor_id, creditor_id, currency) " +
+            "DO UPDATE SET net_amount = group_balances.net_amount + EXCLUDED.net_amount",
+            nativeQuery = true)
+    void addToBalance(@Param("groupId") Long groupId,
+                      @Param("debtorId") String debtorId,
+                      @Param("creditorId") String creditorId,
+                      @Param("currency") String currency,
+                      @Param("delta") BigDecimal delta);
+
+    @Modifying
+    @Query("DELETE FROM GroupBalance b WHERE b.groupId = :groupId")
+    void deleteByGroupId(@Param("groupId") Long groupId);
+
+    // Сериализует изменения баланса одной группы между сервисами и пересборкой
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:groupId)", nativeQuery = true)
+    Integer lockGroup(@Param("groupId") Long groupId);
+}
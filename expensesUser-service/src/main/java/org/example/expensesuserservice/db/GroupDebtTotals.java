@@ -0,0 +1,9 @@
+package org.example.expensesuserservice.db;
+
+import java.math.BigDecimal;
+
+/**
+ * Итог пользователя по одной группе: сколько он должен и сколько должны ему.
+ */
+public record GroupDebtTotals(Long groupId, String groupName, BigDecimal youOwe, BigDecimal owesYou) {
+}
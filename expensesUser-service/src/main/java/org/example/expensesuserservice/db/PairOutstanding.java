@@ -0,0 +1,9 @@
+package org.example.expensesuserservice.db;
+
+import java.math.BigDecimal;
+
+/**
+ * Сумма неоплаченного долга по паре "должник → кредитор" в одной валюте.
+ */
+public record PairOutstanding(String debtorId, String creditorId, String currency, BigDecimal amount) {
+}
@@ -1,5 +1,6 @@
 package org.example.expensesuserservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,11 +21,14 @@ public class AggregatedDebtSummary {
     @Builder
     @AllArgsConstructor
     @NoArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public static class UserBalance {
         private String userId;
         private String username;
         private BigDecimal youOwe;     // Сколько ты ему должен
         private BigDecimal owesYou;    // Сколько он тебе должен
         private BigDecimal netBalance; // Положительное — тебе должны, отрицательное — ты должен
+        private List<DebtExpenseDetail> youOweDetails;  // Только при details=true
+        private List<DebtExpenseDetail> owesYouDetails; // Только при details=true
     }
 }
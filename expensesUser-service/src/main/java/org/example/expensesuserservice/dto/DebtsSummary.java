@@ -0,0 +1,33 @@
+package org.example.expensesuserservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DebtsSummary {
+    private List<GroupDebt> groups;
+    private Long nextCursor;        // groupId, с которого продолжать; null — больше страниц нет
+    private BigDecimal totalYouOwe;     // По всем группам, а не только по текущей странице
+    private BigDecimal totalOwesYou;
+    private BigDecimal totalNetBalance;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class GroupDebt {
+        private Long groupId;
+        private String groupName;
+        private BigDecimal youOwe;     // Сколько ты должен в группе
+        private BigDecimal owesYou;    // Сколько должны тебе в группе
+        private BigDecimal netBalance; // Положительное — тебе должны, отрицательное — ты должен
+    }
+}
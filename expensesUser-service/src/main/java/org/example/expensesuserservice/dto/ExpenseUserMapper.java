@@ -0,0 +1,23 @@
+package org.example.expensesuserservice.dto;
+
+import org.example.expensesuserservice.db.ExpenseUser;
+
+/**
+ * ExpenseUser в ExpenseUserDto без ModelMapper: у пользователя и расхода читается только id
+ * (у прокси Hibernate он доступен без загрузки).
+ */
+public final class ExpenseUserMapper {
+
+    private ExpenseUserMapper() {
+    }
+
+    public static ExpenseUserDto toDto(ExpenseUser expenseUser) {
+        return ExpenseUserDto.builder()
+                .id(expenseUser.getId())
+                .userId(expenseUser.getUser() == null ? null : expenseUser.getUser().getId())
+                .expenseId(expenseUser.getExpense() == null ? null : expenseUser.getExpense().getId())
+                .amount(expenseUser.getAmount())
+                .paid(expenseUser.getPaid())
+                .build();
+    }
+}
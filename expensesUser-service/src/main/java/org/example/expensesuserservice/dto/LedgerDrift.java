@@ -0,0 +1,21 @@
+package org.example.expensesuserservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LedgerDrift {
+    private Long groupId;
+    private String debtorId;
+    private String creditorId;
+    private String currency;
+    private BigDecimal expected; // Пересчитано из expense_users
+    private BigDecimal actual;   // Хранится в group_balances
+}
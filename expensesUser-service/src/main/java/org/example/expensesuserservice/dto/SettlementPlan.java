@@ -0,0 +1,17 @@
+package org.example.expensesuserservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SettlementPlan {
+    private Long groupId;
+    private List<SettlementTransfer> transfers; // Минимальный набор переводов, закрывающий все долги группы
+}
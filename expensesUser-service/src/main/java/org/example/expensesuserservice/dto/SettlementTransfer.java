@@ -0,0 +1,19 @@
+package org.example.expensesuserservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SettlementTransfer {
+    private String fromUserId; // Кто переводит
+    private String toUserId;   // Кому переводит
+    private BigDecimal amount;
+    private String currency;
+}
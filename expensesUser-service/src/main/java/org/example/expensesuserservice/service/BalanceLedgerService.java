@@ -0,0 +1,128 @@
+package org.example.expensesuserservice.service;
+
+import lombok.AllArgsConstructor;
+import org.example.expensesuserservice.db.ExpenseUser;
+import org.example.expensesuserservice.db.ExpenseUserRepository;
+import org.example.expensesuserservice.db.GroupBalance;
+import org.example.expensesuserservice.db.GroupBalanceRepository;
+import org.example.expensesuserservice.db.PairOutstanding;
+import org.example.expensesuserservice.dto.LedgerDrift;
+import org.example.expensesuserservice.other.Expense;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Поддерживает таблицу group_balances в актуальном состоянии.
+ * Все методы изменения должны вызываться внутри транзакции, которая меняет expense_users.
+ */
+@Service
+@AllArgsConstructor
+public class BalanceLedgerService {
+
+    private final GroupBalanceRepository groupBalanceRepository;
+
+    private final ExpenseUserRepository expenseUserRepository;
+
+    public void record(Long groupId, Expense expense, List<ExpenseUser> expenseUsers) {
+        apply(groupId, expense, expenseUsers, false);
+    }
+
+    public void reverse(Long groupId, Expense expense, List<ExpenseUser> expenseUsers) {
+        apply(groupId, expense, expenseUsers, true);
+    }
+
+    /**
+     * Меняет остаток долга участника по расходу на delta (положительное — долг вырос).
+     */
+    public void adjust(Long groupId, Expense expense, String debtorId, BigDecimal delta) {
+        String creditorId = expense.getUserWhoCreated().getId();
+        if (creditorId.equals(debtorId) || delta.signum() == 0) {
+            return;
+        }
+        groupBalanceRepository.lockGroup(groupId);
+        groupBalanceRepository.addToBalance(groupId, debtorId, creditorId, expense.getCurrency(), delta);
+    }
+
+    private void apply(Long groupId, Expense expense, List<ExpenseUser> expenseUsers, boolean negate) {
+        String creditorId = expense.getUserWhoCreated().getId();
+        groupBalanceRepository.lockGroup(groupId);
+
+        for (ExpenseUser eu : expenseUsers) {
+            String debtorId = eu.getUser().getId();
+            // Создатель расхода не может быть должен сам себе
+            if (creditorId.equals(debtorId)) continue;
+
+            BigDecimal outstanding = eu.getAmount().subtract(eu.getPaid());
+            if (outstanding.signum() == 0) continue;
+
+            groupBalanceRepository.addToBalance(groupId, debtorId, creditorId, expense.getCurrency(),
+                    negate ? outstanding.negate() : outstanding);
+        }
+    }
+
+    /**
+     * Пересчитывает балансы группы из expense_users и возвращает найденные расхождения.
+     * Если repair = true, расходящиеся балансы группы перезаписываются пересчитанными.
+     */
+    @Transactional
+    public List<LedgerDrift> verifyGroup(Long groupId, boolean repair) {
+        groupBalanceRepository.lockGroup(groupId);
+
+        Map<String, PairOutstanding> expected = index(expenseUserRepository.sumOutstandingByPairForGroup(groupId));
+        Map<String, PairOutstanding> actual = index(groupBalanceRepository.findPairsByGroupId(groupId));
+
+        Set<String> keys = new HashSet<>(expected.keySet());
+        keys.addAll(actual.keySet());
+
+        List<LedgerDrift> drifts = new ArrayList<>();
+        for (String key : keys) {
+            PairOutstanding exp = expected.get(key);
+            PairOutstanding act = actual.get(key);
+            BigDecimal expectedAmount = exp != null ? exp.amount() : BigDecimal.ZERO;
+            BigDecimal actualAmount = act != null ? act.amount() : BigDecimal.ZERO;
+
+            if (expectedAmount.compareTo(actualAmount) != 0) {
+                PairOutstanding pair = exp != null ? exp : act;
+                drifts.add(LedgerDrift.builder()
+                        .groupId(groupId)
+                        .debtorId(pair.debtorId())
+                        .creditorId(pair.creditorId())
+                        .currency(pair.currency())
+                        .expected(expectedAmount)
+                        .actual(actualAmount)
+                        .build());
+            }
+        }
+
+        if (repair && !drifts.isEmpty()) {
+            groupBalanceRepository.deleteByGroupId(groupId);
+            groupBalanceRepository.saveAll(expected.values().stream()
+                    .map(p -> new GroupBalance(groupId, p.debtorId(), p.creditorId(), p.currency(), p.amount()))
+                    .toList());
+        }
+
+        return drifts;
+    }
+
+    public Set<Long> findGroupsToVerify() {
+        Set<Long> groupIds = new HashSet<>(expenseUserRepository.findAllGroupIds());
+        groupIds.addAll(groupBalanceRepository.findAllGroupIds());
+        return groupIds;
+    }
+
+    private static Map<String, PairOutstanding> index(List<PairOutstanding> pairs) {
+        Map<String, PairOutstanding> result = new HashMap<>();
+        for (PairOutstanding pair : pairs) {
+            result.put(pair.debtorId() + "|" + pair.creditorId() + "|" + pair.currency(), pair);
+        }
+        return result;
+    }
+}
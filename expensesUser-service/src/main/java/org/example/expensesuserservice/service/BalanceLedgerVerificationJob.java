@@ -0,0 +1,54 @@
+package org.example.expensesuserservice.service;
+
+import lombok.AllArgsConstructor;
+import org.example.expensesuserservice.dto.LedgerDrift;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Периодически сверяет group_balances с expense_users.
+ * Первый запуск заполняет таблицу для уже существующих расходов.
+ */
+@Component
+public class BalanceLedgerVerificationJob {
+
+    static Logger logger = Logger.getLogger(String.valueOf(BalanceLedgerVerificationJob.class));
+
+    private final BalanceLedgerService balanceLedgerService;
+
+    private final boolean repair;
+
+    public BalanceLedgerVerificationJob(BalanceLedgerService balanceLedgerService,
+                                        @Value("${ledger.verify.repair:true}") boolean repair) {
+        this.balanceLedgerService = balanceLedgerService;
+        this.repair = repair;
+    }
+
+    @Scheduled(initialDelayString = "${ledger.verify.initial-delay:PT30S}",
+            fixedDelayString = "${ledger.verify.interval:PT6H}")
+    public void verify() {
+        int groups = 0;
+        int drifted = 0;
+        for (Long groupId : balanceLedgerService.findGroupsToVerify()) {
+            groups++;
+            try {
+                List<LedgerDrift> drifts = balanceLedgerService.verifyGroup(groupId, repair);
+                if (!drifts.isEmpty()) {
+                    drifted++;
+                    drifts.forEach(d -> logger.warning(String.format(
+                            "Ledger drift in group %d: %s -> %s (%s) expected %s, actual %s",
+                            d.getGroupId(), d.getDebtorId(), d.getCreditorId(), d.getCurrency(),
+                            d.getExpected(), d.getActual())));
+                }
+            } catch (RuntimeException e) {
+                logger.warning("Ledger verification failed for group " + groupId + ": " + e.getMessage());
+            }
+        }
+        logger.info(String.format("Ledger verification finished: %d groups checked, %d with drift%s",
+                groups, drifted, repair && drifted > 0 ? " (repaired)" : ""));
+    }
+}
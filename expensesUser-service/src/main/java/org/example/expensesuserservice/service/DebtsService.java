@@ -1,219 +1,159 @@
 package org.example.expensesuserservice.service;
 
 import lombok.AllArgsConstructor;
-import org.example.expensesuserservice.db.ExpenseUser;
+import org.example.expensesuserservice.db.CounterpartyBalance;
+import org.example.expensesuserservice.db.DebtTotals;
+import org.example.expensesuserservice.db.ExpenseDebtRow;
 import org.example.expensesuserservice.db.ExpenseUserRepository;
+import org.example.expensesuserservice.db.GroupBalanceRepository;
+import org.example.expensesuserservice.db.GroupDebtTotals;
 import org.example.expensesuserservice.dto.AggregatedDebtSummary;
 import org.example.expensesuserservice.dto.DebtExpenseDetail;
-import org.example.expensesuserservice.dto.DebtToUser;
-import org.example.expensesuserservice.dto.UserOwedInGroupData;
-import org.example.expensesuserservice.other.Expense;
-import org.example.expensesuserservice.other.Group;
-
-import org.example.expensesuserservice.other.User;
+import org.example.expensesuserservice.dto.DebtsSummary;
+import org.example.serviceclient.money.Money;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.util.*;
 
 @Service
 @AllArgsConstructor
 public class DebtsService {
 
-    private final ExpenseUserRepository expenseUserRepository;
-
-    private List<UserOwedInGroupData> getCurrentUserOwed(String userId, Long groupId) {
+    public static final int maxSummaryPageSize = 100;
 
-        var expenseUsers = expenseUserRepository.findByUserIdAndGroupId(userId, groupId)
-                .orElseThrow(() -> new RuntimeException("Expense user not found"));
+    private final GroupBalanceRepository groupBalanceRepository;
 
-        // Группируем по группе → по кредитору → список деталей
-        Map<Group, Map<User, List<ExpenseUser>>> grouped = new HashMap<>();
-
-        for (ExpenseUser expenseUser : expenseUsers) {
-            Expense expense = expenseUser.getExpense();
-            Group group = expense.getGroup();
-            var creditor = expense.getUserWhoCreated();
-
-            // Пропускаем, если пользователь сам создал этот расход (не может быть должен сам себе)
-            if (creditor.getId().equals(expenseUser.getUser().getId())) continue;
+    private final ExpenseUserRepository expenseUserRepository;
 
-            grouped
-                    .computeIfAbsent(group, g -> new HashMap<>())
-                    .computeIfAbsent(creditor, c -> new ArrayList<>())
-                    .add(expenseUser);
+    public AggregatedDebtSummary getAggregatedDebts(String userId, Long groupId, boolean details) {
+        // Суммы по парам уже посчитаны в PostgreSQL — один запрос, без графа сущностей
+        List<CounterpartyBalance> rows = groupBalanceRepository.findCounterpartyBalances(groupId, userId);
+
+        Map<String, BalanceAccumulator> balanceMap = new HashMap<>();
+        String groupName = null;
+
+        for (CounterpartyBalance row : rows) {
+            groupName = row.groupName();
+            boolean youAreDebtor = row.debtorId().equals(userId);
+            String otherId = youAreDebtor ? row.creditorId() : row.debtorId();
+            String otherName = youAreDebtor ? row.creditorName() : row.debtorName();
+
+            BalanceAccumulator balance = balanceMap
+                    .computeIfAbsent(otherId, id -> new BalanceAccumulator(otherId, otherName, details));
+
+            // Копим в копейках, в BigDecimal переводим только при сборке DTO
+            if (youAreDebtor) {
+                // Ты должен другим
+                balance.youOwe = Math.addExact(balance.youOwe, Money.toMinorUnits(row.amount()));
+            } else {
+                // Другие должны тебе
+                balance.owesYou = Math.addExact(balance.owesYou, Money.toMinorUnits(row.amount()));
+            }
         }
 
-        // Преобразуем в DTO
-        List<UserOwedInGroupData> result = new ArrayList<>();
-
-        for (Map.Entry<Group, Map<User, List<ExpenseUser>>> groupEntry : grouped.entrySet()) {
-            Group group = groupEntry.getKey();
-
-            List<DebtToUser> debts = new ArrayList<>();
-
-            for (Map.Entry<User, List<ExpenseUser>> creditorEntry : groupEntry.getValue().entrySet()) {
-                User creditor = creditorEntry.getKey();
-                List<ExpenseUser> userExpenses = creditorEntry.getValue();
-
-                BigDecimal totalAmount = BigDecimal.ZERO;
-                BigDecimal paidAmount = BigDecimal.ZERO;
-
-                List<DebtExpenseDetail> details = new ArrayList<>();
-
-                for (ExpenseUser eu : userExpenses) {
-                    BigDecimal amount = eu.getAmount();
-                    BigDecimal paid = eu.getPaid();
-                    totalAmount = totalAmount.add(amount);
-                    paidAmount = paidAmount.add(paid);
-
-                    details.add(DebtExpenseDetail.builder()
-                            .expenseId(eu.getExpense().getId())
-                            .expenseName(eu.getExpense().getName())
-                            .amount(amount)
-                            .paid(paid)
-                            .build());
-                }
-
-                debts.add(DebtToUser.builder()
-                        .creditorId(creditor.getId())
-                        .creditorName(creditor.getUsername()) // или getUsername()
-                        .totalAmount(totalAmount)
-                        .paidAmount(paidAmount)
-                        .expenseDetails(details)
-                        .build());
-            }
+        if (details && !balanceMap.isEmpty()) {
+            fillDetails(userId, groupId, balanceMap);
+        }
 
-            result.add(UserOwedInGroupData.builder()
-                    .groupId(group.getId())
-                    .groupName(group.getName())
-                    .debts(debts)
-                    .build());
+        List<AggregatedDebtSummary.UserBalance> balances = new ArrayList<>(balanceMap.size());
+        for (BalanceAccumulator balance : balanceMap.values()) {
+            balances.add(balance.toUserBalance());
         }
 
-        return result;
+        return AggregatedDebtSummary.builder()
+                .groupName(groupName)
+                .balances(balances)
+                .build();
     }
 
-    private List<UserOwedInGroupData> getWhoOwesYou(String currentUserId, Long groupId) {
-        // Получаем только те связи, где текущий пользователь — создатель расхода (кредитор)
-        var expenseUsers = expenseUserRepository.findDebtorsForUserAndGroup(currentUserId, groupId)
-                .orElseThrow(() -> new RuntimeException("Expense user not found"));
-
-        // Группируем: по группам → по должникам
-        Map<Group, Map<User, List<ExpenseUser>>> grouped = new HashMap<>();
-
-        for (ExpenseUser eu : expenseUsers) {
-            Expense expense = eu.getExpense();
-            Group group = expense.getGroup();
-            User debtor = eu.getUser();
-
-            grouped
-                    .computeIfAbsent(group, g -> new HashMap<>())
-                    .computeIfAbsent(debtor, u -> new ArrayList<>())
-                    .add(eu);
+    /**
+     * Сводка долгов пользователя по всем его группам.
+     * Страница не больше maxSummaryPageSize групп, продолжение — по nextCursor (последний groupId страницы).
+     */
+    public DebtsSummary getDebtsSummary(String userId, Long afterGroupId, int limit) {
+        if (limit < 1 || limit > maxSummaryPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxSummaryPageSize);
         }
 
-        // Преобразуем в DTO
-        List<UserOwedInGroupData> result = new ArrayList<>();
-
-        for (Map.Entry<Group, Map<User, List<ExpenseUser>>> groupEntry : grouped.entrySet()) {
-            Group group = groupEntry.getKey();
-
-            List<DebtToUser> debts = new ArrayList<>();
-
-            for (Map.Entry<User, List<ExpenseUser>> debtorEntry : groupEntry.getValue().entrySet()) {
-                User debtor = debtorEntry.getKey();
-                List<ExpenseUser> userExpenses = debtorEntry.getValue();
-
-                BigDecimal totalAmount = BigDecimal.ZERO;
-                BigDecimal paidAmount = BigDecimal.ZERO;
-
-                List<DebtExpenseDetail> details = new ArrayList<>();
-
-                for (ExpenseUser eu : userExpenses) {
-                    BigDecimal amount = eu.getAmount();
-                    BigDecimal paid = eu.getPaid();
-                    totalAmount = totalAmount.add(amount);
-                    paidAmount = paidAmount.add(paid);
-
-                    details.add(DebtExpenseDetail.builder()
-                            .expenseId(eu.getExpense().getId())
-                            .expenseName(eu.getExpense().getName())
-                            .amount(amount)
-                            .paid(paid)
-                            .build());
-                }
-
-                debts.add(DebtToUser.builder()
-                        .creditorId(debtor.getId())            // фактически debtorId
-                        .creditorName(debtor.getUsername())     // фактически debtorName
-                        .totalAmount(totalAmount)
-                        .paidAmount(paidAmount)
-                        .expenseDetails(details)
-                        .build());
-            }
+        // Запрашиваем на одну группу больше, чтобы понять, есть ли следующая страница
+        List<GroupDebtTotals> rows = groupBalanceRepository.findGroupTotalsAfter(
+                userId, afterGroupId == null ? 0L : afterGroupId, PageRequest.of(0, limit + 1));
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+        }
 
-            result.add(UserOwedInGroupData.builder()
-                    .groupId(group.getId())
-                    .groupName(group.getName())
-                    .debts(debts)
+        List<DebtsSummary.GroupDebt> groups = new ArrayList<>(rows.size());
+        for (GroupDebtTotals row : rows) {
+            groups.add(DebtsSummary.GroupDebt.builder()
+                    .groupId(row.groupId())
+                    .groupName(row.groupName())
+                    .youOwe(row.youOwe())
+                    .owesYou(row.owesYou())
+                    .netBalance(row.owesYou().subtract(row.youOwe()))
                     .build());
         }
 
-        return result;
+        DebtTotals totals = groupBalanceRepository.sumTotalsForUser(userId);
+
+        return DebtsSummary.builder()
+                .groups(groups)
+                .nextCursor(hasMore ? rows.get(rows.size() - 1).groupId() : null)
+                .totalYouOwe(totals.youOwe())
+                .totalOwesYou(totals.owesYou())
+                .totalNetBalance(totals.owesYou().subtract(totals.youOwe()))
+                .build();
     }
 
-    public AggregatedDebtSummary getAggregatedDebts(String userId, Long groupId) {
-        List<UserOwedInGroupData> youOweData = getCurrentUserOwed(userId, groupId);
-        List<UserOwedInGroupData> owesYouData = getWhoOwesYou(userId, groupId);
-        String groupName = !youOweData.isEmpty()
-                ? youOweData.get(0).getGroupName()
-                : (!owesYouData.isEmpty() ? owesYouData.get(0).getGroupName() : null);
-
-        Map<String, AggregatedDebtSummary.UserBalance> balanceMap = new HashMap<>();
-
-        // Обрабатываем: ты должен другим
-        for (UserOwedInGroupData groupData : youOweData) {
-            for (DebtToUser debt : groupData.getDebts()) {
-                AggregatedDebtSummary.UserBalance balance = balanceMap
-                        .computeIfAbsent(debt.getCreditorId(), id -> AggregatedDebtSummary.UserBalance.builder()
-                                .userId(debt.getCreditorId())
-                                .username(debt.getCreditorName())
-                                .youOwe(BigDecimal.ZERO)
-                                .owesYou(BigDecimal.ZERO)
-                                .netBalance(BigDecimal.ZERO)
-                                .build());
-
-                balance.setYouOwe(balance.getYouOwe().add(debt.getTotalAmount().subtract(debt.getPaidAmount())));
+    private void fillDetails(String userId, Long groupId, Map<String, BalanceAccumulator> balanceMap) {
+        for (ExpenseDebtRow row : expenseUserRepository.findDebtRowsForUserAndGroup(userId, groupId)) {
+            boolean youAreDebtor = row.debtorId().equals(userId);
+            BalanceAccumulator balance = balanceMap.get(youAreDebtor ? row.creditorId() : row.debtorId());
+            if (balance == null) continue;
+
+            DebtExpenseDetail detail = DebtExpenseDetail.builder()
+                    .expenseId(row.expenseId())
+                    .expenseName(row.expenseName())
+                    .amount(row.amount())
+                    .paid(row.paid())
+                    .build();
+
+            if (youAreDebtor) {
+                balance.youOweDetails.add(detail);
+            } else {
+                balance.owesYouDetails.add(detail);
             }
         }
+    }
 
-        // Обрабатываем: другие должны тебе
-        for (UserOwedInGroupData groupData : owesYouData) {
-            for (DebtToUser debt : groupData.getDebts()) {
-                AggregatedDebtSummary.UserBalance balance = balanceMap
-                        .computeIfAbsent(debt.getCreditorId(), id -> AggregatedDebtSummary.UserBalance.builder()
-                                .userId(debt.getCreditorId())
-                                .username(debt.getCreditorName())
-                                .youOwe(BigDecimal.ZERO)
-                                .owesYou(BigDecimal.ZERO)
-                                .netBalance(BigDecimal.ZERO)
-                                .build());
-
-                balance.setOwesYou(balance.getOwesYou().add(debt.getTotalAmount().subtract(debt.getPaidAmount())));
-            }
+    private static final class BalanceAccumulator {
+        private final String userId;
+        private final String username;
+        private long youOwe;  // Сколько ты ему должен, в копейках
+        private long owesYou; // Сколько он тебе должен, в копейках
+        private final List<DebtExpenseDetail> youOweDetails;
+        private final List<DebtExpenseDetail> owesYouDetails;
+
+        private BalanceAccumulator(String userId, String username, boolean details) {
+            this.userId = userId;
+            this.username = username;
+            this.youOweDetails = details ? new ArrayList<>() : null;
+            this.owesYouDetails = details ? new ArrayList<>() : null;
         }
 
-        // Вычисляем итоговый баланс (кому кто должен по факту)
-        for (AggregatedDebtSummary.UserBalance balance : balanceMap.values()) {
-            BigDecimal net = balance.getOwesYou().subtract(balance.getYouOwe());
-            balance.setNetBalance(net);
+        private AggregatedDebtSummary.UserBalance toUserBalance() {
+            // Итоговый баланс (кому кто должен по факту)
+            return AggregatedDebtSummary.UserBalance.builder()
+                    .userId(userId)
+                    .username(username)
+                    .youOwe(Money.toBigDecimal(youOwe))
+                    .owesYou(Money.toBigDecimal(owesYou))
+                    .netBalance(Money.toBigDecimal(Math.subtractExact(owesYou, youOwe)))
+                    .youOweDetails(youOweDetails)
+                    .owesYouDetails(owesYouDetails)
+                    .build();
         }
-
-        return AggregatedDebtSummary.builder()
-                .groupName(groupName)
-                .balances(new ArrayList<>(balanceMap.values()))
-                .build();
     }
 
 }
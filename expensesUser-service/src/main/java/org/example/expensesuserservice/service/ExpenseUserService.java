@@ -4,16 +4,18 @@ package org.example.expensesuserservice.service;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.ws.rs.ForbiddenException;
 import lombok.AllArgsConstructor;
-import org.example.expensesuserservice.client.AuthServiceClient;
+import org.example.expensesuserservice.db.ExpenseRepository;
 import org.example.expensesuserservice.db.ExpenseUser;
 import org.example.expensesuserservice.db.ExpenseUserRepository;
 import org.example.expensesuserservice.other.Expense;
-import org.example.expensesuserservice.other.Group;
 import org.example.expensesuserservice.other.User;
-import org.example.expensesuserservice.request.NotificationRequest;
 import org.example.expensesuserservice.request.UpdateExpenseParticipantRequest;
 import org.example.expensesuserservice.request.UpdatePaidAmountRequest;
+import org.example.serviceclient.dto.GroupDescriptor;
+import org.example.serviceclient.outbox.NotificationOutboxService;
+import org.example.serviceclient.request.NotificationRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -24,7 +26,11 @@ import java.util.List;
 public class ExpenseUserService {
     private final ExpenseUserRepository expenseUserRepository;
 
-    private final AuthServiceClient authServiceClient;
+    private final NotificationOutboxService notificationOutboxService;
+
+    private final BalanceLedgerService balanceLedgerService;
+
+    private final ExpenseRepository expenseRepository;
 
     public List<ExpenseUser> getExpenseUsers(Long expenseId, String currentUserId) {
 
@@ -47,14 +53,16 @@ public class ExpenseUserService {
 
     }
 
+    @Transactional
     public List<ExpenseUser> updateExpenseUser(Long expenseId, List<UpdateExpenseParticipantRequest> requests,
-                                               String currentUserId, Group group) {
+                                               String currentUserId, GroupDescriptor group) {
 
         var expense = validateExpenseAccess(expenseId, currentUserId, group);
 
         // Удаляем всех текущих участников расхода
         List<ExpenseUser> existingExpenseUsers = expenseUserRepository.findByExpenseId(expenseId);
         if (!existingExpenseUsers.isEmpty()) {
+            balanceLedgerService.reverse(group.getId(), expense, existingExpenseUsers);
             expenseUserRepository.deleteAll(existingExpenseUsers);
         }
 
@@ -68,14 +76,18 @@ public class ExpenseUserService {
             newEu.setPaid(req.getPaid());
             newExpenseUsers.add(newEu);
 
-            authServiceClient.sendNotification(req.getUserId(),
+            notificationOutboxService.enqueue(req.getUserId(), group.getId(),
                     new NotificationRequest("Обновление долгов",
                             String.format("Расход %s был обновлен в группе %s", expense.getName(), group.getName())));
         }
 
-        return expenseUserRepository.saveAll(newExpenseUsers);
+        List<ExpenseUser> saved = expenseUserRepository.saveAll(newExpenseUsers);
+        balanceLedgerService.record(group.getId(), expense, saved);
+
+        return saved;
     }
 
+    @Transactional
     public ExpenseUser updatePaidAmount(Long expenseId, String userId, UpdatePaidAmountRequest updatePaidAmountRequest,
                                         String currentUserId) {
 
@@ -93,10 +105,14 @@ public class ExpenseUserService {
                 .orElseThrow(() -> new ForbiddenException("You are not a member of this group."));
 
 
+        // Долг уменьшается на столько, на сколько выросла оплаченная часть
+        balanceLedgerService.adjust(expenseUser.getExpense().getGroup().getId(), expenseUser.getExpense(),
+                userId, expenseUser.getPaid().subtract(updatePaidAmountRequest.getPaid()));
+
         expenseUser.setPaid(updatePaidAmountRequest.getPaid());
         expenseUser.getExpense().setUpdatedAt(LocalDateTime.now());
 
-        authServiceClient.sendNotification(userId,
+        notificationOutboxService.enqueue(userId, expenseUser.getExpense().getGroup().getId(),
                 new NotificationRequest("Обновление долгов",
                         String.format("Ваш догл %s был пересмотрен в группе %s",
                                 expenseUser.getExpense().getName(),
@@ -105,6 +121,7 @@ public class ExpenseUserService {
         return expenseUserRepository.save(expenseUser);
     }
 
+    @Transactional
     public void removeExpense(Long expenseId, String userId, String currentUserId) {
 
         ExpenseUser expenseUser = expenseUserRepository.findByExpenseIdAndUserId(expenseId, userId)
@@ -120,31 +137,29 @@ public class ExpenseUserService {
                 .findFirst()
                 .orElseThrow(() -> new ForbiddenException("You are not a member of this group."));
 
-        authServiceClient.sendNotification(userId,
+        notificationOutboxService.enqueue(userId, expenseUser.getExpense().getGroup().getId(),
                 new NotificationRequest("Удаление долгов",
                         String.format("Ваш догл %s был удален в группе %s",
                                 expenseUser.getExpense().getName(),
                                 expenseUser.getExpense().getGroup().getName())));
 
+        balanceLedgerService.reverse(expenseUser.getExpense().getGroup().getId(), expenseUser.getExpense(),
+                List.of(expenseUser));
+
         expenseUserRepository.delete(expenseUser);
     }
 
-    private Expense validateExpenseAccess(Long expenseId, String currentUserId, Group group) {
+    private Expense validateExpenseAccess(Long expenseId, String currentUserId, GroupDescriptor group) {
 
-        if (Boolean.TRUE.equals(group.getIsClosed())) {
+        if (group.isClosed()) {
             throw new IllegalArgumentException("This group is closed");
         }
 
-        Expense expense = group.getEvents().stream()
-                .filter(e -> e.getId().equals(expenseId))
-                .findFirst()
-                .orElseThrow(() -> new EntityNotFoundException("Expense not found in this group"));
-
-
-        group.getMembers().stream()
-                .filter(eu -> eu.getId().equals(currentUserId))
-                .findFirst().orElseThrow(() -> new ForbiddenException("You are not a member"));
+        if (!group.hasMember(currentUserId)) {
+            throw new ForbiddenException("You are not a member");
+        }
 
-        return expense;
+        return expenseRepository.findByIdAndGroupId(expenseId, group.getId())
+                .orElseThrow(() -> new EntityNotFoundException("Expense not found in this group"));
     }
 }
@@ -0,0 +1,56 @@
+package org.example.expensesuserservice.service;
+
+import jakarta.ws.rs.ForbiddenException;
+import lombok.AllArgsConstructor;
+import org.example.expensesuserservice.db.ExpenseUserRepository;
+import org.example.expensesuserservice.db.GroupBalanceRepository;
+import org.example.expensesuserservice.db.PairOutstanding;
+import org.example.expensesuserservice.dto.SettlementPlan;
+import org.example.expensesuserservice.dto.SettlementTransfer;
+import org.example.serviceclient.money.Money;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+@AllArgsConstructor
+public class SettlementPlanService {
+
+    private final ExpenseUserRepository expenseUserRepository;
+
+    private final GroupBalanceRepository groupBalanceRepository;
+
+    public SettlementPlan getSettlementPlan(String currentUserId, Long groupId) {
+        if (!groupBalanceRepository.isMember(groupId, currentUserId)) {
+            throw new ForbiddenException("You are not a member of this group.");
+        }
+
+        // Один проход по expense_users: PostgreSQL сворачивает строки до пар "должник → кредитор"
+        Map<String, SettlementPlanner.NetPositions> byCurrency = new TreeMap<>();
+        for (PairOutstanding pair : expenseUserRepository.sumOutstandingByPairForGroup(groupId)) {
+            byCurrency.computeIfAbsent(pair.currency(), c -> new SettlementPlanner.NetPositions())
+                    .addDebt(pair.debtorId(), pair.creditorId(), Money.toMinorUnits(pair.amount()));
+        }
+
+        // Валюты не смешиваем — у каждой свой план
+        List<SettlementTransfer> transfers = new ArrayList<>();
+        for (Map.Entry<String, SettlementPlanner.NetPositions> entry : byCurrency.entrySet()) {
+            for (SettlementPlanner.Transfer t : SettlementPlanner.plan(entry.getValue())) {
+                transfers.add(SettlementTransfer.builder()
+                        .fromUserId(t.fromUserId())
+                        .toUserId(t.toUserId())
+                        .amount(Money.toBigDecimal(t.amount()))
+                        .currency(entry.getKey())
+                        .build());
+            }
+        }
+
+        return SettlementPlan.builder()
+                .groupId(groupId)
+                .transfers(transfers)
+                .build();
+    }
+}
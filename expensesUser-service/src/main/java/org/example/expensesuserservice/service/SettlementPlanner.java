@@ -0,0 +1,102 @@
+package org.example.expensesuserservice.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Минимизирует число переводов для погашения всех долгов группы.
+ * Работает с суммами в минимальных единицах валюты (см. Money), без BigDecimal.
+ * Жадно сводит самого крупного должника с самым крупным кредитором — не больше (n - 1) переводов.
+ */
+public final class SettlementPlanner {
+
+    private SettlementPlanner() {
+    }
+
+    /**
+     * Чистые позиции участников в одной валюте: положительная — участнику должны, отрицательная — он должен.
+     */
+    public static final class NetPositions {
+        private final Map<String, Integer> index = new HashMap<>();
+        private String[] userIds = new String[16];
+        private long[] balances = new long[16];
+        private int size;
+
+        public void addDebt(String debtorId, String creditorId, long amount) {
+            int debtor = indexOf(debtorId);
+            int creditor = indexOf(creditorId);
+            balances[debtor] -= amount;
+            balances[creditor] += amount;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long balanceOf(String userId) {
+            Integer i = index.get(userId);
+            return i == null ? 0 : balances[i];
+        }
+
+        private int indexOf(String userId) {
+            Integer i = index.get(userId);
+            if (i != null) {
+                return i;
+            }
+            if (size == userIds.length) {
+                userIds = Arrays.copyOf(userIds, size * 2);
+                balances = Arrays.copyOf(balances, size * 2);
+            }
+            userIds[size] = userId;
+            index.put(userId, size);
+            return size++;
+        }
+    }
+
+    public record Transfer(String fromUserId, String toUserId, long amount) {
+    }
+
+    private record Position(String userId, long amount) {
+    }
+
+    public static List<Transfer> plan(NetPositions positions) {
+        // Максимальная сумма первой, при равенстве — по userId, чтобы план был детерминированным
+        PriorityQueue<Position> debtors = new PriorityQueue<>(SettlementPlanner::compareDesc);
+        PriorityQueue<Position> creditors = new PriorityQueue<>(SettlementPlanner::compareDesc);
+
+        for (int i = 0; i < positions.size; i++) {
+            long balance = positions.balances[i];
+            if (balance < 0) {
+                debtors.add(new Position(positions.userIds[i], -balance));
+            } else if (balance > 0) {
+                creditors.add(new Position(positions.userIds[i], balance));
+            }
+        }
+
+        List<Transfer> transfers = new ArrayList<>();
+        while (!debtors.isEmpty() && !creditors.isEmpty()) {
+            Position debtor = debtors.poll();
+            Position creditor = creditors.poll();
+            long amount = Math.min(debtor.amount(), creditor.amount());
+
+            transfers.add(new Transfer(debtor.userId(), creditor.userId(), amount));
+
+            if (debtor.amount() > amount) {
+                debtors.add(new Position(debtor.userId(), debtor.amount() - amount));
+            }
+            if (creditor.amount() > amount) {
+                creditors.add(new Position(creditor.userId(), creditor.amount() - amount));
+            }
+        }
+        return transfers;
+    }
+
+    private static int compareDesc(Position a, Position b) {
+        int byAmount = Long.compare(b.amount(), a.amount());
+        return byAmount != 0 ? byAmount : a.userId().compareTo(b.userId());
+    }
+}
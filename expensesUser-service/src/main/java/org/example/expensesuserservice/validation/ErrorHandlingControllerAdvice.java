@@ -6,6 +6,7 @@ import jakarta.ws.rs.ForbiddenException;
 import jakarta.ws.rs.NotAuthorizedException;
 import org.example.expensesuserservice.ErrorResponse;
 import org.example.expensesuserservice.config.CustomFeignException;
+import org.example.serviceclient.ServiceClientException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -98,4 +99,11 @@ public class ErrorHandlingControllerAdvice {
 	public ErrorResponse onForbiddenException(ForbiddenException e) {
 		return new ErrorResponse(403, e.getMessage());
 	}
-}
\ No newline at end of file
+
+	// Ошибка другого сервиса: 4xx передается как есть, отказ или таймаут — 502/504
+	@ExceptionHandler(ServiceClientException.class)
+	@ResponseBody
+	public ResponseEntity<ErrorResponse> onServiceClientException(ServiceClientException e) {
+		return ResponseEntity.status(e.responseStatus()).body(new ErrorResponse(e.responseStatus(), e.getMessage()));
+	}
+}
@@ -0,0 +1,102 @@
+package org.example.expensesuserservice;
+
+import org.example.expensesuserservice.db.ExpenseUser;
+import org.example.expensesuserservice.db.ExpenseUserRepository;
+import org.example.expensesuserservice.db.GroupBalanceRepository;
+import org.example.expensesuserservice.db.PairOutstanding;
+import org.example.expensesuserservice.dto.LedgerDrift;
+import org.example.expensesuserservice.other.Expense;
+import org.example.expensesuserservice.other.User;
+import org.example.expensesuserservice.service.BalanceLedgerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BalanceLedgerServiceTest {
+
+    @Mock
+    private GroupBalanceRepository groupBalanceRepository;
+
+    @Mock
+    private ExpenseUserRepository expenseUserRepository;
+
+    @InjectMocks
+    private BalanceLedgerService balanceLedgerService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void record_shouldSkipCreatorAndAddOutstanding() {
+        Expense expense = new Expense();
+        expense.setUserWhoCreated(new User("creator"));
+        expense.setCurrency("RUB");
+
+        ExpenseUser creatorShare = expenseUser("creator", "50.00", "50.00");
+        ExpenseUser debtorShare = expenseUser("debtor", "50.00", "20.00");
+
+        balanceLedgerService.record(1L, expense, List.of(creatorShare, debtorShare));
+
+        verify(groupBalanceRepository).lockGroup(1L);
+        verify(groupBalanceRepository).addToBalance(1L, "debtor", "creator", "RUB", new BigDecimal("30.00"));
+        verifyNoMoreInteractions(groupBalanceRepository);
+    }
+
+    @Test
+    void reverse_shouldSubtractOutstanding() {
+        Expense expense = new Expense();
+        expense.setUserWhoCreated(new User("creator"));
+        expense.setCurrency("RUB");
+
+        balanceLedgerService.reverse(1L, expense, List.of(expenseUser("debtor", "50.00", "20.00")));
+
+        verify(groupBalanceRepository).addToBalance(1L, "debtor", "creator", "RUB", new BigDecimal("-30.00"));
+    }
+
+    @Test
+    void verifyGroup_shouldReportAndRepairDrift() {
+        when(expenseUserRepository.sumOutstandingByPairForGroup(1L)).thenReturn(List.of(
+                new PairOutstanding("debtor", "creator", "RUB", new BigDecimal("30.00"))));
+        when(groupBalanceRepository.findPairsByGroupId(1L)).thenReturn(List.of(
+                new PairOutstanding("debtor", "creator", "RUB", new BigDecimal("10.00"))));
+
+        List<LedgerDrift> drifts = balanceLedgerService.verifyGroup(1L, true);
+
+        assertThat(drifts).hasSize(1);
+        assertThat(drifts.get(0).getExpected()).isEqualByComparingTo("30.00");
+        assertThat(drifts.get(0).getActual()).isEqualByComparingTo("10.00");
+        verify(groupBalanceRepository).deleteByGroupId(1L);
+        verify(groupBalanceRepository).saveAll(anyList());
+    }
+
+    @Test
+    void verifyGroup_shouldNotRepair_whenNoDrift() {
+        PairOutstanding pair = new PairOutstanding("debtor", "creator", "RUB", new BigDecimal("30.00"));
+        when(expenseUserRepository.sumOutstandingByPairForGroup(1L)).thenReturn(List.of(pair));
+        when(groupBalanceRepository.findPairsByGroupId(1L)).thenReturn(List.of(pair));
+
+        List<LedgerDrift> drifts = balanceLedgerService.verifyGroup(1L, true);
+
+        assertThat(drifts).isEmpty();
+        verify(groupBalanceRepository, never()).deleteByGroupId(anyLong());
+    }
+
+    private static ExpenseUser expenseUser(String userId, String amount, String paid) {
+        ExpenseUser eu = new ExpenseUser();
+        eu.setUser(new User(userId));
+        eu.setAmount(new BigDecimal(amount));
+        eu.setPaid(new BigDecimal(paid));
+        return eu;
+    }
+}
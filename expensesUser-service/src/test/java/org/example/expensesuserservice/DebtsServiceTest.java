@@ -0,0 +1,131 @@
+package org.example.expensesuserservice;
+
+import org.example.expensesuserservice.db.CounterpartyBalance;
+import org.example.expensesuserservice.db.DebtTotals;
+import org.example.expensesuserservice.db.ExpenseDebtRow;
+import org.example.expensesuserservice.db.ExpenseUserRepository;
+import org.example.expensesuserservice.db.GroupBalanceRepository;
+import org.example.expensesuserservice.db.GroupDebtTotals;
+import org.example.expensesuserservice.dto.AggregatedDebtSummary;
+import org.example.expensesuserservice.dto.DebtsSummary;
+import org.example.expensesuserservice.service.DebtsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DebtsServiceTest {
+
+    @Mock
+    private GroupBalanceRepository groupBalanceRepository;
+
+    @Mock
+    private ExpenseUserRepository expenseUserRepository;
+
+    @InjectMocks
+    private DebtsService debtsService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void getAggregatedDebts_shouldNetBothDirections() {
+        when(groupBalanceRepository.findCounterpartyBalances(1L, "me")).thenReturn(List.of(
+                new CounterpartyBalance("me", "Me", "bob", "Bob", new BigDecimal("30.00"), "Trip"),
+                new CounterpartyBalance("bob", "Bob", "me", "Me", new BigDecimal("50.00"), "Trip")));
+
+        AggregatedDebtSummary result = debtsService.getAggregatedDebts("me", 1L, false);
+
+        assertThat(result.getGroupName()).isEqualTo("Trip");
+        assertThat(result.getBalances()).hasSize(1);
+        AggregatedDebtSummary.UserBalance balance = result.getBalances().get(0);
+        assertThat(balance.getUsername()).isEqualTo("Bob");
+        assertThat(balance.getYouOwe()).isEqualByComparingTo("30.00");
+        assertThat(balance.getOwesYou()).isEqualByComparingTo("50.00");
+        assertThat(balance.getNetBalance()).isEqualByComparingTo("20.00");
+        assertThat(balance.getYouOweDetails()).isNull();
+        verifyNoInteractions(expenseUserRepository);
+    }
+
+    @Test
+    void getAggregatedDebts_shouldFail_whenBalanceOverflows() {
+        when(groupBalanceRepository.findCounterpartyBalances(1L, "me")).thenReturn(List.of(
+                new CounterpartyBalance("me", "Me", "bob", "Bob", new BigDecimal("50000000000000000.00"), "Trip"),
+                new CounterpartyBalance("me", "Me", "bob", "Bob", new BigDecimal("50000000000000000.00"), "Trip")));
+
+        assertThatThrownBy(() -> debtsService.getAggregatedDebts("me", 1L, false))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void getAggregatedDebts_shouldAttachDetails_whenRequested() {
+        when(groupBalanceRepository.findCounterpartyBalances(1L, "me")).thenReturn(List.of(
+                new CounterpartyBalance("me", "Me", "bob", "Bob", new BigDecimal("30.00"), "Trip")));
+        when(expenseUserRepository.findDebtRowsForUserAndGroup("me", 1L)).thenReturn(List.of(
+                new ExpenseDebtRow(10L, "Dinner", "me", "bob", new BigDecimal("40.00"), new BigDecimal("10.00"))));
+
+        AggregatedDebtSummary result = debtsService.getAggregatedDebts("me", 1L, true);
+
+        AggregatedDebtSummary.UserBalance balance = result.getBalances().get(0);
+        assertThat(balance.getYouOweDetails()).hasSize(1);
+        assertThat(balance.getYouOweDetails().get(0).getExpenseName()).isEqualTo("Dinner");
+        assertThat(balance.getOwesYouDetails()).isEmpty();
+    }
+
+    @Test
+    void getAggregatedDebts_shouldReturnEmpty_whenNoDebts() {
+        when(groupBalanceRepository.findCounterpartyBalances(1L, "me")).thenReturn(List.of());
+
+        AggregatedDebtSummary result = debtsService.getAggregatedDebts("me", 1L, true);
+
+        assertThat(result.getGroupName()).isNull();
+        assertThat(result.getBalances()).isEmpty();
+        verifyNoInteractions(expenseUserRepository);
+    }
+
+    @Test
+    void getDebtsSummary_shouldReturnCursor_whenMoreGroupsExist() {
+        when(groupBalanceRepository.findGroupTotalsAfter("me", 0L, PageRequest.of(0, 3))).thenReturn(List.of(
+                new GroupDebtTotals(1L, "Trip", new BigDecimal("10.00"), BigDecimal.ZERO),
+                new GroupDebtTotals(4L, "Flat", BigDecimal.ZERO, new BigDecimal("25.00")),
+                new GroupDebtTotals(7L, "Bar", new BigDecimal("5.00"), BigDecimal.ZERO)));
+        when(groupBalanceRepository.sumTotalsForUser("me"))
+                .thenReturn(new DebtTotals(new BigDecimal("15.00"), new BigDecimal("25.00")));
+
+        DebtsSummary result = debtsService.getDebtsSummary("me", null, 2);
+
+        assertThat(result.getGroups()).extracting(DebtsSummary.GroupDebt::getGroupId).containsExactly(1L, 4L);
+        assertThat(result.getNextCursor()).isEqualTo(4L);
+        assertThat(result.getTotalNetBalance()).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    void getDebtsSummary_shouldReturnNoCursor_onLastPage() {
+        when(groupBalanceRepository.findGroupTotalsAfter("me", 4L, PageRequest.of(0, 3))).thenReturn(List.of(
+                new GroupDebtTotals(7L, "Bar", new BigDecimal("5.00"), BigDecimal.ZERO)));
+        when(groupBalanceRepository.sumTotalsForUser("me"))
+                .thenReturn(new DebtTotals(new BigDecimal("5.00"), BigDecimal.ZERO));
+
+        DebtsSummary result = debtsService.getDebtsSummary("me", 4L, 2);
+
+        assertThat(result.getGroups()).hasSize(1);
+        assertThat(result.getGroups().get(0).getNetBalance()).isEqualByComparingTo("-5.00");
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getDebtsSummary_shouldThrow_whenLimitTooLarge() {
+        assertThatThrownBy(() -> debtsService.getDebtsSummary("me", null, DebtsService.maxSummaryPageSize + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
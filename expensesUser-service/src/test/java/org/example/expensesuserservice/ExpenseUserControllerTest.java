@@ -3,19 +3,19 @@ package org.example.expensesuserservice;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.expensesuserservice.controller.ExpenseUserController;
 import org.example.expensesuserservice.db.ExpenseUser;
-import org.example.expensesuserservice.dto.ExpenseUserDto;
-import org.example.expensesuserservice.other.Group;
+import org.example.expensesuserservice.other.Expense;
+import org.example.expensesuserservice.other.User;
 import org.example.expensesuserservice.request.UpdateExpenseParticipantRequest;
 import org.example.expensesuserservice.request.UpdatePaidAmountRequest;
 import org.example.expensesuserservice.service.ExpenseUserService;
-import org.example.expensesuserservice.client.AuthServiceClient;
+import org.example.serviceclient.GroupsClient;
+import org.example.serviceclient.dto.GroupDescriptor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -40,10 +40,7 @@ class ExpenseUserControllerTest {
     private ExpenseUserService expenseUserService;
 
     @Mock
-    private AuthServiceClient authServiceClient;
-
-    @Mock
-    private ModelMapper modelMapper;
+    private GroupsClient groupsClient;
 
     private MockMvc mockMvc;
 
@@ -66,13 +63,9 @@ class ExpenseUserControllerTest {
 
     @Test
     void getExpenses_shouldReturnListOfExpenseUsers() throws Exception {
-        ExpenseUser expenseUser = new ExpenseUser();
-        ExpenseUserDto dto = new ExpenseUserDto();
-        dto.setUserId("user456");
-        dto.setAmount(BigDecimal.valueOf(100.0));
+        ExpenseUser expenseUser = expenseUser("user456", BigDecimal.valueOf(100.0), BigDecimal.ZERO);
 
         when(expenseUserService.getExpenseUsers(1L, userId)).thenReturn(List.of(expenseUser));
-        when(modelMapper.map(expenseUser, ExpenseUserDto.class)).thenReturn(dto);
 
         mockMvc.perform(MockMvcRequestBuilders
                         .get("/groups/{groupId}/expenses/{expenseId}", 1L, 1L)
@@ -81,6 +74,7 @@ class ExpenseUserControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(1))
                 .andExpect(jsonPath("$[0].userId").value("user456"))
+                .andExpect(jsonPath("$[0].expenseId").value(1))
                 .andExpect(jsonPath("$[0].amount").value(100.0));
 
         verify(expenseUserService).getExpenseUsers(1L, userId);
@@ -90,14 +84,10 @@ class ExpenseUserControllerTest {
     @Test
     void updateExpense_shouldReturnUpdatedExpenseUsers() throws Exception {
         UpdateExpenseParticipantRequest updateRequest = new UpdateExpenseParticipantRequest();
-        ExpenseUser expenseUser = new ExpenseUser();
-        ExpenseUserDto dto = new ExpenseUserDto();
-        dto.setUserId("user789");
-        dto.setAmount(BigDecimal.valueOf(200.0));
+        ExpenseUser expenseUser = expenseUser("user789", BigDecimal.valueOf(200.0), BigDecimal.ZERO);
 
-        when(authServiceClient.getGroupById(anyString(), eq(1L))).thenReturn(new Group());
+        when(groupsClient.getGroupDescriptor(anyString(), eq(1L))).thenReturn(new GroupDescriptor());
         when(expenseUserService.updateExpenseUser(eq(1L), anyList(), eq(userId), any())).thenReturn(List.of(expenseUser));
-        when(modelMapper.map(expenseUser, ExpenseUserDto.class)).thenReturn(dto);
 
         mockMvc.perform(MockMvcRequestBuilders
                         .put("/groups/{groupId}/expenses/{expenseId}/users", 1L, 1L)
@@ -118,13 +108,9 @@ class ExpenseUserControllerTest {
     void updatePaidAmount_shouldReturnUpdatedExpenseUser() throws Exception {
         UpdatePaidAmountRequest paidRequest = new UpdatePaidAmountRequest();
         paidRequest.setPaid(BigDecimal.valueOf(150.0));
-        ExpenseUser expenseUser = new ExpenseUser();
-        ExpenseUserDto dto = new ExpenseUserDto();
-        dto.setAmount(BigDecimal.valueOf(150.0));
-        dto.setPaid(BigDecimal.valueOf(150.0));
+        ExpenseUser expenseUser = expenseUser("user456", BigDecimal.valueOf(150.0), BigDecimal.valueOf(150.0));
 
         when(expenseUserService.updatePaidAmount(1L, "user456", paidRequest, userId)).thenReturn(expenseUser);
-        when(modelMapper.map(expenseUser, ExpenseUserDto.class)).thenReturn(dto);
 
         mockMvc.perform(MockMvcRequestBuilders
                         .patch("/groups/{groupId}/expenses/{expenseId}/users/{userId}/paid", 1L, 1L, "user456")
@@ -132,6 +118,7 @@ class ExpenseUserControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(paidRequest)))
                 .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.userId").value("user456"))
                 .andExpect(jsonPath("$.paid").value(150.0));
 
         verify(expenseUserService).updatePaidAmount(1L, "user456", paidRequest, userId);
@@ -150,4 +137,15 @@ class ExpenseUserControllerTest {
         verify(expenseUserService).removeExpense(1L, "user456", userId);
         verifyNoMoreInteractions(expenseUserService);
     }
-}
\ No newline at end of file
+
+    private ExpenseUser expenseUser(String userId, BigDecimal amount, BigDecimal paid) {
+        Expense expense = new Expense();
+        expense.setId(1L);
+        ExpenseUser expenseUser = new ExpenseUser();
+        expenseUser.setUser(new User(userId));
+        expenseUser.setExpense(expense);
+        expenseUser.setAmount(amount);
+        expenseUser.setPaid(paid);
+        return expenseUser;
+    }
+}
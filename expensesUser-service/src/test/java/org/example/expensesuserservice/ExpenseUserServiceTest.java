@@ -2,6 +2,7 @@ package org.example.expensesuserservice;
 
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.ws.rs.ForbiddenException;
+import org.example.expensesuserservice.db.ExpenseRepository;
 import org.example.expensesuserservice.db.ExpenseUser;
 import org.example.expensesuserservice.db.ExpenseUserRepository;
 import org.example.expensesuserservice.other.Expense;
@@ -9,7 +10,11 @@ import org.example.expensesuserservice.other.Group;
 import org.example.expensesuserservice.other.User;
 import org.example.expensesuserservice.request.UpdateExpenseParticipantRequest;
 import org.example.expensesuserservice.request.UpdatePaidAmountRequest;
+import org.example.expensesuserservice.service.BalanceLedgerService;
 import org.example.expensesuserservice.service.ExpenseUserService;
+import org.example.serviceclient.dto.GroupDescriptor;
+import org.example.serviceclient.outbox.NotificationOutboxService;
+import org.example.serviceclient.request.NotificationRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -29,6 +34,15 @@ class ExpenseUserServiceTest {
     @Mock
     private ExpenseUserRepository expenseUserRepository;
 
+    @Mock
+    private NotificationOutboxService notificationOutboxService;
+
+    @Mock
+    private BalanceLedgerService balanceLedgerService;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
     @InjectMocks
     private ExpenseUserService expenseUserService;
 
@@ -111,16 +125,11 @@ class ExpenseUserServiceTest {
     void updateExpense_shouldUpdateParticipantsCorrectly() {
         Long expenseId = 1L;
         String currentUserId = "user123";
-        Group group = new Group();
-        group.setIsClosed(false);
-
-        group.setMembers(List.of(new User(currentUserId), new User("user1")));
+        GroupDescriptor group = descriptor(currentUserId, "user1");
 
         Expense expense = new Expense();
-        expense.setGroup(group);
         expense.setId(expenseId);
-
-        group.setEvents(List.of(expense));
+        when(expenseRepository.findByIdAndGroupId(expenseId, group.getId())).thenReturn(Optional.of(expense));
 
         ExpenseUser existingUser = new ExpenseUser();
         existingUser.setUser(new User("user1"));
@@ -134,29 +143,26 @@ class ExpenseUserServiceTest {
         request.setPaid(new BigDecimal("50.00"));
 
         when(expenseUserRepository.findByExpenseId(expenseId)).thenReturn(List.of(existingUser));
-        when(expenseUserRepository.saveAll(anyList())).thenReturn(List.of(existingUser));
+        when(expenseUserRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
 
         List<ExpenseUser> updatedUsers = expenseUserService.updateExpenseUser(expenseId, List.of(request), currentUserId, group);
 
         assertThat(updatedUsers).hasSize(1);
         assertThat(updatedUsers.get(0).getAmount()).isEqualTo(new BigDecimal("100.00"));
         assertThat(updatedUsers.get(0).getPaid()).isEqualTo(new BigDecimal("50.00"));
+        verify(balanceLedgerService).reverse(group.getId(), expense, List.of(existingUser));
+        verify(balanceLedgerService).record(group.getId(), expense, updatedUsers);
     }
 
     @Test
     void updateExpense_shouldAddNewParticipant() {
         Long expenseId = 1L;
         String currentUserId = "user123";
-        Group group = new Group();
-        group.setIsClosed(false);
-
-        group.setMembers(List.of(new User(currentUserId), new User("user2")));
+        GroupDescriptor group = descriptor(currentUserId, "user2");
 
         Expense expense = new Expense();
-        expense.setGroup(group);
         expense.setId(expenseId);
-
-        group.setEvents(List.of(expense));
+        when(expenseRepository.findByIdAndGroupId(expenseId, group.getId())).thenReturn(Optional.of(expense));
 
         UpdateExpenseParticipantRequest request = new UpdateExpenseParticipantRequest();
         request.setUserId("user2");
@@ -174,6 +180,24 @@ class ExpenseUserServiceTest {
         assertThat(updatedUsers.get(0).getPaid()).isEqualTo(new BigDecimal("100.00"));
     }
 
+    @Test
+    void updateExpense_shouldThrow_whenUserNotMemberOfGroup() {
+        GroupDescriptor group = descriptor("user1");
+
+        assertThatThrownBy(() -> expenseUserService.updateExpenseUser(1L, List.of(), "user123", group))
+                .isInstanceOf(ForbiddenException.class);
+        verifyNoInteractions(expenseRepository, expenseUserRepository);
+    }
+
+    @Test
+    void updateExpense_shouldThrow_whenExpenseNotInGroup() {
+        GroupDescriptor group = descriptor("user123");
+        when(expenseRepository.findByIdAndGroupId(1L, group.getId())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> expenseUserService.updateExpenseUser(1L, List.of(), "user123", group))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
     @Test
     void updatePaidAmount_shouldUpdateSuccessfully() {
         Long expenseId = 1L;
@@ -205,6 +229,7 @@ class ExpenseUserServiceTest {
 
         assertThat(updatedExpenseUser.getPaid()).isEqualTo(new BigDecimal("50.00"));
         verify(expenseUserRepository).save(expenseUser);
+        verify(balanceLedgerService).adjust(group.getId(), expense, userId, new BigDecimal("-50.00"));
     }
 
     @Test
@@ -231,7 +256,9 @@ class ExpenseUserServiceTest {
 
         expenseUserService.removeExpense(expenseId, userId, currentUserId);
 
+        verify(balanceLedgerService).reverse(group.getId(), expense, List.of(expenseUser));
         verify(expenseUserRepository).delete(expenseUser);
+        verify(notificationOutboxService).enqueue(eq(userId), eq(group.getId()), any(NotificationRequest.class));
     }
 
     @Test
@@ -268,4 +295,14 @@ class ExpenseUserServiceTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("This group is closed");
     }
-}
\ No newline at end of file
+
+    private GroupDescriptor descriptor(String... memberIds) {
+        return GroupDescriptor.builder()
+                .id(10L)
+                .version(1L)
+                .name("Trip")
+                .closed(false)
+                .memberIds(List.of(memberIds))
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.expensesuserservice;
+
+import org.example.expensesuserservice.service.SettlementPlanner;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SettlementPlannerTest {
+
+    @Test
+    void plan_shouldCollapseChainIntoSingleTransfer() {
+        // a должен b 100, b должен c 100 — достаточно одного перевода a → c
+        SettlementPlanner.NetPositions positions = new SettlementPlanner.NetPositions();
+        positions.addDebt("a", "b", 10000);
+        positions.addDebt("b", "c", 10000);
+
+        List<SettlementPlanner.Transfer> transfers = SettlementPlanner.plan(positions);
+
+        assertThat(transfers).containsExactly(new SettlementPlanner.Transfer("a", "c", 10000));
+    }
+
+    @Test
+    void plan_shouldMatchLargestDebtorWithLargestCreditor() {
+        SettlementPlanner.NetPositions positions = new SettlementPlanner.NetPositions();
+        positions.addDebt("a", "c", 7000);
+        positions.addDebt("b", "c", 3000);
+        positions.addDebt("b", "d", 2000);
+
+        List<SettlementPlanner.Transfer> transfers = SettlementPlanner.plan(positions);
+
+        assertThat(transfers).containsExactly(
+                new SettlementPlanner.Transfer("a", "c", 7000),
+                new SettlementPlanner.Transfer("b", "c", 3000),
+                new SettlementPlanner.Transfer("b", "d", 2000));
+    }
+
+    @Test
+    void plan_shouldReturnEmpty_whenEverybodyIsSettled() {
+        SettlementPlanner.NetPositions positions = new SettlementPlanner.NetPositions();
+        positions.addDebt("a", "b", 5000);
+        positions.addDebt("b", "a", 5000);
+
+        assertThat(SettlementPlanner.plan(positions)).isEmpty();
+    }
+
+    @Test
+    void plan_shouldZeroOutAllBalances() {
+        SettlementPlanner.NetPositions positions = new SettlementPlanner.NetPositions();
+        String[] users = {"u1", "u2", "u3", "u4", "u5", "u6"};
+        for (int i = 0; i < 200; i++) {
+            positions.addDebt(users[i % users.length], users[(i * 7 + 3) % users.length], 100 + i);
+        }
+
+        List<SettlementPlanner.Transfer> transfers = SettlementPlanner.plan(positions);
+
+        assertThat(transfers.size()).isLessThan(users.length);
+        for (String user : users) {
+            long received = transfers.stream().filter(t -> t.toUserId().equals(user))
+                    .mapToLong(SettlementPlanner.Transfer::amount).sum();
+            long sent = transfers.stream().filter(t -> t.fromUserId().equals(user))
+                    .mapToLong(SettlementPlanner.Transfer::amount).sum();
+            assertThat(received - sent).isEqualTo(positions.balanceOf(user));
+        }
+    }
+}
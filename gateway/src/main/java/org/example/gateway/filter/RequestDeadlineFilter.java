@@ -0,0 +1,50 @@
+package org.example.gateway.filter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Ставит каждому запросу бюджет времени: заголовок X-Request-Timeout — сколько миллисекунд осталось
+ * у клиента. Сервисы передают остаток дальше (service-client) и не начинают вызовы, когда он исчерпан.
+ * Бюджет меньше заданного клиентом сохраняется, больше — урезается до gateway.request-timeout.
+ */
+@Component
+public class RequestDeadlineFilter implements GlobalFilter, Ordered {
+
+    public static final String header = "X-Request-Timeout";
+
+    private final Duration requestTimeout;
+
+    public RequestDeadlineFilter(@Value("${gateway.request-timeout:PT10S}") Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long budget = requestTimeout.toMillis();
+        String requested = exchange.getRequest().getHeaders().getFirst(header);
+        if (requested != null) {
+            try {
+                budget = Math.min(budget, Long.parseLong(requested.trim()));
+            } catch (NumberFormatException e) {
+                // Некорректное значение от клиента игнорируем
+            }
+        }
+        String value = String.valueOf(Math.max(budget, 0));
+        return chain.filter(exchange.mutate()
+                .request(request -> request.headers(headers -> headers.set(header, value)))
+                .build());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -6,15 +6,16 @@ import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.example.groupsservice.db.Group;
 import org.example.groupsservice.dto.GroupDTO;
+import org.example.groupsservice.dto.GroupMapper;
 import org.example.groupsservice.dto.UserInsensitiveInfoDTO;
-import org.example.groupsservice.other.User;
 import org.example.groupsservice.request.CreateGroupRequest;
 import org.example.groupsservice.service.GroupService;
-import org.modelmapper.ModelMapper;
+import org.example.serviceclient.dto.GroupDescriptor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -24,7 +25,6 @@ import java.util.List;
 public class GroupController {
 
     private final GroupService groupService;
-    private final ModelMapper modelMapper;
 
     @PostMapping("/create")
     @Operation(summary = "Создать новую группу",
@@ -36,7 +36,7 @@ public class GroupController {
         String currentUserId = jwt.getClaim("sub");
 
         var created = groupService.createGroup(createGroupRequest,currentUserId);
-        return ResponseEntity.status(201).body(fromGroupToDTO(created));
+        return ResponseEntity.status(201).body(GroupMapper.toDto(created));
     }
 
     @PostMapping("{uniqueCode}/join")
@@ -86,7 +86,7 @@ public class GroupController {
         String userId = jwt.getClaim("sub");
 
         var toReturn = groupService.getGroupsByUserId(userId).stream()
-                .map(this::fromGroupToDTO).toList();
+                .map(GroupMapper::toDto).toList();
 
         return ResponseEntity.status(201).body(toReturn);
     }
@@ -101,7 +101,7 @@ public class GroupController {
         var jwt = (Jwt) authentication.getPrincipal();
         String currentUserId = jwt.getClaim("sub");
 
-        var members = groupService.getMembersOfGroup(groupId, currentUserId).stream().map(this::fromUserToDTO).toList();
+        var members = groupService.getMembersOfGroup(groupId, currentUserId).stream().map(GroupMapper::toDto).toList();
         return ResponseEntity.status(201).body(members);
     }
 
@@ -131,8 +131,35 @@ public class GroupController {
         return groupService.getGroupByGroupId(groupId, currentUserId);
     }
 
-    private GroupDTO fromGroupToDTO(Group group) {return modelMapper.map(group, GroupDTO.class);}
+    @GetMapping("/{groupId}/descriptor")
+    @Operation(summary = "Получить краткое описание группы",
+            description = "Версия, статус, владелец и участники группы без расходов — для проверок доступа в других сервисах. " +
+                    "Ответ с ETag: при совпадении If-None-Match возвращается 304 без тела. " +
+                    "Получить описание может только аутентифицированный пользователь член этой группы.")
+    public ResponseEntity<GroupDescriptor> getGroupDescriptor(@PathVariable Long groupId, HttpServletRequest req,
+                                                              WebRequest webRequest) {
+        var authentication = (Authentication) req.getUserPrincipal();
+        var jwt = (Jwt) authentication.getPrincipal();
+        String currentUserId = jwt.getClaim("sub");
+
+        var descriptor = groupService.getGroupDescriptor(groupId, currentUserId);
+        String etag = GroupDescriptor.etag(descriptor.getVersion());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(descriptor);
+    }
 
-    private UserInsensitiveInfoDTO fromUserToDTO(User user) {return modelMapper.map(user, UserInsensitiveInfoDTO.class);}
+    @PostMapping("/batch")
+    @Operation(summary = "Получить краткие описания нескольких групп",
+            description = "Принимает до 100 id групп и возвращает описания тех из них, в которых состоит " +
+                    "аутентифицированный пользователь. Для вызовов из других сервисов.")
+    public List<GroupDescriptor> getGroupDescriptors(@RequestBody List<Long> groupIds, HttpServletRequest req) {
+        var authentication = (Authentication) req.getUserPrincipal();
+        var jwt = (Jwt) authentication.getPrincipal();
+        String currentUserId = jwt.getClaim("sub");
+
+        return groupService.getGroupDescriptors(groupIds, currentUserId);
+    }
 }
 
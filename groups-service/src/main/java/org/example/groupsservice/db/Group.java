@@ -51,4 +51,9 @@ public class Group {
 
     @Column(name = "is_closed", nullable = false)
     private Boolean isClosed = false;
+
+    // Растет при изменении группы и состава участников; ETag описания группы для других сервисов
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private long version;
 }
\ No newline at end of file
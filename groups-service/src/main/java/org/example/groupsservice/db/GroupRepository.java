@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,4 +24,8 @@ public interface GroupRepository extends JpaRepository<Group, Long> {
     List<User> findMembersByGroupId(@Param("groupId") Long groupId);
 
     boolean existsById(Long id);
+
+    // Владелец и участники подгружаются в том же запросе, без отдельного запроса на каждую группу
+    @Query("SELECT DISTINCT g FROM Group g JOIN FETCH g.userOwner LEFT JOIN FETCH g.members WHERE g.id IN :ids")
+    List<Group> findAllWithMembersByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,34 @@
+package org.example.groupsservice.dto;
+
+import org.example.groupsservice.db.Group;
+import org.example.groupsservice.other.User;
+
+/**
+ * Group и User в DTO ответов без ModelMapper: читаются только поля, которые объявлены в DTO,
+ * поэтому ленивые members и events группы не загружаются.
+ */
+public final class GroupMapper {
+
+    private GroupMapper() {
+    }
+
+    public static GroupDTO toDto(Group group) {
+        return GroupDTO.builder()
+                .id(group.getId())
+                .name(group.getName())
+                .uniqueCode(group.getUniqueCode())
+                .createdAt(group.getCreatedAt())
+                .updatedAt(group.getUpdatedAt())
+                .userOwner(group.getUserOwner() == null ? null : toDto(group.getUserOwner()))
+                .isClosed(group.getIsClosed())
+                .build();
+    }
+
+    public static UserInsensitiveInfoDTO toDto(User user) {
+        return UserInsensitiveInfoDTO.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .build();
+    }
+}
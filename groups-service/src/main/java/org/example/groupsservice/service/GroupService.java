@@ -1,15 +1,19 @@
 package org.example.groupsservice.service;
 
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.ws.rs.ForbiddenException;
 import lombok.AllArgsConstructor;
-import org.example.groupsservice.client.AuthServiceClient;
 import org.example.groupsservice.db.Group;
 import org.example.groupsservice.db.GroupRepository;
 import org.example.groupsservice.other.User;
 import org.example.groupsservice.request.CreateGroupRequest;
-import org.example.groupsservice.request.NotificationRequest;
+import org.example.serviceclient.dto.GroupDescriptor;
+import org.example.serviceclient.outbox.NotificationOutboxService;
+import org.example.serviceclient.request.NotificationRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -18,21 +22,27 @@ public class GroupService {
 
     private final GroupRepository groupRepository;
 
-    private final AuthServiceClient authServiceClient;
+    private final NotificationOutboxService notificationOutboxService;
 
     private static final Integer maxCountOfCreatedGroup = 1000;
 
     private static final Integer maxSizeOfGroup = 50;
 
+    public static final int maxBatchSize = 100;
+
+    @Transactional
     public Group createGroup(CreateGroupRequest groupForm, String currentUserId) {
         var toSave = new Group();
         var addUser = new User(currentUserId);
         toSave.setName(groupForm.getName());
         toSave.setUserOwner(addUser);
         toSave.getMembers().add(addUser);
-        return groupRepository.save(toSave);
+        var saved = groupRepository.save(toSave);
+        notificationOutboxService.subscribe(saved.getId(), currentUserId);
+        return saved;
     }
 
+    @Transactional
     public void joinGroup(String uniqueCode, String currentUserId) {
         var toJoin = groupRepository.findByUniqueCode(uniqueCode)
                 .orElseThrow(()-> new EntityNotFoundException(
@@ -54,16 +64,19 @@ public class GroupService {
             throw new IllegalArgumentException("This group is closed");
         }
 
-        authServiceClient.sendNotificationToMultipleUsers(members,
+        // Только прежним участникам: в топике группы и в group_members к отправке уже будет новый
+        notificationOutboxService.enqueue(idListOfMembers,
                 new NotificationRequest("Добавления пользователя в группу",
                         String.format("Новый пользователь в группе %s", toJoin.getName())));
 
 
         toJoin.getMembers().add(new User(currentUserId));
         groupRepository.save(toJoin);
+        notificationOutboxService.subscribe(toJoin.getId(), currentUserId);
 
     }
 
+    @Transactional
     public void closeGroup(Long groupId, String currentUserId) {
         var toClose = groupRepository.findById(groupId)
                 .orElseThrow(()-> new EntityNotFoundException(String.format("Group %s not found",groupId)));
@@ -73,14 +86,13 @@ public class GroupService {
         }
         toClose.setIsClosed(true);
 
-        var members = toClose.getMembers();
-
-        authServiceClient.sendNotificationToMultipleUsers(members,
+        notificationOutboxService.enqueueForGroup(toClose.getId(),
                 new NotificationRequest("Закрытие группы",
                         String.format("Группа %s была закрыта", toClose.getName())));
         groupRepository.save(toClose);
     }
 
+    @Transactional
     public void deleteGroup(Long groupId, String currentUserId) {
         var toJoin = groupRepository.findById(groupId)
                 .orElseThrow(()-> new EntityNotFoundException(String.format("Group %s not found",groupId)));
@@ -91,9 +103,11 @@ public class GroupService {
 
         var members = toJoin.getMembers();
 
-        authServiceClient.sendNotificationToMultipleUsers(members,
+        // Не в топик группы: отписки из той же транзакции диспетчер отправит раньше рассылки
+        notificationOutboxService.enqueue(members.stream().map(User::getId).toList(),
                 new NotificationRequest("Удаление группы",
                         String.format("Группа %s была удалена", toJoin.getName())));
+        members.forEach(member -> notificationOutboxService.unsubscribe(toJoin.getId(), member.getId()));
         groupRepository.delete(toJoin);
     }
 
@@ -111,6 +125,46 @@ public class GroupService {
 
     }
 
+    /**
+     * Описание группы для других сервисов: без расходов, поэтому размер ответа не зависит от истории группы.
+     */
+    public GroupDescriptor getGroupDescriptor(Long groupId, String currentUserId) {
+        var group = groupRepository.findById(groupId)
+                .orElseThrow(()-> new EntityNotFoundException(String.format("Group %s not found",groupId)));
+        if (!isUserMemberOfGroup(group, currentUserId)) {
+            throw new ForbiddenException("Permission denied. You do not member of the group");
+        }
+        return toDescriptor(group);
+    }
+
+    /**
+     * Описания нескольких групп одним запросом. Группы, которых нет или в которых пользователь
+     * не состоит, в ответ не попадают.
+     */
+    public List<GroupDescriptor> getGroupDescriptors(Collection<Long> groupIds, String currentUserId) {
+        if (groupIds.size() > maxBatchSize) {
+            throw new IllegalArgumentException("No more than " + maxBatchSize + " groups per request");
+        }
+        if (groupIds.isEmpty()) {
+            return List.of();
+        }
+        return groupRepository.findAllWithMembersByIdIn(groupIds).stream()
+                .filter(group -> isUserMemberOfGroup(group, currentUserId))
+                .map(this::toDescriptor)
+                .toList();
+    }
+
+    private GroupDescriptor toDescriptor(Group group) {
+        return GroupDescriptor.builder()
+                .id(group.getId())
+                .version(group.getVersion())
+                .name(group.getName())
+                .closed(Boolean.TRUE.equals(group.getIsClosed()))
+                .ownerId(group.getUserOwner().getId())
+                .memberIds(group.getMembers().stream().map(User::getId).toList())
+                .build();
+    }
+
     public List<User> getMembersOfGroup(Long groupId, String currentUserId) {
         var foundedGroup = groupRepository.findById(groupId)
                 .orElseThrow(()-> new EntityNotFoundException(String.format("Group %s not found",groupId)));
@@ -120,6 +174,7 @@ public class GroupService {
         return groupRepository.findMembersByGroupId(groupId);
     }
 
+    @Transactional
     public void deleteMembersOfGroup(Long groupId, String userId, String currentUserId) {
         var group  = groupRepository.findById(groupId)
                 .orElseThrow(()->
@@ -145,9 +200,10 @@ public class GroupService {
         var toDelGroup = group;
         toDelGroup.getMembers().remove(userToDelete);
 
-        authServiceClient.sendNotification(userId,
+        notificationOutboxService.enqueue(userId,
                 new NotificationRequest("Удаление участника",
                         String.format("Вы были удалены их группы %s", toDelGroup.getName())));
+        notificationOutboxService.unsubscribe(groupId, userId);
 
         groupRepository.save(toDelGroup);
     }
@@ -6,8 +6,10 @@ import jakarta.ws.rs.ForbiddenException;
 import jakarta.ws.rs.NotAuthorizedException;
 import org.example.groupsservice.ErrorResponse;
 import org.example.groupsservice.config.CustomFeignException;
+import org.example.serviceclient.ServiceClientException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -98,4 +100,19 @@ public class ErrorHandlingControllerAdvice {
 	public ErrorResponse onForbiddenException(ForbiddenException e) {
 		return new ErrorResponse(403, e.getMessage());
 	}
-}
\ No newline at end of file
+
+	// Группу изменили параллельно (версия уже другая) — клиент может повторить запрос
+	@ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+	@ResponseStatus(HttpStatus.CONFLICT)
+	@ResponseBody
+	public ErrorResponse onOptimisticLockingFailureException(ObjectOptimisticLockingFailureException e) {
+		return new ErrorResponse(409, "Group was modified concurrently, retry the request");
+	}
+
+	// Ошибка другого сервиса: 4xx передается как есть, отказ или таймаут — 502/504
+	@ExceptionHandler(ServiceClientException.class)
+	@ResponseBody
+	public ResponseEntity<ErrorResponse> onServiceClientException(ServiceClientException e) {
+		return ResponseEntity.status(e.responseStatus()).body(new ErrorResponse(e.responseStatus(), e.getMessage()));
+	}
+}
@@ -1,20 +1,19 @@
 package org.example.groupsservice;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.example.groupsservice.controller.GroupController;
 import org.example.groupsservice.db.Group;
-import org.example.groupsservice.dto.GroupDTO;
-import org.example.groupsservice.dto.UserInsensitiveInfoDTO;
 import org.example.groupsservice.other.User;
 import org.example.groupsservice.request.CreateGroupRequest;
 import org.example.groupsservice.service.GroupService;
+import org.example.serviceclient.dto.GroupDescriptor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
@@ -26,6 +25,7 @@ import static org.hamcrest.Matchers.is;
 
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -40,9 +40,6 @@ class GroupControllerTest {
     @Mock
     private GroupService groupService;
 
-    @Mock
-    private ModelMapper modelMapper;
-
     private MockMvc mockMvc;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
@@ -74,16 +71,15 @@ class GroupControllerTest {
         CreateGroupRequest reqBody = new CreateGroupRequest();
         reqBody.setName(groupName);
 
+        User owner = new User(userId);
+        owner.setUsername("john");
+
         Group group = new Group();
         group.setId(1L);
         group.setName(groupName);
-
-        GroupDTO groupDTO = new GroupDTO();
-        groupDTO.setId(1L);
-        groupDTO.setName(groupName);
+        group.setUserOwner(owner);
 
         when(groupService.createGroup(any(), eq(userId))).thenReturn(group);
-        when(modelMapper.map(eq(group), eq(GroupDTO.class))).thenReturn(groupDTO);
 
         mockMvc.perform(MockMvcRequestBuilders
                         .post("/groups/create")
@@ -92,12 +88,14 @@ class GroupControllerTest {
                         .principal(auth))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.id").value(1L))
-                .andExpect(jsonPath("$.name").value(groupName));
+                .andExpect(jsonPath("$.name").value(groupName))
+                .andExpect(jsonPath("$.isClosed").value(false))
+                .andExpect(jsonPath("$.userOwner.id").value(userId))
+                .andExpect(jsonPath("$.userOwner.username").value("john"));
 
         verify(groupService).createGroup(any(CreateGroupRequest.class), eq(userId));
-        verify(modelMapper).map(group, GroupDTO.class);
 
-        verifyNoMoreInteractions(groupService, modelMapper);
+        verifyNoMoreInteractions(groupService);
     }
 
     @Test
@@ -154,14 +152,7 @@ class GroupControllerTest {
         Group group2 = new Group();
         group2.setName("Group Two");
 
-        GroupDTO groupDTO1 = new GroupDTO();
-        groupDTO1.setName("Group One");
-        GroupDTO groupDTO2 = new GroupDTO();
-        groupDTO2.setName("Group Two");
-
         when(groupService.getGroupsByUserId(userId)).thenReturn(List.of(group1, group2));
-        when(modelMapper.map(group1, GroupDTO.class)).thenReturn(groupDTO1);
-        when(modelMapper.map(group2, GroupDTO.class)).thenReturn(groupDTO2);
 
         mockMvc.perform(MockMvcRequestBuilders
                         .get("/groups/my")
@@ -187,15 +178,7 @@ class GroupControllerTest {
         User user2 = new User();
         user2.setUsername("jane");
 
-        UserInsensitiveInfoDTO dto1 = new UserInsensitiveInfoDTO();
-        dto1.setUsername("john");
-
-        UserInsensitiveInfoDTO dto2 = new UserInsensitiveInfoDTO();
-        dto2.setUsername("jane");
-
         when(groupService.getMembersOfGroup(groupId, userId)).thenReturn(List.of(user1, user2));
-        when(modelMapper.map(user1, UserInsensitiveInfoDTO.class)).thenReturn(dto1);
-        when(modelMapper.map(user2, UserInsensitiveInfoDTO.class)).thenReturn(dto2);
 
         mockMvc.perform(MockMvcRequestBuilders
                         .get("/groups/{groupId}/members", groupId)
@@ -246,4 +229,48 @@ class GroupControllerTest {
         verify(groupService).getGroupByGroupId(groupId, userId);
         verifyNoMoreInteractions(groupService);
     }
+
+    @Test
+    void getGroupDescriptor_shouldAnswerJsonWithEtag_byDefault() throws Exception {
+        when(groupService.getGroupDescriptor(1L, userId)).thenReturn(descriptor());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/groups/1/descriptor").principal(auth))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.memberIds[0]").value(userId));
+    }
+
+    @Test
+    void getGroupDescriptor_shouldAnswerCbor_whenRequested() throws Exception {
+        when(groupService.getGroupDescriptor(1L, userId)).thenReturn(descriptor());
+
+        byte[] body = mockMvc.perform(MockMvcRequestBuilders.get("/groups/1/descriptor").principal(auth)
+                        .accept("application/cbor", "application/json;q=0.9"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(new CBORMapper().readValue(body, GroupDescriptor.class).getVersion()).isEqualTo(3L);
+    }
+
+    @Test
+    void getGroupDescriptor_shouldAnswerNotModified_whenVersionMatches() throws Exception {
+        when(groupService.getGroupDescriptor(1L, userId)).thenReturn(descriptor());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/groups/1/descriptor").principal(auth)
+                        .header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    private GroupDescriptor descriptor() {
+        return GroupDescriptor.builder()
+                .id(1L)
+                .version(3L)
+                .name("Trip")
+                .ownerId(userId)
+                .memberIds(List.of(userId))
+                .build();
+    }
 }
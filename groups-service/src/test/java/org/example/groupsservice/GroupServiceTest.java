@@ -1,11 +1,14 @@
 package org.example.groupsservice;
 
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.ws.rs.ForbiddenException;
 import org.example.groupsservice.db.Group;
 import org.example.groupsservice.db.GroupRepository;
 import org.example.groupsservice.other.User;
 import org.example.groupsservice.request.CreateGroupRequest;
 import org.example.groupsservice.service.GroupService;
+import org.example.serviceclient.outbox.NotificationOutboxService;
+import org.example.serviceclient.request.NotificationRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -26,6 +29,9 @@ class GroupServiceTest {
     @Mock
     private GroupRepository groupRepository;
 
+    @Mock
+    private NotificationOutboxService notificationOutboxService;
+
     @InjectMocks
     private GroupService groupService;
 
@@ -52,6 +58,7 @@ class GroupServiceTest {
         assertThat(result.getUserOwner().getId()).isEqualTo(userId);
         assertThat(result.getMembers()).hasSize(1);
         verify(groupRepository).save(any(Group.class));
+        verify(notificationOutboxService).subscribe(savedGroup.getId(), userId);
     }
 
     @Test
@@ -62,7 +69,7 @@ class GroupServiceTest {
 
         Group group = new Group();
         group.setUserOwner(owner);
-        group.setMembers(new ArrayList<>());
+        group.setMembers(new ArrayList<>(List.of(owner)));
         group.setIsClosed(false);
 
         when(groupRepository.findByUniqueCode(code)).thenReturn(Optional.of(group));
@@ -71,6 +78,25 @@ class GroupServiceTest {
 
         assertThat(group.getMembers()).extracting(User::getId).contains(userId);
         verify(groupRepository).save(group);
+        verify(notificationOutboxService).subscribe(group.getId(), userId);
+    }
+
+    @Test
+    void joinGroup_shouldNotifyOnlyPreviousMembers() {
+        User owner = new User("owner123");
+        Group group = new Group();
+        group.setUserOwner(owner);
+        group.setMembers(new ArrayList<>(List.of(owner, new User("user1"))));
+        group.setIsClosed(false);
+
+        when(groupRepository.findByUniqueCode("code")).thenReturn(Optional.of(group));
+
+        groupService.joinGroup("code", "joiner");
+
+        verify(notificationOutboxService).enqueue(eq(List.of("owner123", "user1")), any(NotificationRequest.class));
+        verify(notificationOutboxService, never()).enqueue(argThat((List<String> ids) -> ids.contains("joiner")),
+                any(NotificationRequest.class));
+        verify(notificationOutboxService, never()).enqueueForGroup(anyLong(), any());
     }
 
     @Test
@@ -185,11 +211,16 @@ class GroupServiceTest {
         var group = new Group();
         group.setId(1L);
         group.setUserOwner(owner);
+        group.setMembers(List.of(owner, new User("user1")));
 
         when(groupRepository.findById(1L)).thenReturn(Optional.of(group));
 
         groupService.deleteGroup(1L, "owner123");
 
+        verify(notificationOutboxService).enqueue(eq(List.of("owner123", "user1")), any(NotificationRequest.class));
+        verify(notificationOutboxService, never()).enqueueForGroup(anyLong(), any());
+        verify(notificationOutboxService).unsubscribe(1L, "owner123");
+        verify(notificationOutboxService).unsubscribe(1L, "user1");
         verify(groupRepository).delete(group);
     }
 
@@ -247,6 +278,69 @@ class GroupServiceTest {
         assertThrows(IllegalArgumentException.class, () -> groupService.getGroupByGroupId(1L, "user2"));
     }
 
+    @Test
+    void getGroupDescriptor_shouldReturnVersionAndMembers() {
+        var owner = new User("owner1");
+        var group = new Group();
+        group.setId(1L);
+        group.setName("Trip");
+        group.setUserOwner(owner);
+        group.setMembers(List.of(owner, new User("user1")));
+        group.setVersion(4L);
+
+        when(groupRepository.findById(1L)).thenReturn(Optional.of(group));
+
+        var descriptor = groupService.getGroupDescriptor(1L, "user1");
+
+        assertThat(descriptor.getVersion()).isEqualTo(4L);
+        assertThat(descriptor.getOwnerId()).isEqualTo("owner1");
+        assertThat(descriptor.getMemberIds()).containsExactly("owner1", "user1");
+        assertThat(descriptor.isClosed()).isFalse();
+    }
+
+    @Test
+    void getGroupDescriptor_shouldThrowWhenNotMember() {
+        var group = new Group();
+        group.setId(1L);
+        group.setMembers(new ArrayList<>());
+
+        when(groupRepository.findById(1L)).thenReturn(Optional.of(group));
+
+        assertThrows(ForbiddenException.class, () -> groupService.getGroupDescriptor(1L, "user2"));
+    }
+
+    @Test
+    void getGroupDescriptors_shouldLoadInOneQueryAndSkipForeignGroups() {
+        var owner = new User("owner1");
+        var own = new Group();
+        own.setId(1L);
+        own.setUserOwner(owner);
+        own.setMembers(List.of(owner, new User("user1")));
+        var foreign = new Group();
+        foreign.setId(2L);
+        foreign.setUserOwner(owner);
+        foreign.setMembers(List.of(owner));
+
+        when(groupRepository.findAllWithMembersByIdIn(List.of(1L, 2L, 3L))).thenReturn(List.of(own, foreign));
+
+        var descriptors = groupService.getGroupDescriptors(List.of(1L, 2L, 3L), "user1");
+
+        assertThat(descriptors).extracting("id").containsExactly(1L);
+        verify(groupRepository, times(1)).findAllWithMembersByIdIn(anyCollection());
+        verify(groupRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getGroupDescriptors_shouldThrowWhenTooManyIds() {
+        var ids = new ArrayList<Long>();
+        for (long id = 0; id <= GroupService.maxBatchSize; id++) {
+            ids.add(id);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> groupService.getGroupDescriptors(ids, "user1"));
+        verifyNoInteractions(groupRepository);
+    }
+
     @Test
     void getMembersOfGroup_shouldGetSuccessfully() {
         var user = new User("user1");
@@ -287,6 +381,7 @@ class GroupServiceTest {
         verify(groupRepository).save(group);
         assertEquals(1, group.getMembers().size());
         assertFalse(group.getMembers().contains(user));
+        verify(notificationOutboxService).unsubscribe(1L, "user2");
     }
 
     @Test
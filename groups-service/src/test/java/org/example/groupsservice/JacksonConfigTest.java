@@ -0,0 +1,46 @@
+package org.example.groupsservice;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.example.groupsservice.config.JacksonConfig;
+import org.example.groupsservice.dto.GroupDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.time.LocalDateTime;
+import java.util.TimeZone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JacksonConfigTest {
+
+    private final JacksonConfig jacksonConfig = new JacksonConfig();
+
+    @Test
+    void cborConverter_shouldWriteDatesAsText() throws Exception {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        GroupDTO group = GroupDTO.builder().id(1L).createdAt(LocalDateTime.of(2025, 3, 14, 2, 24, 29)).build();
+
+        jacksonConfig.cborHttpMessageConverter(new Jackson2ObjectMapperBuilder())
+                .write(group, MediaType.parseMediaType("application/cbor"), message);
+
+        // Как в JSON: ISO-строка, а не массив чисел
+        assertThat(new CBORMapper().readTree(message.getBodyAsBytes()).path("createdAt").asText())
+                .isEqualTo("2025-03-14T02:24:29");
+    }
+
+    @Test
+    void cborConverter_shouldApplyBuilderSettings_likeJson() {
+        // spring.jackson.time-zone=UTC приходит в Jackson2ObjectMapperBuilder
+        TimeZone utc = TimeZone.getTimeZone("UTC");
+
+        TimeZone json = jacksonConfig.objectMapper(new Jackson2ObjectMapperBuilder().timeZone(utc))
+                .getSerializationConfig().getTimeZone();
+        TimeZone cbor = jacksonConfig.cborHttpMessageConverter(new Jackson2ObjectMapperBuilder().timeZone(utc))
+                .getObjectMapper().getSerializationConfig().getTimeZone();
+
+        assertThat(json).isEqualTo(utc);
+        assertThat(cbor).isEqualTo(utc);
+    }
+}
@@ -12,4 +12,10 @@ import lombok.Setter;
 public class NotificationRequest {
     private String title;
     private String message;
+    private Long groupId; // Если задан, уведомления пользователю по группе объединяются в дайджест
+
+    public NotificationRequest(String title, String message) {
+        this.title = title;
+        this.message = message;
+    }
 }
\ No newline at end of file
@@ -3,7 +3,9 @@ package com.example.notificationservice.config;
 import org.springframework.http.HttpMethod;
 import lombok.RequiredArgsConstructor;
 import com.example.notificationservice.security.KeycloakJwtTokenConverter;
+import com.example.notificationservice.security.ServiceTokenFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -12,6 +14,7 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -38,13 +41,18 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           @Value("${service-client.service-token:}") String serviceToken)
+            throws Exception {
         return http
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/users/*/notifications", "/swagger-ui/**",
-                                "/v3/api-docs/**")
+                        // Рассылки и подписки на топики вызывают только другие сервисы (X-Service-Token)
+                        .requestMatchers("/users/*/notifications", "/users/notifications", "/groups/*/notifications",
+                                "/groups/*/members/*")
+                        .hasAuthority(ServiceTokenFilter.authority)
+                        .requestMatchers("/actuator/health", "/swagger-ui/**", "/v3/api-docs/**")
                         .permitAll()
                         .requestMatchers(HttpMethod.DELETE, "/users/*/tokens").permitAll()
                         .requestMatchers("/**").authenticated())
@@ -52,6 +60,7 @@ public class SecurityConfig {
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .oauth2ResourceServer(oauth2 -> oauth2
                         .jwt(jwtCustomizer -> jwtCustomizer.jwtAuthenticationConverter(keycloakJwtTokenConverter)))
+                .addFilterAfter(new ServiceTokenFilter(serviceToken), BearerTokenAuthenticationFilter.class)
                 .build();
     }
 
@@ -0,0 +1,41 @@
+package com.example.notificationservice.controller;
+
+import com.example.notificationservice.TestNotificationRequest.NotificationRequest;
+import com.example.notificationservice.service.MessageService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/groups")
+@AllArgsConstructor
+public class GroupNotificationController {
+    private final MessageService messageService;
+
+    @PostMapping("/{groupId}/members/{userId}")
+    public ResponseEntity<?> subscribe(
+            @PathVariable Long groupId,
+            @PathVariable String userId
+    ) {
+        messageService.subscribeToGroup(groupId, userId);
+        return ResponseEntity.ok().build();
+    }
+
+    @DeleteMapping("/{groupId}/members/{userId}")
+    public ResponseEntity<?> unsubscribe(
+            @PathVariable Long groupId,
+            @PathVariable String userId
+    ) {
+        messageService.unsubscribeFromGroup(groupId, userId);
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/{groupId}/notifications")
+    public ResponseEntity<?> sendNotification(
+            @PathVariable Long groupId,
+            @RequestBody NotificationRequest notificationRequest
+    ) {
+        messageService.sendNotificationToGroup(groupId, notificationRequest);
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -1,12 +1,22 @@
 package com.example.notificationservice.controller;
 
 
+import com.example.notificationservice.TestNotificationRequest.BulkNotificationRequest;
 import com.example.notificationservice.TestNotificationRequest.NotificationRequest;
 import com.example.notificationservice.TestNotificationRequest.TokenRequest;
+import com.example.notificationservice.dto.BulkNotificationResult;
+import com.example.notificationservice.dto.InboxPage;
+import com.example.notificationservice.service.LiveSessionRegistry;
 import com.example.notificationservice.service.MessageService;
+import com.example.notificationservice.service.NotificationInbox;
+import jakarta.ws.rs.ForbiddenException;
 import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/users")
@@ -14,6 +24,53 @@ import org.springframework.web.bind.annotation.*;
 public class NotificationController {
     private final MessageService messageService;
 
+    private final LiveSessionRegistry liveSessionRegistry;
+
+    private final NotificationInbox notificationInbox;
+
+    /**
+     * Поток уведомлений для открытого приложения (text/event-stream).
+     * Пока поток открыт, уведомления пользователю идут сюда, а не в FCM.
+     */
+    @GetMapping(value = "/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @PathVariable String userId,
+            @AuthenticationPrincipal Jwt jwt
+    ) {
+        if (jwt == null || !userId.equals(jwt.getSubject())) {
+            throw new ForbiddenException("You can only subscribe to your own notifications.");
+        }
+        return liveSessionRegistry.connect(userId);
+    }
+
+    /**
+     * История уведомлений от новых к старым. nextCursor из ответа передается в cursor за следующей страницей.
+     */
+    @GetMapping("/{userId}/inbox")
+    public ResponseEntity<InboxPage> inbox(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @AuthenticationPrincipal Jwt jwt
+    ) {
+        if (jwt == null || !userId.equals(jwt.getSubject())) {
+            throw new ForbiddenException("You can only read your own notifications.");
+        }
+        return ResponseEntity.ok(notificationInbox.page(userId, cursor, limit));
+    }
+
+    @PostMapping("/{userId}/inbox/read")
+    public ResponseEntity<?> markInboxRead(
+            @PathVariable String userId,
+            @AuthenticationPrincipal Jwt jwt
+    ) {
+        if (jwt == null || !userId.equals(jwt.getSubject())) {
+            throw new ForbiddenException("You can only read your own notifications.");
+        }
+        notificationInbox.markAllRead(userId);
+        return ResponseEntity.ok().build();
+    }
+
     @PostMapping("/{userId}/tokens")
     public ResponseEntity<?> addToken(
             @PathVariable String userId,
@@ -35,11 +92,22 @@ public class NotificationController {
     }
 
     @PostMapping("/{userId}/notifications")
-    public void sendNotification(
+    public ResponseEntity<?> sendNotification(
             @PathVariable String userId,
             @RequestBody NotificationRequest notificationRequest
     ) {
         messageService.sendNotificationToUser(userId, notificationRequest);
+        return ResponseEntity.accepted().build();
+    }
+
+    @PostMapping("/notifications")
+    public ResponseEntity<BulkNotificationResult> sendNotifications(
+            @RequestBody BulkNotificationRequest bulkNotificationRequest
+    ) {
+        return ResponseEntity.accepted().body(messageService.sendNotificationToUsers(
+                bulkNotificationRequest.getUserIds(),
+                new NotificationRequest(bulkNotificationRequest.getTitle(), bulkNotificationRequest.getMessage(),
+                        bulkNotificationRequest.getGroupId())));
     }
 
 
@@ -0,0 +1,51 @@
+package com.example.notificationservice.db;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Уведомление, ожидающее объединения в дайджест для пары (пользователь, группа).
+ * Все строки пары отправляются одним сообщением в flush_at.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "notification_buffer", indexes = {
+        @Index(name = "idx_notification_buffer_user_group", columnList = "user_id, group_id"),
+        @Index(name = "idx_notification_buffer_flush_at", columnList = "flush_at")
+})
+public class BufferedNotification {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(name = "title", nullable = false)
+    private String title;
+
+    @Column(name = "message", nullable = false, length = 1000)
+    private String message;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Одинаковое у всех строк пары: окно отсчитывается от первого события
+    @Column(name = "flush_at", nullable = false)
+    private LocalDateTime flushAt;
+
+    public BufferedNotification(String userId, Long groupId, String title, String message, LocalDateTime flushAt) {
+        this.userId = userId;
+        this.groupId = groupId;
+        this.title = title;
+        this.message = message;
+        this.flushAt = flushAt;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.notificationservice.db;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BufferedNotificationRepository extends JpaRepository<BufferedNotification, Long> {
+
+    @Query("SELECT MIN(b.flushAt) FROM BufferedNotification b WHERE b.userId = :userId AND b.groupId = :groupId")
+    LocalDateTime findFlushAt(@Param("userId") String userId, @Param("groupId") Long groupId);
+
+    // SKIP LOCKED: пару сбрасывает только один экземпляр, остальные получат пустой список
+    @Query(value = "SELECT * FROM notification_buffer WHERE user_id = :userId AND group_id = :groupId " +
+            "ORDER BY id FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<BufferedNotification> lockPair(@Param("userId") String userId, @Param("groupId") Long groupId);
+
+    @Query("SELECT b.userId, b.groupId, MIN(b.flushAt) FROM BufferedNotification b " +
+            "WHERE b.flushAt <= :before GROUP BY b.userId, b.groupId")
+    List<Object[]> findPairsDueBefore(@Param("before") LocalDateTime before);
+
+    @Query("SELECT b.userId, b.groupId, MIN(b.flushAt) FROM BufferedNotification b GROUP BY b.userId, b.groupId")
+    List<Object[]> findAllPairs();
+}
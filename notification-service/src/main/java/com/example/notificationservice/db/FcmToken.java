@@ -3,22 +3,42 @@ package com.example.notificationservice.db;
 import com.example.notificationservice.other.User;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.time.LocalDateTime;
 
+/**
+ * Один токен устройства на строку. Раньше токены пользователя хранились массивом в user_fcm_tokens,
+ * перенос выполняет LegacyFcmTokenMigration.
+ */
 @Data
 @Entity
-@Table(name = "user_fcm_tokens")
+@NoArgsConstructor
+@Table(name = "fcm_tokens", indexes = {
+        @Index(name = "idx_fcm_tokens_user", columnList = "user_entity_id"),
+        @Index(name = "idx_fcm_tokens_last_seen", columnList = "last_seen_at")
+})
 public class FcmToken {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "fcm_token")
-    private Set<String> tokens = new HashSet<>();
-
-    @OneToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_entity_id", nullable = false)
     private User user;
-}
\ No newline at end of file
+
+    @Column(name = "token", nullable = false, unique = true)
+    private String token;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Обновляется при каждой регистрации токена приложением; по нему истекают заброшенные устройства
+    @Column(name = "last_seen_at", nullable = false)
+    private LocalDateTime lastSeenAt = createdAt;
+
+    public FcmToken(String userId, String token) {
+        this.user = new User(userId);
+        this.token = token;
+    }
+}
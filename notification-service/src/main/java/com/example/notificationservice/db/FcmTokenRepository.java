@@ -1,11 +1,88 @@
 package com.example.notificationservice.db;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface FcmTokenRepository extends JpaRepository<FcmToken, Long> {
-    Optional<FcmToken> findByUserId(String userId);
-}
\ No newline at end of file
+
+    List<FcmToken> findByUserId(String userId);
+
+    List<FcmToken> findByUserIdIn(Collection<String> userIds);
+
+    // Текущий владелец токена устройства; токен уникален
+    @Query("SELECT t.user.id FROM FcmToken t WHERE t.token = :token")
+    Optional<String> findUserIdByToken(@Param("token") String token);
+
+    // [userId, token] без загрузки сущностей; источник FcmTokenCache
+    @Query("SELECT t.user.id, t.token FROM FcmToken t WHERE t.user.id IN :userIds")
+    List<Object[]> findTokensByUserIdIn(@Param("userIds") Collection<String> userIds);
+
+    // Токен принадлежит последнему зарегистрировавшему его пользователю (смена аккаунта на устройстве)
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO fcm_tokens (user_entity_id, token, created_at, last_seen_at) " +
+            "VALUES (:userId, :token, :now, :now) " +
+            "ON CONFLICT (token) DO UPDATE SET user_entity_id = EXCLUDED.user_entity_id, " +
+            "last_seen_at = EXCLUDED.last_seen_at",
+            nativeQuery = true)
+    void upsert(@Param("userId") String userId,
+                @Param("token") String token,
+                @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM FcmToken t WHERE t.token = :token AND t.user.id = :userId")
+    int deleteByTokenAndUserId(@Param("token") String token, @Param("userId") String userId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM FcmToken t WHERE t.token IN :tokens")
+    int deleteByTokenIn(@Param("tokens") Collection<String> tokens);
+
+    // [userId, token] удаленных строк: их нужно отписать от топиков групп
+    @Transactional
+    @Query(value = "DELETE FROM fcm_tokens WHERE id IN (" +
+            "SELECT id FROM fcm_tokens WHERE last_seen_at < :cutoff ORDER BY id LIMIT :limit) " +
+            "RETURNING user_entity_id, token",
+            nativeQuery = true)
+    List<Object[]> deleteStaleBatch(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    // Перенос из user_fcm_tokens (массив токенов на пользователя); таблица переименовывается, чтобы не переносить повторно
+    // Экземпляры, стартующие одновременно, переносят по очереди
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext('user_fcm_tokens'))", nativeQuery = true)
+    Integer lockLegacyMigration();
+
+    @Query(value = "SELECT to_regclass('user_fcm_tokens') IS NOT NULL", nativeQuery = true)
+    boolean legacyTableExists();
+
+    @Modifying
+    @Query(value = "INSERT INTO fcm_tokens (user_entity_id, token, created_at, last_seen_at) " +
+            "SELECT user_entity_id, unnest(fcm_token), now(), now() FROM user_fcm_tokens " +
+            "ON CONFLICT (token) DO NOTHING",
+            nativeQuery = true)
+    int copyLegacyTokens();
+
+    @Modifying
+    @Query(value = "ALTER TABLE user_fcm_tokens RENAME TO user_fcm_tokens_migrated", nativeQuery = true)
+    void retireLegacyTable();
+
+    // group_members ведет groups-service, база общая
+    @Query(value = "SELECT group_id FROM group_members WHERE user_entity_id = :userId", nativeQuery = true)
+    List<Long> findGroupIdsByUserId(@Param("userId") String userId);
+
+    @Query(value = "SELECT user_entity_id FROM group_members WHERE group_id = :groupId", nativeQuery = true)
+    List<String> findUserIdsByGroupId(@Param("groupId") Long groupId);
+
+    @Query(value = "SELECT group_id, user_entity_id FROM group_members ORDER BY group_id", nativeQuery = true)
+    List<Object[]> findAllGroupMemberships();
+}
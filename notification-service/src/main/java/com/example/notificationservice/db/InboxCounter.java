@@ -0,0 +1,28 @@
+package com.example.notificationservice.db;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Счетчик непрочитанных уведомлений пользователя: читается одной строкой, без подсчета по notification_inbox.
+ * Прочитанность хранится отметкой readBefore, а не флагом у каждого уведомления.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "notification_inbox_counters")
+public class InboxCounter {
+    @Id
+    @Column(name = "user_id")
+    private String userId;
+
+    @Column(name = "unread", nullable = false)
+    private Integer unread = 0;
+
+    // Уведомления, созданные не позже этого времени, считаются прочитанными
+    @Column(name = "read_before")
+    private LocalDateTime readBefore;
+}
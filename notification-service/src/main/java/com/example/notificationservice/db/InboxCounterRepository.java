@@ -0,0 +1,46 @@
+package com.example.notificationservice.db;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface InboxCounterRepository extends JpaRepository<InboxCounter, String> {
+
+    @Modifying
+    @Query(value = "INSERT INTO notification_inbox_counters (user_id, unread) " +
+            "SELECT u, 1 FROM unnest(CAST(:userIds AS text[])) AS u " +
+            "ON CONFLICT (user_id) DO UPDATE SET unread = notification_inbox_counters.unread + 1",
+            nativeQuery = true)
+    int increment(@Param("userIds") String[] userIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO notification_inbox_counters (user_id, unread) " +
+            "SELECT user_entity_id, 1 FROM group_members WHERE group_id = :groupId " +
+            "ON CONFLICT (user_id) DO UPDATE SET unread = notification_inbox_counters.unread + 1",
+            nativeQuery = true)
+    int incrementForGroup(@Param("groupId") Long groupId);
+
+    @Modifying
+    @Query(value = "INSERT INTO notification_inbox_counters (user_id, unread, read_before) " +
+            "VALUES (:userId, 0, :readBefore) " +
+            "ON CONFLICT (user_id) DO UPDATE SET unread = 0, read_before = EXCLUDED.read_before",
+            nativeQuery = true)
+    void markAllRead(@Param("userId") String userId, @Param("readBefore") LocalDateTime readBefore);
+
+    // Уведомления удаляемой секции перестают считаться непрочитанными
+    @Modifying
+    @Query(value = "UPDATE notification_inbox_counters c SET unread = GREATEST(c.unread - d.cnt, 0) " +
+            "FROM (SELECT n.user_id, COUNT(*) AS cnt FROM notification_inbox n " +
+            "      JOIN notification_inbox_counters r ON r.user_id = n.user_id " +
+            "      WHERE n.created_at >= :from AND n.created_at < :to " +
+            "        AND (r.read_before IS NULL OR n.created_at > r.read_before) " +
+            "      GROUP BY n.user_id) d " +
+            "WHERE c.user_id = d.user_id",
+            nativeQuery = true)
+    int subtractUnreadBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,123 @@
+package com.example.notificationservice.db;
+
+import com.example.notificationservice.dto.InboxItem;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * notification_inbox секционирована по месяцам (PARTITION BY RANGE created_at), такую таблицу
+ * Hibernate не создаст, поэтому она без @Entity: схему и секции ведет NotificationInboxPartitions,
+ * запросы — JdbcTemplate.
+ */
+@Repository
+@AllArgsConstructor
+public class NotificationInboxRepository {
+
+    private static final String table = "notification_inbox";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void createTableIfMissing() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + " (" +
+                "id BIGSERIAL NOT NULL, " +
+                "user_id VARCHAR(255) NOT NULL, " +
+                "group_id BIGINT, " +
+                "title VARCHAR(255), " +
+                "message VARCHAR(1000), " +
+                "created_at TIMESTAMP NOT NULL, " +
+                "PRIMARY KEY (created_at, id)" +
+                ") PARTITION BY RANGE (created_at)");
+        // Индекс на родителе создается в каждой секции
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_notification_inbox_user " +
+                "ON " + table + " (user_id, created_at DESC, id DESC)");
+    }
+
+    // Секции создаются несколькими экземплярами одновременно только по очереди
+    public void lockPartitionMaintenance() {
+        jdbcTemplate.queryForObject("SELECT 1 FROM pg_advisory_xact_lock(hashtext('" + table + "'))",
+                Integer.class);
+    }
+
+    public void createMonthPartition(LocalDate month) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month) +
+                " PARTITION OF " + table +
+                " FOR VALUES FROM ('" + month + "') TO ('" + month.plusMonths(1) + "')");
+    }
+
+    public List<String> findPartitionNames() {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "JOIN pg_class p ON p.oid = i.inhparent " +
+                "WHERE p.relname = ?", String.class, table);
+    }
+
+    // Удаление секции целиком — без построчного DELETE и без раздувания таблицы
+    public void dropPartition(String partitionName) {
+        jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partitionName);
+        jdbcTemplate.execute("DROP TABLE " + partitionName);
+    }
+
+    public void insert(List<String> userIds, Long groupId, String title, String message, LocalDateTime now) {
+        jdbcTemplate.update("INSERT INTO " + table + " (user_id, group_id, title, message, created_at) " +
+                        "SELECT u, ?, ?, ?, ? FROM unnest(?::text[]) AS u",
+                ps -> {
+                    ps.setObject(1, groupId);
+                    ps.setString(2, title);
+                    ps.setString(3, message);
+                    ps.setTimestamp(4, Timestamp.valueOf(now));
+                    ps.setArray(5, ps.getConnection().createArrayOf("text", userIds.toArray()));
+                });
+    }
+
+    public int insertForGroup(Long groupId, String title, String message, LocalDateTime now) {
+        return jdbcTemplate.update("INSERT INTO " + table + " (user_id, group_id, title, message, created_at) " +
+                        "SELECT user_entity_id, group_id, ?, ?, ? FROM group_members WHERE group_id = ?",
+                title, message, Timestamp.valueOf(now), groupId);
+    }
+
+    /**
+     * Страница истории от новых к старым. Курсор (createdAt, id) — последний элемент предыдущей страницы,
+     * поэтому страница читается по индексу без OFFSET.
+     */
+    public List<InboxItem> findPage(String userId, LocalDateTime beforeCreatedAt, Long beforeId, int limit) {
+        String keyset = beforeCreatedAt == null ? "" : "AND (created_at, id) < (?, ?) ";
+        Object[] args = beforeCreatedAt == null
+                ? new Object[]{userId, limit}
+                : new Object[]{userId, Timestamp.valueOf(beforeCreatedAt), beforeId, limit};
+        return jdbcTemplate.query("SELECT id, group_id, title, message, created_at FROM " + table + " " +
+                        "WHERE user_id = ? " + keyset +
+                        "ORDER BY created_at DESC, id DESC LIMIT ?",
+                (rs, rowNum) -> InboxItem.builder()
+                        .id(rs.getLong("id"))
+                        .groupId(rs.getObject("group_id", Long.class))
+                        .title(rs.getString("title"))
+                        .message(rs.getString("message"))
+                        .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                        .build(),
+                args);
+    }
+
+    public static String partitionName(LocalDate month) {
+        return String.format("%s_p%04d%02d", table, month.getYear(), month.getMonthValue());
+    }
+
+    // Первый день месяца секции; null — таблица не из наших (например, созданная вручную)
+    public static LocalDate monthOf(String partitionName) {
+        String prefix = table + "_p";
+        if (!partitionName.startsWith(prefix) || partitionName.length() != prefix.length() + 6) {
+            return null;
+        }
+        try {
+            String digits = partitionName.substring(prefix.length());
+            return LocalDate.of(Integer.parseInt(digits.substring(0, 4)), Integer.parseInt(digits.substring(4)), 1);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
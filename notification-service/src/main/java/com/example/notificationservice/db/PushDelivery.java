@@ -0,0 +1,63 @@
+package com.example.notificationservice.db;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Одно сообщение FCM в очереди отправки: на токен устройства или в топик группы.
+ * Отправляет PushDeliveryWorker, успешно отправленные строки удаляются.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "push_deliveries",
+        indexes = @Index(name = "idx_push_deliveries_available", columnList = "available_at"))
+public class PushDelivery {
+
+    public enum TargetType {
+        TOKEN,
+        TOPIC
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target_type", nullable = false, length = 8)
+    private TargetType targetType;
+
+    @Column(name = "target", nullable = false)
+    private String target;
+
+    @Column(name = "title")
+    private String title;
+
+    @Column(name = "message", length = 1000)
+    private String message;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt = createdAt;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    public PushDelivery(TargetType targetType, String target, String title, String message) {
+        this.targetType = targetType;
+        this.target = target;
+        this.title = title;
+        this.message = message;
+    }
+}
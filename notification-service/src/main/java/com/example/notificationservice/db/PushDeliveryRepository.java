@@ -0,0 +1,44 @@
+package com.example.notificationservice.db;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PushDeliveryRepository extends JpaRepository<PushDelivery, Long> {
+
+    // Одна вставка на все токены; сами токены приходят из FcmTokenCache
+    @Modifying
+    @Query(value = "INSERT INTO push_deliveries (target_type, target, title, message, created_at, available_at, attempts) " +
+            "SELECT 'TOKEN', t.token, :title, :message, :now, :now, 0 " +
+            "FROM unnest(CAST(:tokens AS text[])) AS t(token)",
+            nativeQuery = true)
+    int enqueueForTokens(@Param("tokens") String[] tokens,
+                        @Param("title") String title,
+                        @Param("message") String message,
+                        @Param("now") LocalDateTime now);
+
+    // SKIP LOCKED: воркеры разных экземпляров забирают непересекающиеся пачки
+    @Query(value = "SELECT * FROM push_deliveries " +
+            "WHERE available_at <= :now AND (locked_until IS NULL OR locked_until < :now) " +
+            "ORDER BY available_at, id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<PushDelivery> lockNextBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE PushDelivery d SET d.availableAt = :retryAt, d.lockedUntil = null, d.lastError = :error " +
+            "WHERE d.id = :id")
+    void scheduleRetry(@Param("id") Long id,
+                       @Param("retryAt") LocalDateTime retryAt,
+                       @Param("error") String error);
+
+    @Query("SELECT MIN(d.createdAt) FROM PushDelivery d WHERE d.availableAt <= :now")
+    LocalDateTime findOldestReadyCreatedAt(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,28 @@
+package com.example.notificationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkNotificationResult {
+    private int queued; // Сообщений поставлено в очередь отправки, по одному на устройство
+    private boolean coalesced; // Отложено до сброса дайджеста по группе, queued при этом 0
+    private List<UserDelivery> users;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class UserDelivery {
+        private String userId;
+        private int tokens; // 0 — у пользователя нет зарегистрированных устройств
+        private boolean live; // Доставлено по SSE, в FCM не отправлялось
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.notificationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InboxItem {
+    private Long id;
+    private Long groupId;
+    private String title;
+    private String message;
+    private LocalDateTime createdAt;
+    private boolean read;
+}
@@ -0,0 +1,18 @@
+package com.example.notificationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InboxPage {
+    private List<InboxItem> items;
+    private String nextCursor; // null — это последняя страница
+    private int unread;
+}
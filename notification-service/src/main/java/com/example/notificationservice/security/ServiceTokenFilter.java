@@ -0,0 +1,55 @@
+package com.example.notificationservice.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Вызовы других сервисов через service-client: заголовок X-Service-Token с общим секретом
+ * (service-client.service-token) дает полномочие service. Фоновые отправки (outbox) идут без JWT пользователя,
+ * поэтому рассылки и подписки на топики доступны только по этому секрету.
+ * Пустой секрет — доступ по заголовку закрыт.
+ */
+public class ServiceTokenFilter extends OncePerRequestFilter {
+
+    // Тот же заголовок, что ставит ServiceHttpClient из service-client
+    public static final String header = "X-Service-Token";
+
+    public static final String authority = "service";
+
+    static Logger logger = Logger.getLogger(String.valueOf(ServiceTokenFilter.class));
+
+    private final byte[] serviceToken;
+
+    public ServiceTokenFilter(String serviceToken) {
+        if (serviceToken == null || serviceToken.isBlank()) {
+            logger.warning("service-client.service-token is not set, service calls will be rejected");
+        }
+        this.serviceToken = serviceToken == null ? new byte[0] : serviceToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String token = request.getHeader(header);
+        // Сравнение за постоянное время, чтобы секрет нельзя было подобрать по задержке ответа
+        if (token != null && serviceToken.length > 0
+                && MessageDigest.isEqual(serviceToken, token.getBytes(StandardCharsets.UTF_8))) {
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    "service", null, List.of(new SimpleGrantedAuthority(authority))));
+        }
+        filterChain.doFilter(request, response);
+    }
+}
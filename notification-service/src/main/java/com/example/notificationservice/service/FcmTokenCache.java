@@ -0,0 +1,109 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.db.FcmTokenRepository;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Токены устройств по пользователю в памяти: отправка уведомлений не читает fcm_tokens на каждом событии.
+ * Пользователи без устройств тоже кэшируются (пустой список).
+ * saveToken/delToken и удаление мертвых токенов обновляют кэш сразу; изменения, сделанные другими
+ * экземплярами, видны после ttl. Метрики — cache.gets{cache=fcmTokens, result=hit|miss}, cache.size и др.
+ */
+@Component
+public class FcmTokenCache {
+
+    private final FcmTokenRepository fcmTokenRepository;
+
+    private final LoadingCache<String, List<String>> cache;
+
+    public FcmTokenCache(FcmTokenRepository fcmTokenRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${fcm.tokens.cache.max-size:100000}") long maxSize,
+                         @Value("${fcm.tokens.cache.ttl:PT10M}") Duration ttl) {
+        this.fcmTokenRepository = fcmTokenRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public List<String> load(String userId) {
+                        return loadAll(Set.of(userId)).get(userId);
+                    }
+
+                    @Override
+                    public Map<String, List<String>> loadAll(Set<? extends String> userIds) {
+                        return FcmTokenCache.this.loadAll(userIds);
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "fcmTokens");
+    }
+
+    public List<String> tokensOf(String userId) {
+        return cache.get(userId);
+    }
+
+    // Промахи загружаются одним запросом
+    public Map<String, List<String>> tokensOf(Collection<String> userIds) {
+        return cache.getAll(userIds);
+    }
+
+    public void added(String userId, String token) {
+        // Токен мог перейти от другого пользователя (смена аккаунта на устройстве)
+        removed(List.of(token));
+        cache.asMap().computeIfPresent(userId, (id, tokens) -> {
+            List<String> updated = new ArrayList<>(tokens);
+            updated.add(token);
+            return List.copyOf(updated);
+        });
+    }
+
+    public void removed(String userId, String token) {
+        cache.asMap().computeIfPresent(userId, (id, tokens) -> without(tokens, Set.of(token)));
+    }
+
+    // Удаление по токенам без владельца (ответ FCM UNREGISTERED); такие удаления редки, поэтому полный проход
+    public void removed(Collection<String> tokens) {
+        Set<String> removed = Set.copyOf(tokens);
+        // Перезаписываем только затронутые записи, иначе у всех сдвинется срок жизни
+        for (Map.Entry<String, List<String>> entry : cache.asMap().entrySet()) {
+            if (entry.getValue().stream().anyMatch(removed::contains)) {
+                cache.asMap().computeIfPresent(entry.getKey(), (userId, userTokens) -> without(userTokens, removed));
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private Map<String, List<String>> loadAll(Collection<? extends String> userIds) {
+        Map<String, List<String>> tokens = new HashMap<>();
+        for (String userId : userIds) {
+            tokens.put(userId, new ArrayList<>());
+        }
+        for (Object[] row : fcmTokenRepository.findTokensByUserIdIn(List.copyOf(userIds))) {
+            tokens.get((String) row[0]).add((String) row[1]);
+        }
+        tokens.replaceAll((userId, userTokens) -> List.copyOf(userTokens));
+        return tokens;
+    }
+
+    private static List<String> without(List<String> tokens, Set<String> removed) {
+        return tokens.stream().filter(token -> !removed.contains(token)).toList();
+    }
+}
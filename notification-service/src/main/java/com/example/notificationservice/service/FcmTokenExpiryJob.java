@@ -0,0 +1,80 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.db.FcmTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Удаляет токены устройств, которые давно не регистрировались приложением.
+ * Удаление идет пачками, чтобы не держать длинную транзакцию на fcm_tokens.
+ */
+@Component
+public class FcmTokenExpiryJob {
+
+    static Logger logger = Logger.getLogger(String.valueOf(FcmTokenExpiryJob.class));
+
+    private final FcmTokenRepository fcmTokenRepository;
+
+    private final FcmTokenCache fcmTokenCache;
+
+    private final MessageService messageService;
+
+    private final Duration maxAge;
+
+    private final int batchSize;
+
+    public FcmTokenExpiryJob(FcmTokenRepository fcmTokenRepository,
+                             FcmTokenCache fcmTokenCache,
+                             MessageService messageService,
+                             @Value("${fcm.tokens.max-age:P60D}") Duration maxAge,
+                             @Value("${fcm.tokens.expiry-batch-size:1000}") int batchSize) {
+        this.fcmTokenRepository = fcmTokenRepository;
+        this.fcmTokenCache = fcmTokenCache;
+        this.messageService = messageService;
+        this.maxAge = maxAge;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${fcm.tokens.expiry-initial-delay:PT5M}",
+            fixedDelayString = "${fcm.tokens.expiry-interval:PT6H}")
+    public void expireStaleTokens() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(maxAge);
+        int expired = 0;
+        List<Object[]> deleted;
+        do {
+            deleted = fcmTokenRepository.deleteStaleBatch(cutoff, batchSize);
+            expired += deleted.size();
+            unsubscribe(deleted);
+        } while (deleted.size() == batchSize);
+        if (expired > 0) {
+            // Удаленные токены не отследить по пользователям, проще перечитать
+            fcmTokenCache.invalidateAll();
+            logger.info("Expired " + expired + " FCM tokens not seen since " + cutoff);
+        }
+    }
+
+    // Как при удалении токена приложением: иначе топики групп продолжают слать на устройство
+    private void unsubscribe(List<Object[]> deleted) {
+        Map<String, List<String>> tokensByUser = new LinkedHashMap<>();
+        for (Object[] row : deleted) {
+            tokensByUser.computeIfAbsent((String) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        tokensByUser.forEach((userId, tokens) -> {
+            try {
+                messageService.unsubscribeFromGroupTopics(userId, tokens);
+            } catch (IllegalStateException e) {
+                // Токены уже удалены; устаревшие FCM и так скоро перестанет принимать
+                logger.warning("Failed to unsubscribe expired tokens of " + userId + ": " + e.getMessage());
+            }
+        });
+    }
+}
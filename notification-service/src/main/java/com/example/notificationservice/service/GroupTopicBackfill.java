@@ -0,0 +1,24 @@
+package com.example.notificationservice.service;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Разовая подписка уже зарегистрированных устройств на топики их групп.
+ * Включается на один деплой через notification.topics.backfill-on-startup=true.
+ */
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(name = "notification.topics.backfill-on-startup", havingValue = "true")
+public class GroupTopicBackfill implements ApplicationRunner {
+
+    private final MessageService messageService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        messageService.backfillGroupTopics();
+    }
+}
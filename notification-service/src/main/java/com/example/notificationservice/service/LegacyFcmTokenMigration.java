@@ -0,0 +1,35 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.db.FcmTokenRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.logging.Logger;
+
+/**
+ * Переносит токены из user_fcm_tokens (массив на пользователя) в fcm_tokens (строка на токен).
+ * Старая таблица переименовывается в user_fcm_tokens_migrated, поэтому перенос выполняется один раз.
+ */
+@Component
+@AllArgsConstructor
+public class LegacyFcmTokenMigration implements ApplicationRunner {
+
+    static Logger logger = Logger.getLogger(String.valueOf(LegacyFcmTokenMigration.class));
+
+    private final FcmTokenRepository fcmTokenRepository;
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        fcmTokenRepository.lockLegacyMigration();
+        if (!fcmTokenRepository.legacyTableExists()) {
+            return;
+        }
+        int copied = fcmTokenRepository.copyLegacyTokens();
+        fcmTokenRepository.retireLegacyTable();
+        logger.info("Migrated " + copied + " FCM tokens from user_fcm_tokens to fcm_tokens");
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.TestNotificationRequest.NotificationRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Открытые SSE-подключения клиентов этого экземпляра.
+ * Простаивающее подключение — это асинхронный запрос Tomcat без потока, поэтому их держат десятки тысяч.
+ * Запись в сокет идет на небольшом пуле; у каждой сессии своя очередь событий, и сессию,
+ * набравшую max-pending неотправленных событий (медленный клиент), закрываем — клиент переподключится.
+ * Уведомление, которое не удалось записать ни в одну сессию (сессия закрылась раньше, запись упала),
+ * ставится в push_deliveries и уходит через FCM.
+ */
+@Component
+public class LiveSessionRegistry {
+
+    static Logger logger = Logger.getLogger(String.valueOf(LiveSessionRegistry.class));
+
+    private final Map<String, Set<LiveSession>> sessions = new ConcurrentHashMap<>();
+
+    private final AtomicInteger sessionCount = new AtomicInteger();
+
+    private final PushDeliveryQueue pushDeliveryQueue;
+
+    private final ExecutorService sender;
+
+    private final Duration timeout;
+
+    private final int maxSessionsPerUser;
+
+    private final int maxPending;
+
+    private final Counter sent;
+
+    private final Counter evicted;
+
+    private final Counter fallback;
+
+    public LiveSessionRegistry(MeterRegistry meterRegistry, PushDeliveryQueue pushDeliveryQueue,
+                               @Value("${notification.live.send-threads:8}") int sendThreads,
+                               @Value("${notification.live.timeout:PT30M}") Duration timeout,
+                               @Value("${notification.live.max-sessions-per-user:5}") int maxSessionsPerUser,
+                               @Value("${notification.live.max-pending:64}") int maxPending) {
+        this.pushDeliveryQueue = pushDeliveryQueue;
+        this.sender = Executors.newFixedThreadPool(sendThreads);
+        this.timeout = timeout;
+        this.maxSessionsPerUser = maxSessionsPerUser;
+        this.maxPending = maxPending;
+        this.sent = meterRegistry.counter("live.deliveries", "outcome", "sent");
+        this.evicted = meterRegistry.counter("live.deliveries", "outcome", "evicted");
+        this.fallback = meterRegistry.counter("live.deliveries", "outcome", "fallback");
+        Gauge.builder("live.sessions", sessionCount, AtomicInteger::get)
+                .description("Open SSE sessions on this instance")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter connect(String userId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        LiveSession session = new LiveSession(userId, emitter);
+        // Добавление под блокировкой ключа: remove может одновременно удалять опустевший набор
+        Set<LiveSession> userSessions = sessions.compute(userId, (id, current) -> {
+            Set<LiveSession> updated = current == null ? ConcurrentHashMap.newKeySet() : current;
+            updated.add(session);
+            return updated;
+        });
+        sessionCount.incrementAndGet();
+        if (userSessions.size() > maxSessionsPerUser) {
+            // Вкладки/устройства, которые не закрыли подключение: освобождаем место под новое
+            userSessions.stream().filter(other -> other != session).findFirst()
+                    .ifPresent(other -> close(other, null));
+        }
+        emitter.onCompletion(() -> remove(session));
+        emitter.onTimeout(() -> close(session, null));
+        emitter.onError(e -> remove(session));
+        // Первое событие сразу отдает заголовки, клиент видит, что подписка активна
+        session.offer(SseEmitter.event().name("connected").data(userId), null);
+        return emitter;
+    }
+
+    public boolean isConnected(String userId) {
+        Set<LiveSession> userSessions = sessions.get(userId);
+        return userSessions != null && !userSessions.isEmpty();
+    }
+
+    /**
+     * Отдает уведомление во все сессии пользователя. false — живых сессий нет, нужен FCM.
+     * true — уведомление в очереди сессий; если ни одна его не отправит, реестр сам передаст его в FCM.
+     */
+    public boolean deliver(String userId, NotificationRequest request) {
+        Set<LiveSession> userSessions = sessions.get(userId);
+        if (userSessions == null) {
+            return false;
+        }
+        LiveDelivery delivery = new LiveDelivery(userId, request);
+        boolean accepted = false;
+        for (LiveSession session : userSessions) {
+            delivery.remaining.incrementAndGet();
+            if (session.offer(SseEmitter.event().name("notification").data(request), delivery)) {
+                sent.increment();
+                accepted = true;
+            } else {
+                delivery.remaining.decrementAndGet();
+            }
+        }
+        if (!accepted) {
+            return false;
+        }
+        // Сессии могли уже отработать уведомление, пока его раздавали остальным
+        delivery.done(false);
+        return true;
+    }
+
+    // Пользователи, до которых уведомление не дошло вживую
+    public List<String> deliver(Collection<String> userIds, NotificationRequest request) {
+        List<String> offline = new ArrayList<>();
+        for (String userId : userIds) {
+            if (!deliver(userId, request)) {
+                offline.add(userId);
+            }
+        }
+        return offline;
+    }
+
+    // Комментарий держит подключение через прокси и выявляет оборванные сокеты
+    @Scheduled(fixedDelayString = "${notification.live.heartbeat:PT25S}")
+    public void heartbeat() {
+        for (Set<LiveSession> userSessions : sessions.values()) {
+            for (LiveSession session : userSessions) {
+                if (session.pending.get() == 0) {
+                    session.offer(SseEmitter.event().comment("heartbeat"), null);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return sessionCount.get();
+    }
+
+    private void remove(LiveSession session) {
+        if (!session.closed.compareAndSet(false, true)) {
+            return;
+        }
+        sessionCount.decrementAndGet();
+        sessions.computeIfPresent(session.userId, (userId, userSessions) -> {
+            userSessions.remove(session);
+            return userSessions.isEmpty() ? null : userSessions;
+        });
+    }
+
+    private void close(LiveSession session, Throwable error) {
+        remove(session);
+        try {
+            if (error == null) {
+                session.emitter.complete();
+            } else {
+                session.emitter.completeWithError(error);
+            }
+        } catch (IllegalStateException e) {
+            // Ответ уже завершен контейнером
+        }
+    }
+
+    private void fallback(String userId, NotificationRequest request) {
+        fallback.increment();
+        try {
+            pushDeliveryQueue.enqueueForUsers(List.of(userId), request);
+        } catch (RuntimeException e) {
+            logger.warning(String.format("Live notification for user %s lost: %s", userId, e.getMessage()));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sessions.values().forEach(userSessions -> List.copyOf(userSessions).forEach(session -> close(session, null)));
+        sender.shutdown();
+    }
+
+    /**
+     * Уведомление, разданное в сессии пользователя. remaining — сессии, которые его еще не отработали,
+     * плюс единица, пока deliver раздает его; последняя отработавшая передает его в FCM, если никто не отправил.
+     */
+    private class LiveDelivery {
+
+        private final String userId;
+
+        private final NotificationRequest request;
+
+        private final AtomicInteger remaining = new AtomicInteger(1);
+
+        private final AtomicBoolean sent = new AtomicBoolean();
+
+        LiveDelivery(String userId, NotificationRequest request) {
+            this.userId = userId;
+            this.request = request;
+        }
+
+        void done(boolean success) {
+            if (success) {
+                sent.set(true);
+            }
+            if (remaining.decrementAndGet() == 0 && !sent.get()) {
+                fallback(userId, request);
+            }
+        }
+    }
+
+    // delivery — null для служебных событий (connected, heartbeat)
+    private record Pending(SseEmitter.SseEventBuilder event, LiveDelivery delivery) {
+    }
+
+    private class LiveSession {
+
+        private final String userId;
+
+        private final SseEmitter emitter;
+
+        private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger pending = new AtomicInteger();
+
+        // Не больше одной задачи отправки на сессию — события уходят по порядку
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        LiveSession(String userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        boolean offer(SseEmitter.SseEventBuilder event, LiveDelivery delivery) {
+            if (closed.get()) {
+                return false;
+            }
+            if (pending.incrementAndGet() > maxPending) {
+                pending.decrementAndGet();
+                evicted.increment();
+                logger.info("Closing slow SSE session of user " + userId);
+                close(this, null);
+                return false;
+            }
+            queue.add(new Pending(event, delivery));
+            scheduleDrain();
+            return true;
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Pending next;
+                while ((next = queue.poll()) != null) {
+                    boolean written = false;
+                    try {
+                        // Из закрытой сессии события не пишутся, уведомления уходят в FCM
+                        if (!closed.get()) {
+                            emitter.send(next.event());
+                            written = true;
+                        }
+                    } catch (IOException | IllegalStateException e) {
+                        close(this, e);
+                    } finally {
+                        pending.decrementAndGet();
+                        if (next.delivery() != null) {
+                            next.delivery().done(written);
+                        }
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            // Событие могло прийти между последним poll и сбросом флага
+            if (!queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
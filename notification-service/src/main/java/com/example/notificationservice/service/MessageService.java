@@ -3,41 +3,82 @@ package com.example.notificationservice.service;
 import com.example.notificationservice.TestNotificationRequest.NotificationRequest;
 import com.example.notificationservice.db.FcmToken;
 import com.example.notificationservice.db.FcmTokenRepository;
-import com.example.notificationservice.other.User;
-import com.google.firebase.messaging.*;
+import com.example.notificationservice.dto.BulkNotificationResult;
+import com.example.notificationservice.transport.PushTransport;
+import com.example.notificationservice.transport.PushTransportException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
 
 @Service
 
 public class MessageService {
 
+    static Logger logger = Logger.getLogger(String.valueOf(MessageService.class));
+
+    public static final int maxRecipients = 1000;
+
+    private static final int maxTopicTokens = 1000;
+
     private final FcmTokenRepository fcmTokenRepository;
 
-    private final FirebaseMessaging firebaseMessaging;
+    private final PushTransport pushTransport;
+
+    private final PushDeliveryQueue pushDeliveryQueue;
+
+    private final NotificationCoalescer notificationCoalescer;
+
+    private final FcmTokenCache fcmTokenCache;
+
+    private final LiveSessionRegistry liveSessionRegistry;
+
+    private final NotificationInbox notificationInbox;
 
     @Autowired
-    public MessageService(FcmTokenRepository fcmTokenRepository, FirebaseMessaging firebaseMessaging) {
+    public MessageService(FcmTokenRepository fcmTokenRepository, PushTransport pushTransport,
+                          PushDeliveryQueue pushDeliveryQueue, NotificationCoalescer notificationCoalescer,
+                          FcmTokenCache fcmTokenCache, LiveSessionRegistry liveSessionRegistry,
+                          NotificationInbox notificationInbox) {
         this.fcmTokenRepository = fcmTokenRepository;
-        this.firebaseMessaging = firebaseMessaging;
+        this.pushTransport = pushTransport;
+        this.pushDeliveryQueue = pushDeliveryQueue;
+        this.notificationCoalescer = notificationCoalescer;
+        this.fcmTokenCache = fcmTokenCache;
+        this.liveSessionRegistry = liveSessionRegistry;
+        this.notificationInbox = notificationInbox;
     }
 
     public void saveToken(String userId, String token) {
         if (token.length() > 255){
             throw new IllegalArgumentException("Не тот token");
         }
-        var fcmTokenOptional = fcmTokenRepository.findByUserId(userId);
-        FcmToken fcmToken;
-        if (fcmTokenOptional.isEmpty()) {
-            fcmToken = new FcmToken();
-            fcmToken.setUser(new User(userId));
+        String previousOwner = fcmTokenRepository.findUserIdByToken(token).orElse(null);
+        // Повторная регистрация только продлевает last_seen_at
+        fcmTokenRepository.upsert(userId, token, LocalDateTime.now());
+        if (userId.equals(previousOwner)) {
+            return;
         }
-        else {
-            fcmToken = fcmTokenOptional.get();
+        fcmTokenCache.added(userId, token);
+        // Новое устройство должно получать рассылки всех групп пользователя
+        List<Long> groupIds = fcmTokenRepository.findGroupIdsByUserId(userId);
+        for (Long groupId : groupIds) {
+            manageTopic(List.of(token), groupTopic(groupId), true);
         }
-        if (fcmToken.getTokens().add(token)) {
-            fcmTokenRepository.save(fcmToken);
+        if (previousOwner != null) {
+            // Устройство сменило аккаунт: рассылки групп прежнего владельца на него больше не приходят
+            fcmTokenCache.removed(previousOwner, token);
+            for (Long groupId : fcmTokenRepository.findGroupIdsByUserId(previousOwner)) {
+                if (!groupIds.contains(groupId)) {
+                    manageTopic(List.of(token), groupTopic(groupId), false);
+                }
+            }
         }
     }
 
@@ -45,42 +86,153 @@ public class MessageService {
         if (token.length() > 255){
             throw new IllegalArgumentException("Не тот token");
         }
-        var fcmTokenOptional = fcmTokenRepository.findByUserId(userId);
-
-        if (fcmTokenOptional.isEmpty()) {
-            return;
+        if (fcmTokenRepository.deleteByTokenAndUserId(token, userId) > 0) {
+            fcmTokenCache.removed(userId, token);
+            unsubscribeFromGroupTopics(userId, List.of(token));
         }
-        var fcmToken = fcmTokenOptional.get();
-
+    }
 
-        if (fcmToken.getTokens().remove(token)) {
-            fcmTokenRepository.save(fcmToken);
+    // Удаленные токены пользователя больше не должны получать рассылки его групп
+    public void unsubscribeFromGroupTopics(String userId, List<String> tokens) {
+        for (Long groupId : fcmTokenRepository.findGroupIdsByUserId(userId)) {
+            manageTopic(tokens, groupTopic(groupId), false);
         }
     }
 
 
     public void sendNotificationToUser(String userId, NotificationRequest request) {
-        var fcmTokenOptional = fcmTokenRepository.findByUserId(userId);
-        FcmToken fcmTokens;
-        if (fcmTokenOptional.isEmpty() || fcmTokenOptional.get().getTokens().isEmpty()) {
+        notificationInbox.record(List.of(userId), request);
+        // Открытое приложение получает уведомление по SSE, FCM не нужен
+        if (liveSessionRegistry.deliver(userId, request)) {
             return;
         }
-        else {
-            fcmTokens = fcmTokenOptional.get();
+        if (coalesces(request)) {
+            notificationCoalescer.offer(List.of(userId), request.getGroupId(), request);
+            return;
         }
+        pushDeliveryQueue.enqueueForUsers(List.of(userId), request);
+    }
 
-        for (String token : fcmTokens.getTokens()) {
-            var message = Message.builder()
-                    .setToken(token)
-                    .setNotification(Notification.builder()
-                            .setTitle(request.getTitle())
-                            .setBody(request.getMessage())
-                            .build())
+    /**
+     * Отдает уведомление по SSE подключенным пользователям, остальным ставит в очередь push_deliveries,
+     * по сообщению на устройство. Токены берутся из FcmTokenCache; отправку выполняет PushDeliveryWorker.
+     * Уведомления по группе сначала копятся в NotificationCoalescer и уходят дайджестом.
+     */
+    public BulkNotificationResult sendNotificationToUsers(List<String> userIds, NotificationRequest request) {
+        if (userIds == null || userIds.isEmpty()) {
+            throw new IllegalArgumentException("userIds must not be empty");
+        }
+        if (userIds.size() > maxRecipients) {
+            throw new IllegalArgumentException("No more than " + maxRecipients + " recipients per request");
+        }
+
+        Map<String, BulkNotificationResult.UserDelivery> deliveries = new LinkedHashMap<>();
+        for (String userId : userIds) {
+            deliveries.computeIfAbsent(userId, id -> BulkNotificationResult.UserDelivery.builder()
+                    .userId(id)
+                    .build());
+        }
+        // В историю попадает каждое уведомление, а не дайджест, которым оно уйдет в FCM
+        notificationInbox.record(deliveries.keySet(), request);
+        fcmTokenCache.tokensOf(deliveries.keySet())
+                .forEach((userId, tokens) -> deliveries.get(userId).setTokens(tokens.size()));
+
+        List<String> offline = liveSessionRegistry.deliver(deliveries.keySet(), request);
+        deliveries.values().forEach(delivery -> delivery.setLive(!offline.contains(delivery.getUserId())));
+        if (offline.isEmpty()) {
+            return BulkNotificationResult.builder()
+                    .users(new ArrayList<>(deliveries.values()))
                     .build();
+        }
+
+        if (coalesces(request)) {
+            notificationCoalescer.offer(offline, request.getGroupId(), request);
+            return BulkNotificationResult.builder()
+                    .coalesced(true)
+                    .users(new ArrayList<>(deliveries.values()))
+                    .build();
+        }
+
+        int queued = pushDeliveryQueue.enqueueForUsers(offline, request);
+
+        return BulkNotificationResult.builder()
+                .queued(queued)
+                .users(new ArrayList<>(deliveries.values()))
+                .build();
+    }
+
+    private boolean coalesces(NotificationRequest request) {
+        return request.getGroupId() != null && notificationCoalescer.isEnabled();
+    }
+
+    public static String groupTopic(Long groupId) {
+        return "group-" + groupId;
+    }
+
+    public void subscribeToGroup(Long groupId, String userId) {
+        manageTopic(fcmTokenCache.tokensOf(userId), groupTopic(groupId), true);
+    }
+
+    public void unsubscribeFromGroup(Long groupId, String userId) {
+        manageTopic(fcmTokenCache.tokensOf(userId), groupTopic(groupId), false);
+    }
+
+    /**
+     * Рассылка всем участникам группы одним сообщением FCM в топик group-{id}.
+     * Топик нельзя отправить «всем, кроме», поэтому если кто-то из участников подключен,
+     * он получает уведомление по SSE, а остальные — по своим токенам, без топика.
+     */
+    public void sendNotificationToGroup(Long groupId, NotificationRequest request) {
+        notificationInbox.recordForGroup(groupId, request);
+        if (liveSessionRegistry.size() > 0) {
+            List<String> members = fcmTokenRepository.findUserIdsByGroupId(groupId);
+            if (members.stream().anyMatch(liveSessionRegistry::isConnected)) {
+                List<String> offline = liveSessionRegistry.deliver(members, request);
+                if (!offline.isEmpty()) {
+                    pushDeliveryQueue.enqueueForUsers(offline, request);
+                }
+                return;
+            }
+        }
+        pushDeliveryQueue.enqueueForTopic(groupTopic(groupId), request);
+    }
+
+    /**
+     * Подписывает на топики групп устройства, зарегистрированные до появления топиков.
+     * Один вызов FCM на группу.
+     */
+    public void backfillGroupTopics() {
+        Map<Long, List<String>> membersByGroup = new LinkedHashMap<>();
+        for (Object[] row : fcmTokenRepository.findAllGroupMemberships()) {
+            membersByGroup.computeIfAbsent(((Number) row[0]).longValue(), id -> new ArrayList<>())
+                    .add((String) row[1]);
+        }
+        membersByGroup.forEach((groupId, userIds) -> {
+            List<String> tokens = fcmTokenRepository.findByUserIdIn(userIds).stream()
+                    .map(FcmToken::getToken)
+                    .toList();
+            try {
+                manageTopic(tokens, groupTopic(groupId), true);
+            } catch (IllegalStateException e) {
+                logger.warning(e.getMessage());
+            }
+        });
+    }
 
+    private void manageTopic(List<String> tokens, String topic, boolean subscribe) {
+        // FCM принимает не больше 1000 токенов за вызов
+        for (int from = 0; from < tokens.size(); from += maxTopicTokens) {
+            List<String> chunk = tokens.subList(from, Math.min(from + maxTopicTokens, tokens.size()));
             try {
-                FirebaseMessaging.getInstance().send(message);
-            } catch (FirebaseMessagingException e) {
+                int failures = subscribe
+                        ? pushTransport.subscribeToTopic(chunk, topic)
+                        : pushTransport.unsubscribeFromTopic(chunk, topic);
+                if (failures > 0) {
+                    logger.warning(String.format("%d of %d tokens failed to %s %s", failures,
+                            chunk.size(), subscribe ? "subscribe to" : "unsubscribe from", topic));
+                }
+            } catch (PushTransportException e) {
+                throw new IllegalStateException("FCM topic management for " + topic + " failed: " + e.getMessage());
             }
         }
     }
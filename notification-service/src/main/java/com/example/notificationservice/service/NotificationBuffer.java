@@ -0,0 +1,112 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.TestNotificationRequest.NotificationRequest;
+import com.example.notificationservice.db.BufferedNotification;
+import com.example.notificationservice.db.BufferedNotificationRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Хранимый буфер уведомлений для объединения в дайджесты (таблица notification_buffer).
+ * Пережидает рестарт: после запуска NotificationCoalescer заново планирует все пары из таблицы.
+ */
+@Service
+@AllArgsConstructor
+public class NotificationBuffer {
+
+    // Сколько разных сообщений перечислять в дайджесте, остальные — одной строкой
+    static final int maxDigestLines = 5;
+
+    private final BufferedNotificationRepository bufferedNotificationRepository;
+
+    private final PushDeliveryQueue pushDeliveryQueue;
+
+    private final LiveSessionRegistry liveSessionRegistry;
+
+    /**
+     * Добавляет уведомление в буфер каждого получателя и возвращает время сброса по получателям.
+     */
+    @Transactional
+    public Map<String, LocalDateTime> add(Collection<String> userIds, Long groupId, NotificationRequest request,
+                                          Duration window) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, LocalDateTime> flushTimes = new LinkedHashMap<>();
+        for (String userId : userIds) {
+            LocalDateTime flushAt = bufferedNotificationRepository.findFlushAt(userId, groupId);
+            if (flushAt == null) {
+                flushAt = now.plus(window);
+            }
+            bufferedNotificationRepository.save(new BufferedNotification(userId, groupId,
+                    request.getTitle(), request.getMessage(), flushAt));
+            flushTimes.put(userId, flushAt);
+        }
+        return flushTimes;
+    }
+
+    /**
+     * Сбрасывает буфер пары одним сообщением в очередь отправки. false — пару уже сбросили.
+     */
+    @Transactional
+    public boolean flush(String userId, Long groupId) {
+        List<BufferedNotification> rows = bufferedNotificationRepository.lockPair(userId, groupId);
+        if (rows.isEmpty()) {
+            return false;
+        }
+        bufferedNotificationRepository.deleteAllInBatch(rows);
+        NotificationRequest digest = digest(rows);
+        if (!liveSessionRegistry.deliver(userId, digest)) {
+            pushDeliveryQueue.enqueueForUsers(List.of(userId), digest);
+        }
+        return true;
+    }
+
+    // [userId, groupId, flushAt] для пар со сбросом не позже before
+    public List<Object[]> findPairsDueBefore(LocalDateTime before) {
+        return bufferedNotificationRepository.findPairsDueBefore(before);
+    }
+
+    // [userId, groupId, flushAt] для всех пар в буфере
+    public List<Object[]> findAllPairs() {
+        return bufferedNotificationRepository.findAllPairs();
+    }
+
+    public static NotificationRequest digest(List<BufferedNotification> rows) {
+        if (rows.size() == 1) {
+            return new NotificationRequest(rows.get(0).getTitle(), rows.get(0).getMessage());
+        }
+        Set<String> titles = new LinkedHashSet<>();
+        Set<String> messages = new LinkedHashSet<>();
+        for (BufferedNotification row : rows) {
+            titles.add(row.getTitle());
+            messages.add(row.getMessage());
+        }
+        String title = (titles.size() == 1 ? titles.iterator().next() : "Обновления в группе")
+                + " (" + rows.size() + ")";
+
+        StringBuilder message = new StringBuilder();
+        int lines = 0;
+        for (String line : messages) {
+            if (lines == maxDigestLines) {
+                message.append("\nи еще ").append(messages.size() - maxDigestLines);
+                break;
+            }
+            if (lines > 0) {
+                message.append('\n');
+            }
+            message.append(line);
+            lines++;
+        }
+        return new NotificationRequest(title, message.length() > 1000 ? message.substring(0, 1000)
+                : message.toString());
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.TestNotificationRequest.NotificationRequest;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Объединяет уведомления пользователю по одной группе, пришедшие в течение окна, в одно сообщение.
+ * Сроки сброса держит TimingWheel в памяти, сами уведомления — NotificationBuffer в базе:
+ * после рестарта пары планируются заново, а пары упавшего экземпляра подбирает sweep.
+ */
+@Component
+public class NotificationCoalescer {
+
+    static Logger logger = Logger.getLogger(String.valueOf(NotificationCoalescer.class));
+
+    record PairKey(String userId, Long groupId) {
+    }
+
+    private final NotificationBuffer notificationBuffer;
+
+    private final Duration window;
+
+    private final Duration sweepGrace;
+
+    private final TimingWheel<PairKey> wheel;
+
+    private final ExecutorService flushExecutor;
+
+    // Пары, уже стоящие в колесе этого экземпляра
+    private final Set<PairKey> scheduled = ConcurrentHashMap.newKeySet();
+
+    public NotificationCoalescer(NotificationBuffer notificationBuffer,
+                                 @Value("${notification.coalesce.window:PT20S}") Duration window,
+                                 @Value("${notification.coalesce.tick:PT1S}") Duration tick,
+                                 @Value("${notification.coalesce.wheel-size:512}") int wheelSize,
+                                 @Value("${notification.coalesce.sweep-grace:PT1M}") Duration sweepGrace) {
+        this.notificationBuffer = notificationBuffer;
+        this.window = window;
+        this.sweepGrace = sweepGrace;
+        // Сброс пишет в базу, поэтому не в потоке колеса
+        this.flushExecutor = Executors.newFixedThreadPool(2);
+        this.wheel = new TimingWheel<>(tick, wheelSize,
+                key -> flushExecutor.execute(() -> flush(key)), System.currentTimeMillis());
+    }
+
+    public boolean isEnabled() {
+        return !window.isZero() && !window.isNegative();
+    }
+
+    public void offer(Collection<String> userIds, Long groupId, NotificationRequest request) {
+        notificationBuffer.add(userIds, groupId, request, window)
+                .forEach((userId, flushAt) -> schedule(new PairKey(userId, groupId), flushAt));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        if (!isEnabled()) {
+            return;
+        }
+        wheel.start();
+        var pairs = notificationBuffer.findAllPairs();
+        for (Object[] pair : pairs) {
+            schedule(new PairKey((String) pair[0], ((Number) pair[1]).longValue()), (LocalDateTime) pair[2]);
+        }
+        if (!pairs.isEmpty()) {
+            logger.info("Rescheduled " + pairs.size() + " buffered notification digests");
+        }
+    }
+
+    // Пары, чей срок прошел с запасом, но которые никто не сбросил (экземпляр упал до сброса)
+    @Scheduled(fixedDelayString = "${notification.coalesce.sweep-interval:PT1M}")
+    public void sweep() {
+        if (!isEnabled()) {
+            return;
+        }
+        for (Object[] pair : notificationBuffer.findPairsDueBefore(LocalDateTime.now().minus(sweepGrace))) {
+            flush(new PairKey((String) pair[0], ((Number) pair[1]).longValue()));
+        }
+    }
+
+    private void schedule(PairKey key, LocalDateTime flushAt) {
+        if (scheduled.add(key)) {
+            wheel.schedule(key, flushAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+
+    void flush(PairKey key) {
+        scheduled.remove(key);
+        try {
+            notificationBuffer.flush(key.userId(), key.groupId());
+        } catch (RuntimeException e) {
+            // Строки остались в буфере, их подберет sweep
+            logger.warning("Digest flush failed for " + key + ": " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        wheel.close();
+        flushExecutor.shutdown();
+    }
+}
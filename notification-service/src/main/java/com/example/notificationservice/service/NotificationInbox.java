@@ -0,0 +1,92 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.TestNotificationRequest.NotificationRequest;
+import com.example.notificationservice.db.InboxCounter;
+import com.example.notificationservice.db.InboxCounterRepository;
+import com.example.notificationservice.db.NotificationInboxRepository;
+import com.example.notificationservice.dto.InboxItem;
+import com.example.notificationservice.dto.InboxPage;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * История уведомлений пользователя и счетчик непрочитанных.
+ * Каждое уведомление сохраняется до маршрутизации (SSE, дайджест, FCM), поэтому история полная.
+ */
+@Service
+@AllArgsConstructor
+public class NotificationInbox {
+
+    public static final int maxPageSize = 100;
+
+    private final NotificationInboxRepository notificationInboxRepository;
+
+    private final InboxCounterRepository inboxCounterRepository;
+
+    @Transactional
+    public void record(Collection<String> userIds, NotificationRequest request) {
+        List<String> recipients = List.copyOf(new LinkedHashSet<>(userIds));
+        if (recipients.isEmpty()) {
+            return;
+        }
+        notificationInboxRepository.insert(recipients, request.getGroupId(), request.getTitle(),
+                request.getMessage(), LocalDateTime.now());
+        inboxCounterRepository.increment(recipients.toArray(String[]::new));
+    }
+
+    // Участники берутся из group_members прямо в запросе
+    @Transactional
+    public void recordForGroup(Long groupId, NotificationRequest request) {
+        notificationInboxRepository.insertForGroup(groupId, request.getTitle(), request.getMessage(),
+                LocalDateTime.now());
+        inboxCounterRepository.incrementForGroup(groupId);
+    }
+
+    public InboxPage page(String userId, String cursor, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        LocalDateTime beforeCreatedAt = null;
+        Long beforeId = null;
+        if (cursor != null) {
+            int separator = cursor.lastIndexOf('_');
+            try {
+                beforeCreatedAt = LocalDateTime.parse(cursor.substring(0, separator));
+                beforeId = Long.parseLong(cursor.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+
+        InboxCounter counter = inboxCounterRepository.findById(userId).orElseGet(InboxCounter::new);
+        List<InboxItem> items = notificationInboxRepository.findPage(userId, beforeCreatedAt, beforeId, limit);
+        for (InboxItem item : items) {
+            item.setRead(counter.getReadBefore() != null && !item.getCreatedAt().isAfter(counter.getReadBefore()));
+        }
+        InboxItem last = items.isEmpty() ? null : items.get(items.size() - 1);
+        return InboxPage.builder()
+                .items(items)
+                .nextCursor(items.size() < limit ? null : cursor(last))
+                .unread(counter.getUnread())
+                .build();
+    }
+
+    public int unread(String userId) {
+        return inboxCounterRepository.findById(userId).map(InboxCounter::getUnread).orElse(0);
+    }
+
+    @Transactional
+    public void markAllRead(String userId) {
+        inboxCounterRepository.markAllRead(userId, LocalDateTime.now());
+    }
+
+    static String cursor(InboxItem item) {
+        return item.getCreatedAt() + "_" + item.getId();
+    }
+}
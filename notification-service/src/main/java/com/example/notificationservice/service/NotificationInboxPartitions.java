@@ -0,0 +1,73 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.db.InboxCounterRepository;
+import com.example.notificationservice.db.NotificationInboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.logging.Logger;
+
+/**
+ * Месячные секции notification_inbox: создает таблицу и секции на months-ahead месяцев вперед,
+ * удаляет секции старше retention целиком (DETACH + DROP вместо DELETE по строкам).
+ */
+@Component
+public class NotificationInboxPartitions implements ApplicationRunner {
+
+    static Logger logger = Logger.getLogger(String.valueOf(NotificationInboxPartitions.class));
+
+    private final NotificationInboxRepository notificationInboxRepository;
+
+    private final InboxCounterRepository inboxCounterRepository;
+
+    private final Period retention;
+
+    private final int monthsAhead;
+
+    public NotificationInboxPartitions(NotificationInboxRepository notificationInboxRepository,
+                                       InboxCounterRepository inboxCounterRepository,
+                                       @Value("${notification.inbox.retention:P6M}") Period retention,
+                                       @Value("${notification.inbox.months-ahead:2}") int monthsAhead) {
+        this.notificationInboxRepository = notificationInboxRepository;
+        this.inboxCounterRepository = inboxCounterRepository;
+        this.retention = retention;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        notificationInboxRepository.lockPartitionMaintenance();
+        notificationInboxRepository.createTableIfMissing();
+        maintain();
+    }
+
+    @Scheduled(initialDelayString = "${notification.inbox.maintenance-interval:PT12H}",
+            fixedDelayString = "${notification.inbox.maintenance-interval:PT12H}")
+    @Transactional
+    public void maintain() {
+        notificationInboxRepository.lockPartitionMaintenance();
+        LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+        for (int i = 0; i <= monthsAhead; i++) {
+            notificationInboxRepository.createMonthPartition(currentMonth.plusMonths(i));
+        }
+
+        // Секция удаляется, когда в ней не осталось уведомлений моложе retention
+        LocalDate cutoff = LocalDate.now().minus(retention);
+        for (String partition : notificationInboxRepository.findPartitionNames()) {
+            LocalDate month = NotificationInboxRepository.monthOf(partition);
+            if (month == null || month.plusMonths(1).isAfter(cutoff)) {
+                continue;
+            }
+            inboxCounterRepository.subtractUnreadBetween(month.atStartOfDay(), month.plusMonths(1).atStartOfDay());
+            notificationInboxRepository.dropPartition(partition);
+            logger.info("Dropped notification inbox partition " + partition);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.TestNotificationRequest.NotificationRequest;
+import com.example.notificationservice.db.PushDelivery;
+import com.example.notificationservice.db.PushDeliveryRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Очередь push_deliveries: постановка сообщений и выдача пачек воркерам.
+ */
+@Service
+@AllArgsConstructor
+public class PushDeliveryQueue {
+
+    private final PushDeliveryRepository pushDeliveryRepository;
+
+    private final FcmTokenCache fcmTokenCache;
+
+    // Возвращает число поставленных сообщений (по одному на токен устройства)
+    @Transactional
+    public int enqueueForUsers(Collection<String> userIds, NotificationRequest request) {
+        String[] tokens = fcmTokenCache.tokensOf(userIds).values().stream()
+                .flatMap(List::stream)
+                .toArray(String[]::new);
+        if (tokens.length == 0) {
+            return 0;
+        }
+        return pushDeliveryRepository.enqueueForTokens(tokens, request.getTitle(), request.getMessage(),
+                LocalDateTime.now());
+    }
+
+    public void enqueueForTopic(String topic, NotificationRequest request) {
+        pushDeliveryRepository.save(new PushDelivery(PushDelivery.TargetType.TOPIC, topic,
+                request.getTitle(), request.getMessage()));
+    }
+
+    /**
+     * Забирает пачку готовых к отправке сообщений и продлевает на них аренду.
+     * Если экземпляр упадет во время отправки, после lease строки заберет другой.
+     */
+    @Transactional
+    public List<PushDelivery> claimBatch(int batchSize, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PushDelivery> batch = pushDeliveryRepository.lockNextBatch(now, batchSize);
+        LocalDateTime lockedUntil = now.plus(lease);
+        for (PushDelivery delivery : batch) {
+            delivery.setLockedUntil(lockedUntil);
+            delivery.setAttempts(delivery.getAttempts() + 1);
+        }
+        return batch;
+    }
+
+    public void complete(List<PushDelivery> deliveries) {
+        if (!deliveries.isEmpty()) {
+            pushDeliveryRepository.deleteAllByIdInBatch(deliveries.stream().map(PushDelivery::getId).toList());
+        }
+    }
+
+    public void scheduleRetry(PushDelivery delivery, Duration delay, String error) {
+        pushDeliveryRepository.scheduleRetry(delivery.getId(), LocalDateTime.now().plus(delay),
+                error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+    }
+
+    public long depth() {
+        return pushDeliveryRepository.count();
+    }
+
+    // Сколько ждет самое старое готовое к отправке сообщение
+    public Duration lag() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime oldest = pushDeliveryRepository.findOldestReadyCreatedAt(now);
+        return oldest == null ? Duration.ZERO : Duration.between(oldest, now);
+    }
+}
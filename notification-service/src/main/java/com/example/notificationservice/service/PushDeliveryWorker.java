@@ -0,0 +1,262 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.db.FcmTokenRepository;
+import com.example.notificationservice.db.PushDelivery;
+import com.example.notificationservice.transport.PushTransport;
+import com.example.notificationservice.transport.PushTransportException;
+import com.google.firebase.messaging.MessagingErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Отправка сообщений из push_deliveries через PushTransport (FCM или заглушку профиля loadtest).
+ * Пачка делится на вызовы sendEach по 500 токенов, которые идут параллельно на пуле воркеров;
+ * общий PushRateLimiter сглаживает всплески групповых событий до push.rate-per-second.
+ * Временные ошибки FCM повторяются с экспоненциальной задержкой и джиттером,
+ * отклоненные токены удаляются из fcm_tokens.
+ */
+@Component
+public class PushDeliveryWorker {
+
+    static Logger logger = Logger.getLogger(String.valueOf(PushDeliveryWorker.class));
+
+    // Ограничение FCM на число сообщений в одном вызове sendEach
+    static final int fcmBatchSize = 500;
+
+    private static final Set<MessagingErrorCode> transientErrors = EnumSet.of(
+            MessagingErrorCode.UNAVAILABLE, MessagingErrorCode.INTERNAL, MessagingErrorCode.QUOTA_EXCEEDED);
+
+    private final PushDeliveryQueue pushDeliveryQueue;
+
+    private final FcmTokenRepository fcmTokenRepository;
+
+    private final FcmTokenCache fcmTokenCache;
+
+    private final PushTransport pushTransport;
+
+    private final PushRateLimiter rateLimiter;
+
+    private final ExecutorService executor;
+
+    private final int batchSize;
+
+    private final Duration lease;
+
+    private final int maxAttempts;
+
+    private final Duration backoffBase;
+
+    private final Duration backoffMax;
+
+    private final Counter sent;
+
+    private final Counter retried;
+
+    private final Counter dropped;
+
+    private final Counter pruned;
+
+    // От постановки в очередь до успешной отправки
+    private final Timer deliveryLatency;
+
+    private final AtomicLong queueDepth = new AtomicLong();
+
+    private final AtomicLong queueLagMillis = new AtomicLong();
+
+    public PushDeliveryWorker(PushDeliveryQueue pushDeliveryQueue,
+                              FcmTokenRepository fcmTokenRepository,
+                              FcmTokenCache fcmTokenCache,
+                              PushTransport pushTransport,
+                              MeterRegistry meterRegistry,
+                              @Value("${push.threads:4}") int threads,
+                              @Value("${push.batch-size:1000}") int batchSize,
+                              @Value("${push.lease:PT1M}") Duration lease,
+                              @Value("${push.max-attempts:10}") int maxAttempts,
+                              @Value("${push.rate-per-second:500}") double ratePerSecond,
+                              @Value("${push.rate-burst:1000}") double rateBurst,
+                              @Value("${push.backoff-base:PT2S}") Duration backoffBase,
+                              @Value("${push.backoff-max:PT15M}") Duration backoffMax) {
+        this.pushDeliveryQueue = pushDeliveryQueue;
+        this.fcmTokenRepository = fcmTokenRepository;
+        this.fcmTokenCache = fcmTokenCache;
+        this.pushTransport = pushTransport;
+        this.rateLimiter = new PushRateLimiter(ratePerSecond, rateBurst);
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.backoffBase = backoffBase;
+        this.backoffMax = backoffMax;
+        this.sent = meterRegistry.counter("push.deliveries", "outcome", "sent");
+        this.retried = meterRegistry.counter("push.deliveries", "outcome", "retried");
+        this.dropped = meterRegistry.counter("push.deliveries", "outcome", "dropped");
+        this.pruned = meterRegistry.counter("push.deliveries", "outcome", "pruned");
+        this.deliveryLatency = Timer.builder("push.delivery.latency")
+                .description("Time from enqueue to successful send")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("push.queue.depth", queueDepth, AtomicLong::get)
+                .description("Messages waiting in push_deliveries")
+                .register(meterRegistry);
+        Gauge.builder("push.queue.lag", queueLagMillis, lag -> lag.get() / 1000.0)
+                .description("Age of the oldest message ready to send")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${push.poll-interval:PT1S}")
+    public void drain() {
+        List<PushDelivery> batch;
+        // Полная пачка — значит, в очереди есть еще, забираем следующую без ожидания
+        do {
+            batch = pushDeliveryQueue.claimBatch(batchSize, lease);
+            List<PushDelivery> tokenDeliveries = new ArrayList<>();
+            List<CompletableFuture<Void>> tasks = new ArrayList<>();
+            for (PushDelivery delivery : batch) {
+                if (delivery.getTargetType() == PushDelivery.TargetType.TOPIC) {
+                    tasks.add(CompletableFuture.runAsync(() -> sendToTopic(delivery), executor));
+                } else {
+                    tokenDeliveries.add(delivery);
+                }
+            }
+            for (int from = 0; from < tokenDeliveries.size(); from += fcmBatchSize) {
+                List<PushDelivery> chunk = tokenDeliveries.subList(from,
+                        Math.min(from + fcmBatchSize, tokenDeliveries.size()));
+                tasks.add(CompletableFuture.runAsync(() -> sendToTokens(chunk), executor));
+            }
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+        } while (batch.size() == batchSize);
+    }
+
+    // Глубина и задержка очереди для метрик; отдельно от drain, чтобы не считать их на каждой пачке
+    @Scheduled(fixedDelayString = "${push.metrics-interval:PT15S}")
+    public void refreshQueueStats() {
+        queueDepth.set(pushDeliveryQueue.depth());
+        queueLagMillis.set(pushDeliveryQueue.lag().toMillis());
+    }
+
+    private void sendToTokens(List<PushDelivery> chunk) {
+        if (!acquire(chunk.size())) {
+            return;
+        }
+        List<PushTransport.Result> results;
+        try {
+            results = pushTransport.sendEach(chunk);
+        } catch (PushTransportException e) {
+            chunk.forEach(delivery -> retryOrDrop(delivery, e.getErrorCode(), e.getMessage()));
+            return;
+        }
+
+        // INVALID_ARGUMENT у всей пачки указывает на payload, а не на токены
+        boolean payloadRejected = results.stream().allMatch(r -> !r.successful()
+                && r.errorCode() == MessagingErrorCode.INVALID_ARGUMENT);
+
+        List<PushDelivery> done = new ArrayList<>();
+        List<String> deadTokens = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            PushDelivery delivery = chunk.get(i);
+            PushTransport.Result result = results.get(i);
+            if (result.successful()) {
+                done.add(delivery);
+                delivered(delivery);
+                continue;
+            }
+            MessagingErrorCode code = result.errorCode();
+            if (code == MessagingErrorCode.UNREGISTERED
+                    || (code == MessagingErrorCode.INVALID_ARGUMENT && !payloadRejected)) {
+                deadTokens.add(delivery.getTarget());
+                done.add(delivery);
+                pruned.increment();
+            } else {
+                retryOrDrop(delivery, code, result.error());
+            }
+        }
+        pushDeliveryQueue.complete(done);
+        if (!deadTokens.isEmpty()) {
+            fcmTokenRepository.deleteByTokenIn(deadTokens);
+            fcmTokenCache.removed(deadTokens);
+        }
+    }
+
+    private void sendToTopic(PushDelivery delivery) {
+        if (!acquire(1)) {
+            return;
+        }
+        try {
+            pushTransport.send(delivery);
+            pushDeliveryQueue.complete(List.of(delivery));
+            delivered(delivery);
+        } catch (PushTransportException e) {
+            retryOrDrop(delivery, e.getErrorCode(), e.getMessage());
+        }
+    }
+
+    private void delivered(PushDelivery delivery) {
+        sent.increment();
+        if (delivery.getCreatedAt() != null) {
+            deliveryLatency.record(Duration.between(delivery.getCreatedAt(), LocalDateTime.now()));
+        }
+    }
+
+    private void retryOrDrop(PushDelivery delivery, MessagingErrorCode code, String message) {
+        // Без кода FCM — ошибка сети или таймаут, их тоже повторяем
+        boolean transientError = code == null || transientErrors.contains(code);
+        String error = code + ": " + message;
+        if (transientError && delivery.getAttempts() < maxAttempts) {
+            pushDeliveryQueue.scheduleRetry(delivery,
+                    backoff(delivery.getAttempts(), backoffBase, backoffMax, ThreadLocalRandom.current().nextDouble()),
+                    error);
+            retried.increment();
+            return;
+        }
+        logger.warning(String.format("Push %d to %s %s dropped after %d attempts: %s", delivery.getId(),
+                delivery.getTargetType(), delivery.getTarget(), delivery.getAttempts(), error));
+        pushDeliveryQueue.complete(List.of(delivery));
+        dropped.increment();
+    }
+
+    private boolean acquire(int permits) {
+        try {
+            rateLimiter.acquire(permits);
+            return true;
+        } catch (InterruptedException e) {
+            // Аренда истечет, и сообщения заберет следующий проход
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Экспоненциальная задержка base * 2^(attempts-1), не больше max, со случайной половиной:
+     * повторы после массового сбоя FCM не приходят одновременно.
+     */
+    static Duration backoff(int attempts, Duration base, Duration max, double random) {
+        long exponential = base.toMillis() << Math.min(Math.max(attempts - 1, 0), 30);
+        long capped = Math.min(exponential, max.toMillis());
+        return Duration.ofMillis(capped / 2 + (long) (capped / 2 * random));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.notificationservice.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket на отправку в FCM: не больше permitsPerSecond сообщений в секунду в среднем,
+ * с запасом burst на короткие всплески. Общий для всех воркеров экземпляра.
+ */
+public class PushRateLimiter {
+
+    private final double permitsPerSecond;
+
+    private final double burst;
+
+    private double available;
+
+    private long refilledAt;
+
+    public PushRateLimiter(double permitsPerSecond, double burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive and burst at least 1");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.available = burst;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Резервирует разрешения и возвращает, сколько наносекунд нужно подождать до отправки.
+     * Запрос больше burst допускается: долг отрабатывают следующие вызовы.
+     */
+    public synchronized long reserve(int permits, long nowNanos) {
+        available = Math.min(burst, available + (nowNanos - refilledAt) * permitsPerSecond / 1e9);
+        refilledAt = nowNanos;
+        available -= permits;
+        return available >= 0 ? 0 : (long) (-available / permitsPerSecond * 1e9);
+    }
+
+    public void acquire(int permits) throws InterruptedException {
+        long waitNanos = reserve(permits, System.nanoTime());
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
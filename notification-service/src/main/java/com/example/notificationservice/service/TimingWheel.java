@@ -0,0 +1,99 @@
+package com.example.notificationservice.service;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Колесо таймеров: кольцо слотов по tick, ключ кладется в слот своего дедлайна.
+ * Добавление и срабатывание — O(1) на ключ, поэтому тысячи отложенных пар (пользователь, группа)
+ * не требуют ни отдельной задачи в планировщике, ни сортированной очереди.
+ * Ключ, добавленный одновременно с обработкой его слота, сработает через полный оборот колеса.
+ */
+public class TimingWheel<K> implements AutoCloseable {
+
+    static Logger logger = Logger.getLogger(String.valueOf(TimingWheel.class));
+
+    private record Entry<K>(K key, long deadlineTick) {
+    }
+
+    private final long tickMillis;
+
+    private final ConcurrentLinkedQueue<Entry<K>>[] slots;
+
+    private final Consumer<K> onExpire;
+
+    private volatile long currentTick;
+
+    private ScheduledExecutorService ticker;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(Duration tick, int size, Consumer<K> onExpire, long startMillis) {
+        this.tickMillis = tick.toMillis();
+        this.slots = new ConcurrentLinkedQueue[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.onExpire = onExpire;
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    // Запускает собственный поток, который двигает колесо по системным часам
+    public synchronized void start() {
+        if (ticker != null) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-timing-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(() -> advance(System.currentTimeMillis()),
+                tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void schedule(K key, long deadlineMillis) {
+        // Прошедший дедлайн срабатывает на ближайшем тике
+        long tick = Math.max(deadlineMillis / tickMillis, currentTick + 1);
+        slots[(int) (tick % slots.length)].add(new Entry<>(key, tick));
+    }
+
+    public synchronized void advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            ConcurrentLinkedQueue<Entry<K>> slot = slots[(int) (currentTick % slots.length)];
+            // В слоте лежат и ключи следующих оборотов — их возвращаем обратно
+            for (int n = slot.size(); n > 0; n--) {
+                Entry<K> entry = slot.poll();
+                if (entry == null) {
+                    break;
+                }
+                if (entry.deadlineTick() <= currentTick) {
+                    expire(entry.key());
+                } else {
+                    slot.add(entry);
+                }
+            }
+        }
+    }
+
+    private void expire(K key) {
+        try {
+            onExpire.accept(key);
+        } catch (RuntimeException e) {
+            logger.warning("Timing wheel callback failed for " + key + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.notificationservice.transport;
+
+import com.example.notificationservice.db.PushDelivery;
+import com.google.firebase.messaging.*;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(name = "push.transport", havingValue = "firebase", matchIfMissing = true)
+public class FirebasePushTransport implements PushTransport {
+
+    private final FirebaseMessaging firebaseMessaging;
+
+    @Override
+    public List<Result> sendEach(List<PushDelivery> deliveries) throws PushTransportException {
+        try {
+            return firebaseMessaging.sendEach(deliveries.stream().map(FirebasePushTransport::buildMessage).toList())
+                    .getResponses().stream()
+                    .map(FirebasePushTransport::toResult)
+                    .toList();
+        } catch (FirebaseMessagingException e) {
+            throw wrap(e);
+        }
+    }
+
+    @Override
+    public void send(PushDelivery delivery) throws PushTransportException {
+        try {
+            firebaseMessaging.send(buildMessage(delivery));
+        } catch (FirebaseMessagingException e) {
+            throw wrap(e);
+        }
+    }
+
+    @Override
+    public int subscribeToTopic(List<String> tokens, String topic) throws PushTransportException {
+        try {
+            return firebaseMessaging.subscribeToTopic(tokens, topic).getFailureCount();
+        } catch (FirebaseMessagingException e) {
+            throw wrap(e);
+        }
+    }
+
+    @Override
+    public int unsubscribeFromTopic(List<String> tokens, String topic) throws PushTransportException {
+        try {
+            return firebaseMessaging.unsubscribeFromTopic(tokens, topic).getFailureCount();
+        } catch (FirebaseMessagingException e) {
+            throw wrap(e);
+        }
+    }
+
+    private static Result toResult(SendResponse response) {
+        if (response.isSuccessful()) {
+            return Result.ok();
+        }
+        FirebaseMessagingException e = response.getException();
+        return e == null
+                ? Result.failed(null, "unknown")
+                : Result.failed(e.getMessagingErrorCode(), e.getMessage());
+    }
+
+    private static PushTransportException wrap(FirebaseMessagingException e) {
+        return new PushTransportException(e.getMessagingErrorCode(), e.getMessage(), e);
+    }
+
+    static Message buildMessage(PushDelivery delivery) {
+        Message.Builder builder = Message.builder()
+                .setNotification(Notification.builder()
+                        .setTitle(delivery.getTitle())
+                        .setBody(delivery.getMessage())
+                        .build());
+        if (delivery.getTargetType() == PushDelivery.TargetType.TOPIC) {
+            builder.setTopic(delivery.getTarget());
+        } else {
+            builder.setToken(delivery.getTarget());
+        }
+        return builder.build();
+    }
+}
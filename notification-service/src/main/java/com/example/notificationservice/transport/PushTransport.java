@@ -0,0 +1,38 @@
+package com.example.notificationservice.transport;
+
+import com.example.notificationservice.db.PushDelivery;
+import com.google.firebase.messaging.MessagingErrorCode;
+
+import java.util.List;
+
+/**
+ * Доставка push-сообщений до устройств. Реализация выбирается свойством push.transport:
+ * firebase — FCM, simulated — локальная заглушка для нагрузочных тестов без серверов Google.
+ * Коды ошибок — коды FCM, от них зависит, повторять ли сообщение и удалять ли токен.
+ */
+public interface PushTransport {
+
+    /**
+     * Отправляет сообщения на токены одним вызовом. Результаты — в порядке deliveries.
+     * Исключение — ошибка всего вызова, ни одно сообщение не отправлено.
+     */
+    List<Result> sendEach(List<PushDelivery> deliveries) throws PushTransportException;
+
+    void send(PushDelivery delivery) throws PushTransportException;
+
+    // Возвращает число токенов, которые не удалось подписать
+    int subscribeToTopic(List<String> tokens, String topic) throws PushTransportException;
+
+    int unsubscribeFromTopic(List<String> tokens, String topic) throws PushTransportException;
+
+    record Result(boolean successful, MessagingErrorCode errorCode, String error) {
+
+        public static Result ok() {
+            return new Result(true, null, null);
+        }
+
+        public static Result failed(MessagingErrorCode errorCode, String error) {
+            return new Result(false, errorCode, error);
+        }
+    }
+}
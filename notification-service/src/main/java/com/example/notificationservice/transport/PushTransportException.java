@@ -0,0 +1,22 @@
+package com.example.notificationservice.transport;
+
+import com.google.firebase.messaging.MessagingErrorCode;
+import lombok.Getter;
+
+/**
+ * Ошибка вызова транспорта. errorCode == null — сеть или таймаут, такой вызов повторяется.
+ */
+@Getter
+public class PushTransportException extends Exception {
+
+    private final MessagingErrorCode errorCode;
+
+    public PushTransportException(MessagingErrorCode errorCode, String message, Throwable cause) {
+        super(message, cause);
+        this.errorCode = errorCode;
+    }
+
+    public PushTransportException(MessagingErrorCode errorCode, String message) {
+        this(errorCode, message, null);
+    }
+}
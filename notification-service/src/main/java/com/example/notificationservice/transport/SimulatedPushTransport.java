@@ -0,0 +1,127 @@
+package com.example.notificationservice.transport;
+
+import com.example.notificationservice.db.PushDelivery;
+import com.google.firebase.messaging.MessagingErrorCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Локальная замена FCM для нагрузочных тестов (профиль loadtest): ничего не отправляет,
+ * но выдерживает задержку вызова и возвращает ошибки с заданной частотой.
+ * <p>
+ * push.simulated.token-failures — список префикс:КОД, например {@code dead-:UNREGISTERED,bad-:INVALID_ARGUMENT}:
+ * токены с таким префиксом всегда отклоняются с этим кодом, что проверяет удаление мертвых токенов.
+ */
+@Component
+@ConditionalOnProperty(name = "push.transport", havingValue = "simulated")
+public class SimulatedPushTransport implements PushTransport {
+
+    private final long latencyMillis;
+
+    private final long jitterMillis;
+
+    // Доля сообщений, отклоненных с UNAVAILABLE
+    private final double errorRate;
+
+    // Доля вызовов, упавших целиком
+    private final double callErrorRate;
+
+    private final Map<String, MessagingErrorCode> tokenFailures;
+
+    public SimulatedPushTransport(@Value("${push.simulated.latency:PT0.05S}") Duration latency,
+                                  @Value("${push.simulated.latency-jitter:PT0S}") Duration jitter,
+                                  @Value("${push.simulated.error-rate:0}") double errorRate,
+                                  @Value("${push.simulated.call-error-rate:0}") double callErrorRate,
+                                  @Value("${push.simulated.token-failures:}") String tokenFailures) {
+        this.latencyMillis = latency.toMillis();
+        this.jitterMillis = jitter.toMillis();
+        this.errorRate = errorRate;
+        this.callErrorRate = callErrorRate;
+        this.tokenFailures = parseTokenFailures(tokenFailures);
+    }
+
+    @Override
+    public List<Result> sendEach(List<PushDelivery> deliveries) throws PushTransportException {
+        call();
+        List<Result> results = new ArrayList<>(deliveries.size());
+        for (PushDelivery delivery : deliveries) {
+            MessagingErrorCode code = failureFor(delivery.getTarget());
+            if (code == null && chance(errorRate)) {
+                code = MessagingErrorCode.UNAVAILABLE;
+            }
+            results.add(code == null ? Result.ok() : Result.failed(code, "Simulated " + code));
+        }
+        return results;
+    }
+
+    @Override
+    public void send(PushDelivery delivery) throws PushTransportException {
+        call();
+        if (chance(errorRate)) {
+            throw new PushTransportException(MessagingErrorCode.UNAVAILABLE, "Simulated UNAVAILABLE");
+        }
+    }
+
+    @Override
+    public int subscribeToTopic(List<String> tokens, String topic) throws PushTransportException {
+        call();
+        return (int) tokens.stream().filter(token -> failureFor(token) != null).count();
+    }
+
+    @Override
+    public int unsubscribeFromTopic(List<String> tokens, String topic) throws PushTransportException {
+        return subscribeToTopic(tokens, topic);
+    }
+
+    private void call() throws PushTransportException {
+        long delay = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PushTransportException(null, "Interrupted");
+            }
+        }
+        if (chance(callErrorRate)) {
+            throw new PushTransportException(MessagingErrorCode.UNAVAILABLE, "Simulated UNAVAILABLE");
+        }
+    }
+
+    private MessagingErrorCode failureFor(String token) {
+        for (Map.Entry<String, MessagingErrorCode> failure : tokenFailures.entrySet()) {
+            if (token.startsWith(failure.getKey())) {
+                return failure.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static boolean chance(double rate) {
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    static Map<String, MessagingErrorCode> parseTokenFailures(String value) {
+        Map<String, MessagingErrorCode> failures = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected prefix:CODE in push.simulated.token-failures: " + entry);
+            }
+            failures.put(entry.substring(0, separator).trim(),
+                    MessagingErrorCode.valueOf(entry.substring(separator + 1).trim()));
+        }
+        return failures;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.notificationservice;
+
+import com.example.notificationservice.db.FcmTokenRepository;
+import com.example.notificationservice.service.FcmTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FcmTokenCacheTest {
+
+    @Mock
+    private FcmTokenRepository fcmTokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private FcmTokenCache fcmTokenCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        fcmTokenCache = new FcmTokenCache(fcmTokenRepository, meterRegistry, 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void tokensOf_shouldLoadMissesInOneQueryAndServeHitsFromMemory() {
+        List<Object[]> rows = List.of(new Object[]{"user1", "t1"}, new Object[]{"user1", "t2"});
+        when(fcmTokenRepository.findTokensByUserIdIn(anyCollection())).thenReturn(rows);
+
+        Map<String, List<String>> first = fcmTokenCache.tokensOf(List.of("user1", "user2"));
+        Map<String, List<String>> second = fcmTokenCache.tokensOf(List.of("user1", "user2"));
+
+        assertThat(first).containsEntry("user1", List.of("t1", "t2")).containsEntry("user2", List.of());
+        assertThat(second).isEqualTo(first);
+        verify(fcmTokenRepository, times(1)).findTokensByUserIdIn(anyCollection());
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void added_shouldWriteThroughAndMoveTokenFromPreviousOwner() {
+        List<Object[]> rows = Collections.singletonList(new Object[]{"user1", "t1"});
+        when(fcmTokenRepository.findTokensByUserIdIn(anyCollection())).thenReturn(rows);
+        fcmTokenCache.tokensOf(List.of("user1", "user2"));
+
+        fcmTokenCache.added("user2", "t1");
+
+        assertThat(fcmTokenCache.tokensOf("user1")).isEmpty();
+        assertThat(fcmTokenCache.tokensOf("user2")).containsExactly("t1");
+        verify(fcmTokenRepository, times(1)).findTokensByUserIdIn(anyCollection());
+    }
+
+    @Test
+    void removed_shouldDropPrunedTokens() {
+        List<Object[]> rows = List.of(new Object[]{"user1", "t1"}, new Object[]{"user2", "t2"});
+        when(fcmTokenRepository.findTokensByUserIdIn(anyCollection())).thenReturn(rows);
+        fcmTokenCache.tokensOf(List.of("user1", "user2"));
+
+        fcmTokenCache.removed(List.of("t2"));
+
+        assertThat(fcmTokenCache.tokensOf("user1")).containsExactly("t1");
+        assertThat(fcmTokenCache.tokensOf("user2")).isEmpty();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.notificationservice;
+
+import com.example.notificationservice.db.FcmTokenRepository;
+import com.example.notificationservice.service.FcmTokenCache;
+import com.example.notificationservice.service.FcmTokenExpiryJob;
+import com.example.notificationservice.service.MessageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class FcmTokenExpiryJobTest {
+
+    @Mock
+    private FcmTokenRepository fcmTokenRepository;
+
+    @Mock
+    private FcmTokenCache fcmTokenCache;
+
+    @Mock
+    private MessageService messageService;
+
+    private FcmTokenExpiryJob expiryJob;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        expiryJob = new FcmTokenExpiryJob(fcmTokenRepository, fcmTokenCache, messageService, Duration.ofDays(60), 2);
+    }
+
+    @Test
+    void expireStaleTokens_shouldUnsubscribeDeletedTokensFromGroupTopics() {
+        when(fcmTokenRepository.deleteStaleBatch(any(LocalDateTime.class), eq(2)))
+                .thenReturn(List.of(new Object[]{"user1", "t1"}, new Object[]{"user1", "t2"}))
+                .thenReturn(List.<Object[]>of(new Object[]{"user2", "t3"}));
+
+        expiryJob.expireStaleTokens();
+
+        verify(messageService).unsubscribeFromGroupTopics("user1", List.of("t1", "t2"));
+        verify(messageService).unsubscribeFromGroupTopics("user2", List.of("t3"));
+        verify(fcmTokenRepository, times(2)).deleteStaleBatch(any(LocalDateTime.class), eq(2));
+        verify(fcmTokenCache).invalidateAll();
+    }
+
+    @Test
+    void expireStaleTokens_shouldContinue_whenTopicManagementFails() {
+        when(fcmTokenRepository.deleteStaleBatch(any(LocalDateTime.class), eq(2)))
+                .thenReturn(List.of(new Object[]{"user1", "t1"}, new Object[]{"user2", "t2"}))
+                .thenReturn(List.of());
+        doThrow(new IllegalStateException("FCM unavailable"))
+                .when(messageService).unsubscribeFromGroupTopics("user1", List.of("t1"));
+
+        expiryJob.expireStaleTokens();
+
+        verify(messageService).unsubscribeFromGroupTopics("user2", List.of("t2"));
+        verify(fcmTokenRepository, times(2)).deleteStaleBatch(any(LocalDateTime.class), eq(2));
+        verify(fcmTokenCache).invalidateAll();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.notificationservice;
+
+import com.example.notificationservice.TestNotificationRequest.NotificationRequest;
+import com.example.notificationservice.service.LiveSessionRegistry;
+import com.example.notificationservice.service.PushDeliveryQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LiveSessionRegistryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final PushDeliveryQueue pushDeliveryQueue = mock(PushDeliveryQueue.class);
+
+    private final LiveSessionRegistry registry = new LiveSessionRegistry(meterRegistry, pushDeliveryQueue, 2,
+            Duration.ofMinutes(1), 2, 64);
+
+    private final NotificationRequest request = new NotificationRequest("title", "message");
+
+    @Test
+    void deliver_shouldReturnFalse_whenUserNotConnected() {
+        assertThat(registry.deliver("user1", request)).isFalse();
+    }
+
+    @Test
+    void deliver_shouldReturnOnlyOfflineUsers() {
+        registry.connect("user1");
+
+        List<String> offline = registry.deliver(List.of("user1", "user2"), request);
+
+        assertThat(offline).containsExactly("user2");
+        assertThat(registry.isConnected("user1")).isTrue();
+        assertThat(meterRegistry.get("live.deliveries").tag("outcome", "sent").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("live.sessions").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void connect_shouldCloseExtraSessionsOfSameUser() {
+        registry.connect("user1");
+        registry.connect("user1");
+        registry.connect("user1");
+
+        assertThat(registry.size()).isEqualTo(2);
+    }
+
+    @Test
+    void deliver_shouldHandNotificationToFcm_whenSessionFailsToSend() {
+        SseEmitter emitter = registry.connect("user1");
+        // Ответ уже завершен: запись в сессию падает и сессия закрывается
+        emitter.complete();
+
+        boolean live = registry.deliver("user1", request);
+
+        // Если сессия успела закрыться на событии connected, FCM остается вызывающему (false),
+        // иначе уведомление из очереди сессии возвращает в FCM сам реестр
+        if (live) {
+            verify(pushDeliveryQueue, timeout(1000)).enqueueForUsers(List.of("user1"), request);
+        }
+        verify(pushDeliveryQueue, after(200).atMost(1)).enqueueForUsers(anyCollection(), any());
+        assertThat(registry.isConnected("user1")).isFalse();
+    }
+
+    @Test
+    void deliver_shouldNotFallBackToFcm_whenSent() {
+        registry.connect("user1");
+
+        assertThat(registry.deliver("user1", request)).isTrue();
+
+        verify(pushDeliveryQueue, after(200).never()).enqueueForUsers(anyCollection(), any());
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.notificationservice;
+
+import com.example.notificationservice.TestNotificationRequest.NotificationRequest;
+import com.example.notificationservice.db.FcmTokenRepository;
+import com.example.notificationservice.dto.BulkNotificationResult;
+import com.example.notificationservice.service.FcmTokenCache;
+import com.example.notificationservice.service.LiveSessionRegistry;
+import com.example.notificationservice.service.MessageService;
+import com.example.notificationservice.service.NotificationCoalescer;
+import com.example.notificationservice.service.NotificationInbox;
+import com.example.notificationservice.service.PushDeliveryQueue;
+import com.example.notificationservice.transport.PushTransport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MessageServiceTest {
+
+    @Mock
+    private FcmTokenRepository fcmTokenRepository;
+
+    @Mock
+    private PushTransport pushTransport;
+
+    @Mock
+    private PushDeliveryQueue pushDeliveryQueue;
+
+    @Mock
+    private NotificationCoalescer notificationCoalescer;
+
+    @Mock
+    private FcmTokenCache fcmTokenCache;
+
+    @Mock
+    private LiveSessionRegistry liveSessionRegistry;
+
+    @Mock
+    private NotificationInbox notificationInbox;
+
+    @InjectMocks
+    private MessageService messageService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // По умолчанию никто не подключен по SSE
+        when(liveSessionRegistry.deliver(anyCollection(), any(NotificationRequest.class)))
+                .thenAnswer(invocation -> new ArrayList<>(invocation.<Collection<String>>getArgument(0)));
+    }
+
+    @Test
+    void sendNotificationToUsers_shouldQueueOnceAndSummarizePerUser() {
+        when(fcmTokenCache.tokensOf(anyCollection())).thenReturn(Map.of(
+                "user1", List.of("t1", "t2"), "user2", List.of("t3"), "user3", List.of()));
+        when(pushDeliveryQueue.enqueueForUsers(anyCollection(), any(NotificationRequest.class))).thenReturn(3);
+
+        BulkNotificationResult result = messageService.sendNotificationToUsers(
+                List.of("user1", "user2", "user3", "user1"), new NotificationRequest("title", "message"));
+
+        verify(pushDeliveryQueue, times(1)).enqueueForUsers(eq(List.of("user1", "user2", "user3")),
+                any(NotificationRequest.class));
+        verifyNoInteractions(pushTransport);
+        assertThat(result.getQueued()).isEqualTo(3);
+        assertThat(result.getUsers()).extracting(BulkNotificationResult.UserDelivery::getUserId)
+                .containsExactly("user1", "user2", "user3");
+        assertThat(result.getUsers()).extracting(BulkNotificationResult.UserDelivery::getTokens)
+                .containsExactly(2, 1, 0);
+    }
+
+    @Test
+    void sendNotificationToUsers_shouldBufferGroupNotifications_whenCoalescingEnabled() {
+        when(notificationCoalescer.isEnabled()).thenReturn(true);
+        when(fcmTokenCache.tokensOf(anyCollection())).thenReturn(Map.of());
+        NotificationRequest request = new NotificationRequest("title", "message", 7L);
+
+        BulkNotificationResult result = messageService.sendNotificationToUsers(List.of("user1", "user2"), request);
+
+        verify(notificationCoalescer).offer(List.of("user1", "user2"), 7L, request);
+        verifyNoInteractions(pushDeliveryQueue);
+        verify(notificationInbox).record(Set.of("user1", "user2"), request);
+        assertThat(result.isCoalesced()).isTrue();
+        assertThat(result.getQueued()).isZero();
+    }
+
+    @Test
+    void sendNotificationToUsers_shouldQueueOnlyOfflineUsers() {
+        when(fcmTokenCache.tokensOf(anyCollection())).thenReturn(Map.of());
+        NotificationRequest request = new NotificationRequest("title", "message");
+        when(liveSessionRegistry.deliver(anyCollection(), eq(request))).thenReturn(List.of("user2"));
+
+        BulkNotificationResult result = messageService.sendNotificationToUsers(List.of("user1", "user2"), request);
+
+        verify(pushDeliveryQueue).enqueueForUsers(List.of("user2"), request);
+        assertThat(result.getUsers()).extracting(BulkNotificationResult.UserDelivery::isLive)
+                .containsExactly(true, false);
+    }
+
+    @Test
+    void sendNotificationToUser_shouldSkipFcm_whenUserConnected() {
+        NotificationRequest request = new NotificationRequest("title", "message", 7L);
+        when(liveSessionRegistry.deliver("user1", request)).thenReturn(true);
+
+        messageService.sendNotificationToUser("user1", request);
+
+        verifyNoInteractions(pushDeliveryQueue, notificationCoalescer);
+        // В историю попадает и уведомление, доставленное по SSE
+        verify(notificationInbox).record(List.of("user1"), request);
+    }
+
+    @Test
+    void sendNotificationToUser_shouldQueueDirectly_whenNoGroup() {
+        when(notificationCoalescer.isEnabled()).thenReturn(true);
+        NotificationRequest request = new NotificationRequest("title", "message");
+
+        messageService.sendNotificationToUser("user1", request);
+
+        verify(pushDeliveryQueue).enqueueForUsers(List.of("user1"), request);
+        verify(notificationCoalescer, never()).offer(anyCollection(), any(), any());
+    }
+
+    @Test
+    void sendNotificationToUsers_shouldThrow_whenNoRecipients() {
+        assertThatThrownBy(() -> messageService.sendNotificationToUsers(
+                List.of(), new NotificationRequest("title", "message")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sendNotificationToGroup_shouldQueueOneTopicMessage() {
+        NotificationRequest request = new NotificationRequest("title", "message");
+
+        messageService.sendNotificationToGroup(7L, request);
+
+        verify(pushDeliveryQueue).enqueueForTopic("group-7", request);
+        verifyNoInteractions(pushTransport, fcmTokenRepository);
+        verify(notificationInbox).recordForGroup(7L, request);
+    }
+
+    @Test
+    void sendNotificationToGroup_shouldDeliverLiveAndPushOnlyOfflineMembers() {
+        NotificationRequest request = new NotificationRequest("title", "message");
+        when(liveSessionRegistry.size()).thenReturn(1);
+        when(liveSessionRegistry.isConnected("user1")).thenReturn(true);
+        when(fcmTokenRepository.findUserIdsByGroupId(7L)).thenReturn(List.of("user1", "user2"));
+        when(liveSessionRegistry.deliver(List.of("user1", "user2"), request)).thenReturn(List.of("user2"));
+
+        messageService.sendNotificationToGroup(7L, request);
+
+        verify(liveSessionRegistry).deliver(List.of("user1", "user2"), request);
+        verify(pushDeliveryQueue).enqueueForUsers(List.of("user2"), request);
+        verify(pushDeliveryQueue, never()).enqueueForTopic(anyString(), any());
+    }
+
+    @Test
+    void sendNotificationToGroup_shouldUseTopic_whenNoMemberConnected() {
+        NotificationRequest request = new NotificationRequest("title", "message");
+        when(liveSessionRegistry.size()).thenReturn(1);
+        when(fcmTokenRepository.findUserIdsByGroupId(7L)).thenReturn(List.of("user1", "user2"));
+
+        messageService.sendNotificationToGroup(7L, request);
+
+        verify(liveSessionRegistry, never()).deliver(anyCollection(), any());
+        verify(pushDeliveryQueue).enqueueForTopic("group-7", request);
+        verify(pushDeliveryQueue, never()).enqueueForUsers(anyCollection(), any());
+    }
+
+    @Test
+    void subscribeToGroup_shouldSubscribeAllUserTokens() throws Exception {
+        when(fcmTokenCache.tokensOf("user1")).thenReturn(List.of("t1", "t2"));
+        when(pushTransport.subscribeToTopic(anyList(), eq("group-7"))).thenReturn(0);
+
+        messageService.subscribeToGroup(7L, "user1");
+
+        verify(pushTransport).subscribeToTopic(List.of("t1", "t2"), "group-7");
+    }
+
+    @Test
+    void saveToken_shouldSubscribeNewTokenToUserGroups() throws Exception {
+        when(fcmTokenRepository.findUserIdByToken("t1")).thenReturn(Optional.empty());
+        when(fcmTokenRepository.findGroupIdsByUserId("user1")).thenReturn(List.of(3L, 4L));
+        when(pushTransport.subscribeToTopic(anyList(), anyString())).thenReturn(0);
+
+        messageService.saveToken("user1", "t1");
+
+        verify(pushTransport).subscribeToTopic(List.of("t1"), "group-3");
+        verify(pushTransport).subscribeToTopic(List.of("t1"), "group-4");
+        verify(fcmTokenRepository).upsert(eq("user1"), eq("t1"), any(LocalDateTime.class));
+        verify(fcmTokenCache).added("user1", "t1");
+    }
+
+    @Test
+    void saveToken_shouldUnsubscribeFromPreviousOwnerGroups_whenDeviceChangesAccount() throws Exception {
+        when(fcmTokenRepository.findUserIdByToken("t1")).thenReturn(Optional.of("user2"));
+        when(fcmTokenRepository.findGroupIdsByUserId("user1")).thenReturn(List.of(3L));
+        when(fcmTokenRepository.findGroupIdsByUserId("user2")).thenReturn(List.of(3L, 5L));
+        when(pushTransport.subscribeToTopic(anyList(), anyString())).thenReturn(0);
+        when(pushTransport.unsubscribeFromTopic(anyList(), anyString())).thenReturn(0);
+
+        messageService.saveToken("user1", "t1");
+
+        verify(pushTransport).subscribeToTopic(List.of("t1"), "group-3");
+        verify(pushTransport).unsubscribeFromTopic(List.of("t1"), "group-5");
+        verify(pushTransport, never()).unsubscribeFromTopic(List.of("t1"), "group-3");
+        verify(fcmTokenCache).added("user1", "t1");
+        verify(fcmTokenCache).removed("user2", "t1");
+    }
+
+    @Test
+    void delToken_shouldRemoveTokenFromCache() {
+        when(fcmTokenRepository.deleteByTokenAndUserId("t1", "user1")).thenReturn(1);
+
+        messageService.delToken("user1", "t1");
+
+        verify(fcmTokenCache).removed("user1", "t1");
+    }
+
+    @Test
+    void saveToken_shouldOnlyRefreshLastSeen_whenTokenKnown() {
+        when(fcmTokenRepository.findUserIdByToken("t1")).thenReturn(Optional.of("user1"));
+
+        messageService.saveToken("user1", "t1");
+
+        verify(fcmTokenRepository).upsert(eq("user1"), eq("t1"), any(LocalDateTime.class));
+        verify(fcmTokenRepository, never()).findGroupIdsByUserId(anyString());
+        verifyNoInteractions(pushTransport, fcmTokenCache);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.notificationservice;
+
+import com.example.notificationservice.TestNotificationRequest.NotificationRequest;
+import com.example.notificationservice.db.BufferedNotification;
+import com.example.notificationservice.db.BufferedNotificationRepository;
+import com.example.notificationservice.service.LiveSessionRegistry;
+import com.example.notificationservice.service.NotificationBuffer;
+import com.example.notificationservice.service.PushDeliveryQueue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class NotificationBufferTest {
+
+    @Mock
+    private BufferedNotificationRepository bufferedNotificationRepository;
+
+    @Mock
+    private PushDeliveryQueue pushDeliveryQueue;
+
+    @Mock
+    private LiveSessionRegistry liveSessionRegistry;
+
+    @InjectMocks
+    private NotificationBuffer notificationBuffer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void add_shouldKeepExistingFlushTime_whenPairAlreadyBuffered() {
+        LocalDateTime existing = LocalDateTime.now().plusSeconds(5);
+        when(bufferedNotificationRepository.findFlushAt("user1", 7L)).thenReturn(existing);
+
+        Map<String, LocalDateTime> flushTimes = notificationBuffer.add(List.of("user1", "user2"), 7L,
+                new NotificationRequest("title", "message"), Duration.ofSeconds(20));
+
+        assertThat(flushTimes.get("user1")).isEqualTo(existing);
+        assertThat(flushTimes.get("user2")).isAfter(existing);
+        verify(bufferedNotificationRepository, times(2)).save(any(BufferedNotification.class));
+    }
+
+    @Test
+    void flush_shouldQueueOneDigest() {
+        List<BufferedNotification> rows = List.of(row("Новый расход", "Такси"), row("Новый расход", "Ужин"));
+        when(bufferedNotificationRepository.lockPair("user1", 7L)).thenReturn(rows);
+
+        assertThat(notificationBuffer.flush("user1", 7L)).isTrue();
+
+        ArgumentCaptor<NotificationRequest> digest = ArgumentCaptor.forClass(NotificationRequest.class);
+        verify(bufferedNotificationRepository).deleteAllInBatch(rows);
+        verify(pushDeliveryQueue).enqueueForUsers(eq(List.of("user1")), digest.capture());
+        assertThat(digest.getValue().getTitle()).isEqualTo("Новый расход (2)");
+        assertThat(digest.getValue().getMessage()).isEqualTo("Такси\nУжин");
+    }
+
+    @Test
+    void flush_shouldDoNothing_whenPairAlreadyFlushed() {
+        when(bufferedNotificationRepository.lockPair("user1", 7L)).thenReturn(List.of());
+
+        assertThat(notificationBuffer.flush("user1", 7L)).isFalse();
+
+        verifyNoInteractions(pushDeliveryQueue);
+    }
+
+    @Test
+    void digest_shouldKeepSingleNotificationAsIs() {
+        NotificationRequest digest = NotificationBuffer.digest(List.of(row("Новый расход", "Такси")));
+
+        assertThat(digest.getTitle()).isEqualTo("Новый расход");
+        assertThat(digest.getMessage()).isEqualTo("Такси");
+    }
+
+    @Test
+    void digest_shouldSummarizeOverflow() {
+        List<BufferedNotification> rows = List.of(row("a", "1"), row("b", "2"), row("a", "3"),
+                row("a", "4"), row("a", "5"), row("a", "6"), row("a", "7"));
+
+        NotificationRequest digest = NotificationBuffer.digest(rows);
+
+        assertThat(digest.getTitle()).isEqualTo("Обновления в группе (7)");
+        assertThat(digest.getMessage()).isEqualTo("1\n2\n3\n4\n5\nи еще 2");
+    }
+
+    private BufferedNotification row(String title, String message) {
+        return new BufferedNotification("user1", 7L, title, message, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.notificationservice;
+
+import com.example.notificationservice.TestNotificationRequest.NotificationRequest;
+import com.example.notificationservice.db.InboxCounter;
+import com.example.notificationservice.db.InboxCounterRepository;
+import com.example.notificationservice.db.NotificationInboxRepository;
+import com.example.notificationservice.dto.InboxItem;
+import com.example.notificationservice.dto.InboxPage;
+import com.example.notificationservice.service.NotificationInbox;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class NotificationInboxTest {
+
+    @Mock
+    private NotificationInboxRepository notificationInboxRepository;
+
+    @Mock
+    private InboxCounterRepository inboxCounterRepository;
+
+    @InjectMocks
+    private NotificationInbox notificationInbox;
+
+    private final LocalDateTime now = LocalDateTime.of(2025, 5, 10, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void record_shouldInsertOnceAndCountEachRecipientOnce() {
+        NotificationRequest request = new NotificationRequest("title", "message", 7L);
+
+        notificationInbox.record(List.of("user1", "user2", "user1"), request);
+
+        verify(notificationInboxRepository).insert(eq(List.of("user1", "user2")), eq(7L), eq("title"),
+                eq("message"), any(LocalDateTime.class));
+        verify(inboxCounterRepository).increment(new String[]{"user1", "user2"});
+    }
+
+    @Test
+    void page_shouldMarkReadByWatermarkAndReturnCursor_whenPageFull() {
+        InboxCounter counter = new InboxCounter();
+        counter.setUserId("user1");
+        counter.setUnread(1);
+        counter.setReadBefore(now.minusMinutes(5));
+        when(inboxCounterRepository.findById("user1")).thenReturn(Optional.of(counter));
+        when(notificationInboxRepository.findPage("user1", null, null, 2)).thenReturn(List.of(
+                item(12L, now), item(11L, now.minusMinutes(10))));
+
+        InboxPage page = notificationInbox.page("user1", null, 2);
+
+        assertThat(page.getItems()).extracting(InboxItem::isRead).containsExactly(false, true);
+        assertThat(page.getUnread()).isEqualTo(1);
+        assertThat(page.getNextCursor()).isEqualTo(now.minusMinutes(10) + "_11");
+    }
+
+    @Test
+    void page_shouldContinueFromCursorAndStop_whenPageNotFull() {
+        when(inboxCounterRepository.findById("user1")).thenReturn(Optional.empty());
+        when(notificationInboxRepository.findPage("user1", now, 11L, 2)).thenReturn(List.of(
+                item(10L, now.minusDays(1))));
+
+        InboxPage page = notificationInbox.page("user1", now + "_11", 2);
+
+        assertThat(page.getItems()).extracting(InboxItem::isRead).containsExactly(false);
+        assertThat(page.getUnread()).isZero();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void page_shouldThrow_whenCursorOrLimitInvalid() {
+        assertThatThrownBy(() -> notificationInbox.page("user1", "garbage", 20))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> notificationInbox.page("user1", null, NotificationInbox.maxPageSize + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(notificationInboxRepository);
+    }
+
+    @Test
+    void monthOf_shouldParseOwnPartitionsOnly() {
+        LocalDate month = LocalDate.of(2025, 3, 1);
+
+        assertThat(NotificationInboxRepository.monthOf(NotificationInboxRepository.partitionName(month)))
+                .isEqualTo(month);
+        assertThat(NotificationInboxRepository.monthOf("notification_inbox_default")).isNull();
+    }
+
+    private static InboxItem item(Long id, LocalDateTime createdAt) {
+        return InboxItem.builder().id(id).title("title").message("message").createdAt(createdAt).build();
+    }
+}
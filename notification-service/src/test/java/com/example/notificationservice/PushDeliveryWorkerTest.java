@@ -0,0 +1,140 @@
+package com.example.notificationservice;
+
+import com.example.notificationservice.db.FcmTokenRepository;
+import com.example.notificationservice.db.PushDelivery;
+import com.example.notificationservice.service.FcmTokenCache;
+import com.example.notificationservice.service.PushDeliveryQueue;
+import com.example.notificationservice.service.PushDeliveryWorker;
+import com.example.notificationservice.transport.PushTransport;
+import com.example.notificationservice.transport.PushTransportException;
+import com.google.firebase.messaging.MessagingErrorCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PushDeliveryWorkerTest {
+
+    @Mock
+    private PushDeliveryQueue pushDeliveryQueue;
+
+    @Mock
+    private FcmTokenRepository fcmTokenRepository;
+
+    @Mock
+    private FcmTokenCache fcmTokenCache;
+
+    @Mock
+    private PushTransport pushTransport;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PushDeliveryWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        worker = new PushDeliveryWorker(pushDeliveryQueue, fcmTokenRepository, fcmTokenCache, pushTransport, meterRegistry,
+                2, 2000, Duration.ofMinutes(1), 3, 1_000_000, 1_000_000,
+                Duration.ofSeconds(2), Duration.ofMinutes(15));
+    }
+
+    @Test
+    void drain_shouldSendTokensInChunksOf500() throws Exception {
+        List<PushDelivery> batch = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            batch.add(delivery((long) i, PushDelivery.TargetType.TOKEN, "t" + i, 1));
+        }
+        when(pushDeliveryQueue.claimBatch(2000, Duration.ofMinutes(1))).thenReturn(batch);
+        List<Integer> chunkSizes = Collections.synchronizedList(new ArrayList<>());
+        when(pushTransport.sendEach(anyList())).thenAnswer(invocation -> {
+            List<PushDelivery> chunk = invocation.getArgument(0);
+            chunkSizes.add(chunk.size());
+            return Collections.nCopies(chunk.size(), PushTransport.Result.ok());
+        });
+
+        worker.drain();
+
+        assertThat(chunkSizes).containsExactlyInAnyOrder(500, 500, 200);
+        assertThat(meterRegistry.counter("push.deliveries", "outcome", "sent").count()).isEqualTo(1200);
+        verify(pushDeliveryQueue, times(3)).complete(anyList());
+        assertThat(meterRegistry.get("push.delivery.latency").timer().count()).isEqualTo(1200);
+    }
+
+    @Test
+    void drain_shouldPruneRejectedTokensAndRetryTransientFailures() throws Exception {
+        PushDelivery delivered = delivery(1L, PushDelivery.TargetType.TOKEN, "t1", 1);
+        PushDelivery unregistered = delivery(2L, PushDelivery.TargetType.TOKEN, "t2", 1);
+        PushDelivery unavailable = delivery(3L, PushDelivery.TargetType.TOKEN, "t3", 1);
+        when(pushDeliveryQueue.claimBatch(2000, Duration.ofMinutes(1)))
+                .thenReturn(List.of(delivered, unregistered, unavailable));
+        when(pushTransport.sendEach(anyList())).thenReturn(List.of(PushTransport.Result.ok(),
+                failed(MessagingErrorCode.UNREGISTERED), failed(MessagingErrorCode.UNAVAILABLE)));
+
+        worker.drain();
+
+        verify(pushDeliveryQueue).complete(List.of(delivered, unregistered));
+        verify(fcmTokenRepository).deleteByTokenIn(List.of("t2"));
+        verify(fcmTokenCache).removed(List.of("t2"));
+        verify(pushDeliveryQueue).scheduleRetry(eq(unavailable), any(Duration.class), anyString());
+    }
+
+    @Test
+    void drain_shouldKeepTokens_whenWholeBatchIsInvalidArgument() throws Exception {
+        PushDelivery first = delivery(1L, PushDelivery.TargetType.TOKEN, "t1", 1);
+        PushDelivery second = delivery(2L, PushDelivery.TargetType.TOKEN, "t2", 1);
+        when(pushDeliveryQueue.claimBatch(2000, Duration.ofMinutes(1))).thenReturn(List.of(first, second));
+        when(pushTransport.sendEach(anyList())).thenReturn(List.of(failed(MessagingErrorCode.INVALID_ARGUMENT),
+                failed(MessagingErrorCode.INVALID_ARGUMENT)));
+
+        worker.drain();
+
+        verify(fcmTokenRepository, never()).deleteByTokenIn(anyCollection());
+        assertThat(meterRegistry.counter("push.deliveries", "outcome", "dropped").count()).isEqualTo(2);
+    }
+
+    @Test
+    void drain_shouldDropTopicMessage_whenAttemptsExhausted() throws Exception {
+        PushDelivery topic = delivery(1L, PushDelivery.TargetType.TOPIC, "group-7", 3);
+        when(pushDeliveryQueue.claimBatch(2000, Duration.ofMinutes(1))).thenReturn(List.of(topic));
+        doThrow(new PushTransportException(MessagingErrorCode.UNAVAILABLE, "unavailable"))
+                .when(pushTransport).send(topic);
+
+        worker.drain();
+
+        verify(pushDeliveryQueue).complete(List.of(topic));
+        verify(pushDeliveryQueue, never()).scheduleRetry(any(), any(), any());
+    }
+
+    @Test
+    void refreshQueueStats_shouldPublishDepthAndLag() {
+        when(pushDeliveryQueue.depth()).thenReturn(42L);
+        when(pushDeliveryQueue.lag()).thenReturn(Duration.ofSeconds(5));
+
+        worker.refreshQueueStats();
+
+        assertThat(meterRegistry.get("push.queue.depth").gauge().value()).isEqualTo(42);
+        assertThat(meterRegistry.get("push.queue.lag").gauge().value()).isEqualTo(5.0);
+    }
+
+    private PushDelivery delivery(Long id, PushDelivery.TargetType type, String target, int attempts) {
+        PushDelivery delivery = new PushDelivery(type, target, "title", "message");
+        delivery.setId(id);
+        delivery.setAttempts(attempts);
+        return delivery;
+    }
+
+    private PushTransport.Result failed(MessagingErrorCode code) {
+        return PushTransport.Result.failed(code, code.name());
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.notificationservice;
+
+import com.example.notificationservice.service.PushRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PushRateLimiterTest {
+
+    @Test
+    void reserve_shouldAllowBurstThenThrottleToRate() {
+        PushRateLimiter limiter = new PushRateLimiter(100, 500);
+        long start = System.nanoTime();
+
+        assertThat(limiter.reserve(500, start)).isZero();
+        // 100 сообщений сверх burst при 100/с — ждать секунду
+        assertThat(limiter.reserve(100, start)).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void reserve_shouldRefillOverTime() {
+        PushRateLimiter limiter = new PushRateLimiter(100, 100);
+        long start = System.nanoTime();
+        limiter.reserve(100, start);
+
+        assertThat(limiter.reserve(50, start + TimeUnit.MILLISECONDS.toNanos(500))).isZero();
+    }
+
+    @Test
+    void constructor_shouldRejectNonPositiveRate() {
+        assertThatThrownBy(() -> new PushRateLimiter(0, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.notificationservice;
+
+import com.example.notificationservice.security.ServiceTokenFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ServiceTokenFilterTest {
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void filter_shouldGrantServiceAuthority_whenTokenMatches() throws Exception {
+        Authentication authentication = filter("secret", "secret");
+
+        assertThat(authentication).isNotNull();
+        assertThat(authentication.getAuthorities()).extracting("authority")
+                .containsExactly(ServiceTokenFilter.authority);
+    }
+
+    @Test
+    void filter_shouldNotAuthenticate_whenTokenDiffers() throws Exception {
+        assertThat(filter("secret", "guess")).isNull();
+    }
+
+    @Test
+    void filter_shouldNotAuthenticate_whenSecretNotConfigured() throws Exception {
+        assertThat(filter("", "")).isNull();
+    }
+
+    private Authentication filter(String secret, String header) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/users/notifications");
+        request.addHeader(ServiceTokenFilter.header, header);
+        new ServiceTokenFilter(secret).doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
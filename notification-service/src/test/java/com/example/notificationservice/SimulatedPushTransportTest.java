@@ -0,0 +1,58 @@
+package com.example.notificationservice;
+
+import com.example.notificationservice.db.PushDelivery;
+import com.example.notificationservice.transport.PushTransport;
+import com.example.notificationservice.transport.PushTransportException;
+import com.example.notificationservice.transport.SimulatedPushTransport;
+import com.google.firebase.messaging.MessagingErrorCode;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SimulatedPushTransportTest {
+
+    @Test
+    void sendEach_shouldRejectTokensByConfiguredPrefix() throws Exception {
+        SimulatedPushTransport transport = new SimulatedPushTransport(Duration.ZERO, Duration.ZERO, 0, 0,
+                "dead-:UNREGISTERED, bad-:INVALID_ARGUMENT");
+
+        List<PushTransport.Result> results = transport.sendEach(List.of(token("t1"), token("dead-1"), token("bad-1")));
+
+        assertThat(results).extracting(PushTransport.Result::successful).containsExactly(true, false, false);
+        assertThat(results).extracting(PushTransport.Result::errorCode)
+                .containsExactly(null, MessagingErrorCode.UNREGISTERED, MessagingErrorCode.INVALID_ARGUMENT);
+    }
+
+    @Test
+    void sendEach_shouldFailWholeCall_whenCallErrorRateIsOne() {
+        SimulatedPushTransport transport = new SimulatedPushTransport(Duration.ZERO, Duration.ZERO, 0, 1, "");
+
+        assertThatThrownBy(() -> transport.sendEach(List.of(token("t1"))))
+                .isInstanceOf(PushTransportException.class)
+                .extracting(e -> ((PushTransportException) e).getErrorCode())
+                .isEqualTo(MessagingErrorCode.UNAVAILABLE);
+    }
+
+    @Test
+    void sendEach_shouldWaitConfiguredLatency() throws Exception {
+        SimulatedPushTransport transport = new SimulatedPushTransport(Duration.ofMillis(50), Duration.ZERO, 0, 0, "");
+        long start = System.nanoTime();
+
+        transport.sendEach(List.of(token("t1")));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(50));
+    }
+
+    @Test
+    void constructor_shouldRejectMalformedTokenFailures() {
+        assertThatThrownBy(() -> new SimulatedPushTransport(Duration.ZERO, Duration.ZERO, 0, 0, "UNREGISTERED"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private PushDelivery token(String token) {
+        return new PushDelivery(PushDelivery.TargetType.TOKEN, token, "title", "message");
+    }
+}
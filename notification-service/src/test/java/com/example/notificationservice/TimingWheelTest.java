@@ -0,0 +1,50 @@
+package com.example.notificationservice;
+
+import com.example.notificationservice.service.TimingWheel;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private final List<String> expired = new ArrayList<>();
+
+    private final TimingWheel<String> wheel = new TimingWheel<>(Duration.ofSeconds(1), 8, expired::add, 0);
+
+    @Test
+    void advance_shouldExpireKeysInDeadlineOrder() {
+        wheel.schedule("late", 5_000);
+        wheel.schedule("early", 2_000);
+
+        wheel.advance(1_999);
+        assertThat(expired).isEmpty();
+
+        wheel.advance(5_000);
+        assertThat(expired).containsExactly("early", "late");
+    }
+
+    @Test
+    void advance_shouldKeepKeysForLaterRotations() {
+        // 10 с при 8 слотах по секунде — тот же слот, что и 2 с, но через оборот
+        wheel.schedule("next-rotation", 10_000);
+
+        wheel.advance(9_999);
+        assertThat(expired).isEmpty();
+
+        wheel.advance(10_000);
+        assertThat(expired).containsExactly("next-rotation");
+    }
+
+    @Test
+    void schedule_shouldFireOnNextTick_whenDeadlinePassed() {
+        wheel.advance(3_000);
+        wheel.schedule("overdue", 1_000);
+
+        wheel.advance(4_000);
+        assertThat(expired).containsExactly("overdue");
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.serviceclient;
+
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Вызовы auth-service от имени пользователя (заголовок Authorization передается как есть).
+ */
+public class AuthClient {
+
+    public static final String service = "auth-service";
+
+    // Ограничение auth-service на число id в одном /users/batch
+    public static final int maxBatchSize = 100;
+
+    private final ServiceHttpClient httpClient;
+
+    public AuthClient(ServiceHttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    public <U> U getCurrentUser(String authHeader, Class<U> type) {
+        return httpClient.call(service, "current-user", "/currentUser",
+                builder -> builder.header("Authorization", authHeader).GET(), type);
+    }
+
+    /**
+     * Пользователи по id: один POST /users/batch на каждые maxBatchSize id вместо вызова на пользователя.
+     * type — массив типа пользователя вызывающего сервиса; ненайденные id в ответ не попадают.
+     */
+    public <U> List<U> getUsers(String authHeader, Collection<String> userIds, Class<U[]> type) {
+        List<String> ids = List.copyOf(new LinkedHashSet<>(userIds));
+        List<U> result = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += maxBatchSize) {
+            HttpRequest.BodyPublisher body = httpClient.body(ids.subList(from, Math.min(from + maxBatchSize, ids.size())));
+            result.addAll(Arrays.asList(httpClient.call(service, "get-users-batch", "/users/batch",
+                    builder -> builder.header("Authorization", authHeader).POST(body), type)));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.serviceclient;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+
+import java.net.URI;
+
+/**
+ * Вызовы напрямую экземплярам из реестра Eureka, минуя gateway.
+ * Экземпляр на каждый запрос выбирает LoadBalancerClient (по умолчанию round-robin по кэшу реестра),
+ * так что нагрузка расходится по всем запущенным экземплярам сервиса на любых хостах.
+ */
+public class DiscoveryServiceResolver implements ServiceResolver {
+
+    private final LoadBalancerClient loadBalancerClient;
+
+    public DiscoveryServiceResolver(LoadBalancerClient loadBalancerClient) {
+        this.loadBalancerClient = loadBalancerClient;
+    }
+
+    @Override
+    public URI resolve(String service, String path) {
+        ServiceInstance instance = loadBalancerClient.choose(service);
+        if (instance == null) {
+            throw new ServiceClientException(service, 503, "No instances of " + service + " registered");
+        }
+        return URI.create(instance.getUri() + path);
+    }
+}
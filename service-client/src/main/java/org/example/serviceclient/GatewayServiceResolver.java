@@ -0,0 +1,20 @@
+package org.example.serviceclient;
+
+import java.net.URI;
+
+/**
+ * Вызовы через gateway: {baseUrl}/{service}{path}. Используется, когда discovery выключен.
+ */
+public class GatewayServiceResolver implements ServiceResolver {
+
+    private final String baseUrl;
+
+    public GatewayServiceResolver(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public URI resolve(String service, String path) {
+        return URI.create(baseUrl + "/" + service + path);
+    }
+}
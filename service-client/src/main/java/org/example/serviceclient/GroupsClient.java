@@ -0,0 +1,95 @@
+package org.example.serviceclient;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.serviceclient.dto.GroupDescriptor;
+
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Вызовы groups-service. Тип ответа getGroup задает вызывающий сервис: у каждого своя сущность Group.
+ */
+public class GroupsClient {
+
+    public static final String service = "groups-service";
+
+    // Ограничение groups-service на число id в одном /groups/batch
+    public static final int maxBatchSize = 100;
+
+    private final ServiceHttpClient httpClient;
+
+    // Последние полученные описания групп; актуальность проверяется на каждом вызове по версии
+    private final Cache<Long, GroupDescriptor> descriptors;
+
+    public GroupsClient(ServiceHttpClient httpClient, long descriptorCacheSize) {
+        this.httpClient = httpClient;
+        this.descriptors = Caffeine.newBuilder()
+                .maximumSize(descriptorCacheSize)
+                .build();
+    }
+
+    public <G> G getGroup(String authHeader, Long groupId, Class<G> type) {
+        return httpClient.call(service, "get-group", "/groups/" + groupId,
+                builder -> builder.header("Authorization", authHeader).GET(), type);
+    }
+
+    /**
+     * Описание группы с проверкой доступа текущего пользователя на стороне groups-service.
+     * Если копия уже есть, запрос уходит с If-None-Match и при неизменной версии ответ — пустой 304.
+     */
+    public GroupDescriptor getGroupDescriptor(String authHeader, Long groupId) {
+        GroupDescriptor cached = descriptors.getIfPresent(groupId);
+        GroupDescriptor fetched;
+        try {
+            fetched = httpClient.call(service, "get-group-descriptor", "/groups/" + groupId + "/descriptor",
+                    builder -> {
+                        builder.header("Authorization", authHeader).GET();
+                        return cached == null ? builder
+                                : builder.header("If-None-Match", GroupDescriptor.etag(cached.getVersion()));
+                    },
+                    GroupDescriptor.class);
+        } catch (ServiceClientException e) {
+            if (e.isNotFound()) {
+                descriptors.invalidate(groupId);
+            }
+            throw e;
+        }
+        if (fetched == null) {
+            if (cached == null) {
+                throw new ServiceClientException(service, 304, "Unexpected 304 for group " + groupId);
+            }
+            return cached;
+        }
+        return remember(fetched);
+    }
+
+    /**
+     * Описания нескольких групп: один POST /groups/batch на каждые maxBatchSize id вместо вызова на группу.
+     * Группы, которых нет или в которых пользователь не состоит, в ответ не попадают. Полученные описания
+     * обновляют кэш.
+     */
+    public List<GroupDescriptor> getGroupDescriptors(String authHeader, Collection<Long> groupIds) {
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(groupIds));
+        List<GroupDescriptor> result = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += maxBatchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + maxBatchSize, ids.size()));
+            HttpRequest.BodyPublisher body = httpClient.body(batch);
+            GroupDescriptor[] fetched = httpClient.call(service, "get-groups-batch", "/groups/batch",
+                    builder -> builder.header("Authorization", authHeader).POST(body), GroupDescriptor[].class);
+            for (GroupDescriptor descriptor : fetched) {
+                result.add(remember(descriptor));
+            }
+        }
+        return result;
+    }
+
+    // Параллельный запрос мог уже положить более новую версию
+    private GroupDescriptor remember(GroupDescriptor fetched) {
+        return descriptors.asMap().merge(fetched.getId(), fetched,
+                (current, loaded) -> loaded.getVersion() >= current.getVersion() ? loaded : current);
+    }
+}
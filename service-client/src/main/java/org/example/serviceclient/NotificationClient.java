@@ -0,0 +1,57 @@
+package org.example.serviceclient;
+
+import org.example.serviceclient.request.BulkNotificationRequest;
+import org.example.serviceclient.request.NotificationRequest;
+
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Вызовы notification-service. Токены устройств и отправка в FCM — на его стороне.
+ */
+public class NotificationClient {
+
+    public static final String service = "notification-service";
+
+    private final ServiceHttpClient httpClient;
+
+    public NotificationClient(ServiceHttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    public void sendToUser(String userId, NotificationRequest request) {
+        HttpRequest.BodyPublisher body = httpClient.body(request);
+        httpClient.call(service, "notify-user", "/users/" + encode(userId) + "/notifications",
+                builder -> builder.POST(body), Void.class);
+    }
+
+    // Один запрос на всех получателей; groupId не null — пользователю придет дайджест по группе
+    public void sendToUsers(List<String> userIds, Long groupId, NotificationRequest request) {
+        HttpRequest.BodyPublisher body = httpClient.body(new BulkNotificationRequest(userIds, request.getTitle(),
+                request.getMessage(), groupId));
+        httpClient.call(service, "notify-users", "/users/notifications",
+                builder -> builder.POST(body), Void.class);
+    }
+
+    public void sendToGroup(Long groupId, NotificationRequest request) {
+        HttpRequest.BodyPublisher body = httpClient.body(request);
+        httpClient.call(service, "notify-group", "/groups/" + groupId + "/notifications",
+                builder -> builder.POST(body), Void.class);
+    }
+
+    public void subscribeToGroup(Long groupId, String userId) {
+        httpClient.call(service, "subscribe", "/groups/" + groupId + "/members/" + encode(userId),
+                builder -> builder.POST(HttpRequest.BodyPublishers.noBody()), Void.class);
+    }
+
+    public void unsubscribeFromGroup(Long groupId, String userId) {
+        httpClient.call(service, "unsubscribe", "/groups/" + groupId + "/members/" + encode(userId),
+                builder -> builder.DELETE(), Void.class);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.serviceclient;
+
+import java.time.Duration;
+
+/**
+ * Оставшийся бюджет времени текущего запроса. Задается RequestDeadlineFilter из заголовка
+ * X-Request-Timeout (миллисекунды, ставит gateway) и хранится в потоке, обрабатывающем запрос.
+ * ServiceHttpClient сокращает по нему таймауты вызовов, передает остаток дальше и не начинает вызов,
+ * когда бюджет исчерпан. В фоновых задачах бюджета нет — действуют таймауты service-client.timeouts.
+ */
+public final class RequestDeadline {
+
+    public static final String header = "X-Request-Timeout";
+
+    // Момент по System.nanoTime: не зависит от перевода часов
+    private static final ThreadLocal<Long> deadline = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    public static void start(Duration budget) {
+        deadline.set(System.nanoTime() + budget.toNanos());
+    }
+
+    public static void clear() {
+        deadline.remove();
+    }
+
+    // null — бюджета нет
+    public static Duration remaining() {
+        Long at = deadline.get();
+        return at == null ? null : Duration.ofNanos(at - System.nanoTime());
+    }
+
+    public static boolean isExpired() {
+        Duration remaining = remaining();
+        return remaining != null && (remaining.isNegative() || remaining.isZero());
+    }
+
+    // Разбор значения заголовка; null — заголовка нет или он некорректен
+    static Duration parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Duration.ofMillis(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.serviceclient;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Принимает бюджет запроса из X-Request-Timeout. Запрос, бюджет которого исчерпан еще до начала
+ * обработки (долго стоял в очереди), сразу получает 504: вызывающий ответа уже не ждет.
+ */
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Duration budget = RequestDeadline.parse(request.getHeader(RequestDeadline.header));
+        if (budget == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (budget.isNegative() || budget.isZero()) {
+            response.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT, "Request deadline exceeded");
+            return;
+        }
+        RequestDeadline.start(budget);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.serviceclient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Подключается в любом сервисе, где service-client есть в зависимостях.
+ */
+@AutoConfiguration(afterName = "org.springframework.cloud.loadbalancer.config.BlockingLoadBalancerClientAutoConfiguration")
+@EnableConfigurationProperties(ServiceClientProperties.class)
+public class ServiceClientAutoConfiguration {
+
+    /**
+     * service-client.discovery.enabled=true — экземпляры из Eureka через LoadBalancerClient, без gateway.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(LoadBalancerClient.class)
+    @ConditionalOnProperty(prefix = "service-client.discovery", name = "enabled", havingValue = "true")
+    static class DiscoveryConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(ServiceResolver.class)
+        public ServiceResolver discoveryServiceResolver(LoadBalancerClient loadBalancerClient) {
+            return new DiscoveryServiceResolver(loadBalancerClient);
+        }
+    }
+
+    /**
+     * Бюджет входящего запроса (X-Request-Timeout) — до security и остальных фильтров.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(OncePerRequestFilter.class)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class RequestDeadlineConfiguration {
+
+        @Bean
+        public FilterRegistrationBean<RequestDeadlineFilter> requestDeadlineFilter() {
+            FilterRegistrationBean<RequestDeadlineFilter> registration =
+                    new FilterRegistrationBean<>(new RequestDeadlineFilter());
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+            return registration;
+        }
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ServiceResolver gatewayServiceResolver(ServiceClientProperties properties) {
+        return new GatewayServiceResolver(properties.getBaseUrl());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ServiceHttpClient serviceHttpClient(ServiceClientProperties properties, ServiceResolver serviceResolver,
+                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        // Без actuator метрики пишутся в глобальный реестр
+        return new ServiceHttpClient(properties, serviceResolver,
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public GroupsClient groupsClient(ServiceHttpClient serviceHttpClient, ServiceClientProperties properties) {
+        return new GroupsClient(serviceHttpClient, properties.getGroupDescriptorCacheSize());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public AuthClient authClient(ServiceHttpClient serviceHttpClient) {
+        return new AuthClient(serviceHttpClient);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public NotificationClient notificationClient(ServiceHttpClient serviceHttpClient) {
+        return new NotificationClient(serviceHttpClient);
+    }
+}
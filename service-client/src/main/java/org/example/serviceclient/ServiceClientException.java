@@ -0,0 +1,42 @@
+package org.example.serviceclient;
+
+import lombok.Getter;
+
+/**
+ * Неуспешный вызов другого сервиса. status — код ответа, 0 если ответа не было (сеть, таймаут).
+ */
+@Getter
+public class ServiceClientException extends RuntimeException {
+
+    private final String service;
+
+    private final int status;
+
+    private final boolean timedOut;
+
+    public ServiceClientException(String service, int status, String message) {
+        super(message);
+        this.service = service;
+        this.status = status;
+        this.timedOut = false;
+    }
+
+    public ServiceClientException(String service, boolean timedOut, String message, Throwable cause) {
+        super(message, cause);
+        this.service = service;
+        this.status = 0;
+        this.timedOut = timedOut;
+    }
+
+    public boolean isNotFound() {
+        return status == 404;
+    }
+
+    // Код ответа вызывающему: ошибки клиента передаются как есть, отказ сервиса — 502, таймаут — 504
+    public int responseStatus() {
+        if (timedOut) {
+            return 504;
+        }
+        return status >= 400 && status < 500 ? status : 502;
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.serviceclient;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "service-client")
+public class ServiceClientProperties {
+
+    // Адрес gateway, за которым сервисы доступны по /{serviceId}/...; при discovery не используется
+    private String baseUrl = "http://localhost:8080";
+
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    // Таймаут вызова по умолчанию
+    private Duration timeout = Duration.ofSeconds(10);
+
+    // Таймауты отдельных вызовов, ключ — имя вызова (get-group, current-user, notify-users ...)
+    private Map<String, Duration> timeouts = new HashMap<>();
+
+    // Потоки HttpClient для приема ответов
+    private int threads = 8;
+
+    // Бинарный CBOR вместо JSON в телах запросов и (если сервер поддерживает) ответов.
+    // false — только JSON, например пока часть сервисов обновлена без jackson-dataformat-cbor
+    private boolean cbor = true;
+
+    // Общий секрет вызовов между сервисами: уходит в заголовке X-Service-Token, по нему notification-service
+    // пускает к внутренним методам (рассылки, подписки на топики). Пусто — заголовок не отправляется
+    private String serviceToken;
+
+    // Сколько описаний групп держит GroupsClient
+    private long groupDescriptorCacheSize = 10_000;
+
+    private Hedging hedging = new Hedging();
+
+    public Duration timeoutOf(String endpoint) {
+        return timeouts.getOrDefault(endpoint, timeout);
+    }
+
+    /**
+     * Повторные (hedged) GET: если ответа нет дольше p95 успешных вызовов, отправляется вторая попытка,
+     * берется первый ответ. Только для идемпотентных вызовов из endpoints.
+     */
+    @Data
+    public static class Hedging {
+
+        private boolean enabled = false;
+
+        private Set<String> endpoints = new HashSet<>(Set.of("get-group", "get-group-descriptor"));
+
+        // Нижняя граница задержки второй попытки
+        private Duration minDelay = Duration.ofMillis(20);
+
+        // Пока успешных вызовов меньше, p95 не считается надежным и вторая попытка не отправляется
+        private long minSamples = 100;
+
+        // Доля вызовов со второй попыткой, выше которой новые не отправляются (защита от лавины при деградации)
+        private double maxRatio = 0.1;
+    }
+}
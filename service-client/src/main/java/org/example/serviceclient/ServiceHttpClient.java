@@ -0,0 +1,343 @@
+package org.example.serviceclient;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Общий HTTP-клиент для вызовов между сервисами.
+ * <ul>
+ *     <li>адрес сервиса дает ServiceResolver: экземпляр из Eureka напрямую или gateway;</li>
+ *     <li>один HttpClient на приложение: соединения переиспользуются, по HTTP/2 (h2c) запросы к одному
+ *     адресу идут по одному соединению, если сервер не поддерживает h2c — пул keep-alive HTTP/1.1;</li>
+ *     <li>тела запросов — CBOR (service-client.cbor), ответ запрашивается в CBOR с JSON как запасным
+ *     вариантом и разбирается Jackson прямо из InputStream, без промежуточной строки;</li>
+ *     <li>у каждого вызова свой таймаут (service-client.timeouts.{endpoint}), но не больше остатка бюджета
+ *     запроса (RequestDeadline), остаток передается вызываемому сервису в X-Request-Timeout;</li>
+ *     <li>service-client.service-token, если задан, передается в X-Service-Token;</li>
+ *     <li>для GET из service-client.hedging.endpoints — вторая попытка после p95 (service-client.hedging);</li>
+ *     <li>таймер service.client.requests{service, endpoint, outcome, status, retry, hedged}.</li>
+ * </ul>
+ */
+public class ServiceHttpClient implements AutoCloseable {
+
+    private static final int maxErrorBody = 512;
+
+    private final ServiceClientProperties properties;
+
+    private final ServiceResolver serviceResolver;
+
+    private final MeterRegistry meterRegistry;
+
+    public static final String serviceTokenHeader = "X-Service-Token";
+
+    private static final String cbor = "application/cbor";
+
+    private static final String json = "application/json";
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectMapper cborMapper;
+
+    private final ExecutorService executor;
+
+    private final HttpClient httpClient;
+
+    private final LongAdder hedgeCandidates = new LongAdder();
+
+    private final LongAdder hedgesSent = new LongAdder();
+
+    public ServiceHttpClient(ServiceClientProperties properties, ServiceResolver serviceResolver,
+                             MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.serviceResolver = serviceResolver;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = configure(new ObjectMapper());
+        this.cborMapper = configure(new CBORMapper());
+        this.executor = Executors.newFixedThreadPool(properties.getThreads());
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(properties.getConnectTimeout())
+                .executor(executor)
+                .build();
+    }
+
+    private static <M extends ObjectMapper> M configure(M mapper) {
+        mapper.registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                // Новое поле в ответе другого сервиса не должно ломать вызов
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        return mapper;
+    }
+
+    // Тело запроса в формате service-client.cbor: CBOR или JSON
+    public HttpRequest.BodyPublisher body(Object body) {
+        if (body == null) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        try {
+            ObjectMapper mapper = properties.isCbor() ? cborMapper : objectMapper;
+            return HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot serialize " + body.getClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Выполняет запрос к path сервиса и разбирает ответ в type (Void — тело не нужно), на 304 возвращает null.
+     * Адрес экземпляра выбирает ServiceResolver; если соединение не установилось (экземпляр остановлен,
+     * а реестр еще не обновился), запрос один раз повторяется на другом экземпляре — до него он не дошел.
+     * Любой ответ кроме 2xx, ошибка сети, таймаут и исчерпанный бюджет запроса — ServiceClientException.
+     */
+    public <T> T call(String service, String endpoint, String path,
+                      UnaryOperator<HttpRequest.Builder> request, Class<T> type) {
+        try {
+            return call(service, endpoint, path, request, type, false);
+        } catch (ServiceClientException e) {
+            if (!(e.getCause() instanceof ConnectException)) {
+                throw e;
+            }
+            return call(service, endpoint, path, request, type, true);
+        }
+    }
+
+    private <T> T call(String service, String endpoint, String path,
+                       UnaryOperator<HttpRequest.Builder> request, Class<T> type, boolean retry) {
+        Duration timeout = properties.timeoutOf(endpoint);
+        Duration remaining = RequestDeadline.remaining();
+        if (remaining != null && remaining.compareTo(timeout) < 0) {
+            timeout = remaining;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "IO_ERROR";
+        String status = "NONE";
+        boolean hedged = false;
+        try {
+            // Вызывающий ответа уже не ждет — вызов не начинаем
+            if (RequestDeadline.isExpired()) {
+                outcome = "DEADLINE_EXCEEDED";
+                throw new ServiceClientException(service, true, service + " " + endpoint + ": request deadline exceeded",
+                        null);
+            }
+            Duration callTimeout = timeout;
+            Supplier<HttpRequest> httpRequest = () -> build(service, path, request, callTimeout);
+            HttpRequest first = httpRequest.get();
+            Duration hedgeDelay = hedgeDelay(service, endpoint, first, callTimeout);
+            HttpResponse<InputStream> response;
+            if (hedgeDelay == null) {
+                response = httpClient.send(first, HttpResponse.BodyHandlers.ofInputStream());
+            } else {
+                HedgedResponse hedgedResponse = sendHedged(service, endpoint, first, httpRequest, hedgeDelay);
+                hedged = hedgedResponse.hedged();
+                response = hedgedResponse.response();
+            }
+            status = String.valueOf(response.statusCode());
+            try (InputStream body = response.body()) {
+                // Условный запрос (If-None-Match): у вызывающего актуальная копия
+                if (response.statusCode() == 304) {
+                    outcome = "NOT_MODIFIED";
+                    return null;
+                }
+                // Формат ответа выбрал сервер: CBOR, если он его поддерживает, иначе JSON
+                boolean cborResponse = response.headers().firstValue("Content-Type")
+                        .filter(contentType -> contentType.startsWith(cbor)).isPresent();
+                if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                    outcome = response.statusCode() < 500 ? "CLIENT_ERROR" : "SERVER_ERROR";
+                    throw new ServiceClientException(service, response.statusCode(),
+                            String.format("%s %s: %d %s", service, endpoint, response.statusCode(),
+                                    errorBody(body, cborResponse)));
+                }
+                T result = type == Void.class ? null
+                        : (cborResponse ? cborMapper : objectMapper).readValue(body, type);
+                outcome = "SUCCESS";
+                return result;
+            }
+        } catch (HttpTimeoutException e) {
+            outcome = "TIMEOUT";
+            throw new ServiceClientException(service, true, service + " " + endpoint + " timed out", e);
+        } catch (IOException e) {
+            throw new ServiceClientException(service, false, service + " " + endpoint + ": " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceClientException(service, false, service + " " + endpoint + " interrupted", e);
+        } finally {
+            sample.stop(Timer.builder("service.client.requests")
+                    .tags("service", service, "endpoint", endpoint, "outcome", outcome, "status", status,
+                            "retry", String.valueOf(retry), "hedged", String.valueOf(hedged))
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+    }
+
+    // Начало тела ошибки для сообщения; ошибка в CBOR переводится в JSON
+    private String errorBody(InputStream body, boolean cborResponse) throws IOException {
+        byte[] bytes = body.readNBytes(maxErrorBody);
+        if (cborResponse) {
+            try {
+                return cborMapper.readTree(bytes).toString();
+            } catch (IOException e) {
+                return "<" + bytes.length + " bytes of CBOR>";
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Каждый вызов заново спрашивает адрес: вторая попытка обычно уходит на другой экземпляр
+    private HttpRequest build(String service, String path, UnaryOperator<HttpRequest.Builder> request,
+                              Duration timeout) {
+        HttpRequest.Builder builder = request.apply(HttpRequest.newBuilder(serviceResolver.resolve(service, path)))
+                .timeout(timeout)
+                .header("Accept", properties.isCbor() ? cbor + ", " + json + ";q=0.9" : json)
+                .header("Content-Type", properties.isCbor() ? cbor : json);
+        if (properties.getServiceToken() != null && !properties.getServiceToken().isBlank()) {
+            builder.header(serviceTokenHeader, properties.getServiceToken());
+        }
+        Duration remaining = RequestDeadline.remaining();
+        if (remaining != null) {
+            builder.header(RequestDeadline.header, String.valueOf(Math.max(remaining.toMillis(), 0)));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Задержка второй попытки — p95 успешных вызовов endpoint; null — вызов без второй попытки
+     * (выключено, не GET, мало данных, превышена доля или бюджета не хватит на вторую попытку).
+     */
+    private Duration hedgeDelay(String service, String endpoint, HttpRequest request, Duration timeout) {
+        ServiceClientProperties.Hedging hedging = properties.getHedging();
+        if (!hedging.isEnabled() || !"GET".equals(request.method()) || !hedging.getEndpoints().contains(endpoint)) {
+            return null;
+        }
+        hedgeCandidates.increment();
+        if (hedgesSent.sum() >= hedging.getMaxRatio() * hedgeCandidates.sum()) {
+            return null;
+        }
+        Timer timer = meterRegistry.find("service.client.requests")
+                .tags("service", service, "endpoint", endpoint, "outcome", "SUCCESS", "retry", "false",
+                        "hedged", "false")
+                .timer();
+        if (timer == null || timer.count() < hedging.getMinSamples()) {
+            return null;
+        }
+        for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == 0.95) {
+                Duration delay = Duration.ofNanos((long) percentile.value(TimeUnit.NANOSECONDS));
+                delay = delay.compareTo(hedging.getMinDelay()) < 0 ? hedging.getMinDelay() : delay;
+                return delay.compareTo(timeout) < 0 ? delay : null;
+            }
+        }
+        return null;
+    }
+
+    private HedgedResponse sendHedged(String service, String endpoint, HttpRequest first,
+                                      Supplier<HttpRequest> second, Duration delay)
+            throws IOException, InterruptedException {
+        CompletableFuture<HttpResponse<InputStream>> primary =
+                httpClient.sendAsync(first, HttpResponse.BodyHandlers.ofInputStream());
+        try {
+            return new HedgedResponse(primary.get(delay.toNanos(), TimeUnit.NANOSECONDS), false);
+        } catch (TimeoutException e) {
+            // Ответа нет дольше p95 — отправляем вторую попытку
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+        HttpRequest hedgeRequest;
+        try {
+            hedgeRequest = second.get();
+        } catch (ServiceClientException e) {
+            // Некуда отправить вторую попытку — ждем первую
+            try {
+                return new HedgedResponse(primary.get(), false);
+            } catch (ExecutionException executionException) {
+                throw unwrap(executionException);
+            }
+        }
+        hedgesSent.increment();
+        meterRegistry.counter("service.client.hedges", "service", service, "endpoint", endpoint).increment();
+        CompletableFuture<HttpResponse<InputStream>> hedge =
+                httpClient.sendAsync(hedgeRequest, HttpResponse.BodyHandlers.ofInputStream());
+        CompletableFuture<HttpResponse<InputStream>> winner = firstSuccessful(primary, hedge);
+        try {
+            return new HedgedResponse(winner.get(), true);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } finally {
+            // Проигравшая попытка больше не нужна; ее тело закрывает firstSuccessful
+            primary.cancel(true);
+            hedge.cancel(true);
+        }
+    }
+
+    // Первый полученный ответ; ошибка — только если не удались обе попытки
+    private static CompletableFuture<HttpResponse<InputStream>> firstSuccessful(
+            CompletableFuture<HttpResponse<InputStream>> primary, CompletableFuture<HttpResponse<InputStream>> hedge) {
+        CompletableFuture<HttpResponse<InputStream>> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<HttpResponse<InputStream>> attempt : List.of(primary, hedge)) {
+            attempt.whenComplete((response, error) -> {
+                if (error == null) {
+                    if (!result.complete(response)) {
+                        closeQuietly(response.body());
+                    }
+                } else if (failures.incrementAndGet() == 2) {
+                    result.completeExceptionally(error);
+                }
+            });
+        }
+        return result;
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+        if (cause instanceof IOException io) {
+            return io;
+        }
+        if (cause instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        return new IOException(cause);
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            // Соединение и так будет закрыто
+        }
+    }
+
+    private record HedgedResponse(HttpResponse<InputStream> response, boolean hedged) {
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.serviceclient;
+
+import java.net.URI;
+
+/**
+ * Адрес вызова path сервиса service. Вызывается на каждый запрос, так что реализация может
+ * распределять запросы между экземплярами.
+ */
+public interface ServiceResolver {
+
+    URI resolve(String service, String path);
+}
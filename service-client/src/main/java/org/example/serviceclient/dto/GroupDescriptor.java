@@ -0,0 +1,34 @@
+package org.example.serviceclient.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Краткое описание группы для проверок доступа в других сервисах (GET /groups/{groupId}/descriptor).
+ * Без расходов, поэтому размер не зависит от истории группы. version растет при любом изменении
+ * группы и ее состава и служит ETag.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class GroupDescriptor {
+    private Long id;
+    private long version;
+    private String name;
+    private boolean closed;
+    private String ownerId;
+    private List<String> memberIds;
+
+    public boolean hasMember(String userId) {
+        return memberIds != null && memberIds.contains(userId);
+    }
+
+    public static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.serviceclient.outbox;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Уведомление, ожидающее отправки в notification-service.
+ * Пишется в той же транзакции, что и изменение домена, отправляется NotificationOutboxDispatcher.
+ * Таблица общая для всех сервисов, строки различаются по source (spring.application.name).
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "notification_outbox",
+        indexes = {
+                @Index(name = "idx_notification_outbox_source_available", columnList = "source, available_at"),
+                @Index(name = "idx_notification_outbox_membership", columnList = "group_id, user_id")
+        })
+public class NotificationOutbox {
+
+    public enum Kind {
+        USER,        // уведомление пользователю user_id
+        GROUP,       // рассылка в топик группы group_id
+        SUBSCRIBE,   // подписка устройств user_id на топик группы group_id
+        UNSUBSCRIBE;
+
+        public boolean isMembership() {
+            return this == SUBSCRIBE || this == UNSUBSCRIBE;
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "source", nullable = false, length = 64)
+    private String source;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false, length = 16)
+    private Kind kind = Kind.USER;
+
+    @Column(name = "user_id")
+    private String userId;
+
+    @Column(name = "group_id")
+    private Long groupId;
+
+    @Column(name = "title")
+    private String title;
+
+    @Column(name = "message", length = 1000)
+    private String message;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Раньше этого времени строку не забирают (отложенный повтор после ошибки)
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt = createdAt;
+
+    // Пока не истекло, строку отправляет забравший ее экземпляр
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    // Не доставлено за max-attempts попыток: строка остается для разбора и больше не забирается
+    @Column(name = "failed_at")
+    private LocalDateTime failedAt;
+
+    public NotificationOutbox(String source, String userId, String title, String message) {
+        this(source, Kind.USER, null, userId, title, message);
+    }
+
+    public NotificationOutbox(String source, Kind kind, Long groupId, String userId, String title, String message) {
+        this.source = source;
+        this.kind = kind;
+        this.groupId = groupId;
+        this.userId = userId;
+        this.title = title;
+        this.message = message;
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.serviceclient.outbox;
+
+import org.example.serviceclient.NotificationClient;
+import org.example.serviceclient.ServiceClientAutoConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Duration;
+
+/**
+ * Outbox уведомлений для сервисов, которые ставят их в своей транзакции: notification.outbox.enabled=true.
+ * Пакет outbox добавляется к пакетам автоконфигурации, поэтому NotificationOutbox и его репозиторий
+ * подхватываются вместе с сущностями сервиса без @EntityScan.
+ */
+@AutoConfiguration(after = ServiceClientAutoConfiguration.class,
+        before = {HibernateJpaAutoConfiguration.class, JpaRepositoriesAutoConfiguration.class})
+@ConditionalOnClass(JpaRepository.class)
+@ConditionalOnProperty(prefix = "notification.outbox", name = "enabled", havingValue = "true")
+@AutoConfigurationPackage(basePackageClasses = NotificationOutbox.class)
+public class NotificationOutboxAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public NotificationOutboxService notificationOutboxService(NotificationOutboxRepository outboxRepository,
+                                                               @Value("${spring.application.name}") String source) {
+        return new NotificationOutboxService(outboxRepository, source);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public NotificationOutboxDispatcher notificationOutboxDispatcher(
+            NotificationOutboxService outboxService,
+            NotificationClient notificationClient,
+            @Value("${notification.outbox.threads:16}") int threads,
+            @Value("${notification.outbox.batch-size:100}") int batchSize,
+            @Value("${notification.outbox.lease:PT1M}") Duration lease,
+            @Value("${notification.outbox.max-attempts:8}") int maxAttempts) {
+        return new NotificationOutboxDispatcher(outboxService, notificationClient,
+                threads, batchSize, lease, maxAttempts);
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.serviceclient.outbox;
+
+import jakarta.annotation.PreDestroy;
+import org.example.serviceclient.NotificationClient;
+import org.example.serviceclient.request.NotificationRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Фоновая отправка уведомлений из notification_outbox.
+ * Уведомления пачки группируются по содержимому и уходят bulk-запросами параллельно на ограниченном пуле,
+ * так что число одновременных запросов к notification-service ограничено.
+ */
+public class NotificationOutboxDispatcher {
+
+    static Logger logger = Logger.getLogger(String.valueOf(NotificationOutboxDispatcher.class));
+
+    private static final Duration maxBackoff = Duration.ofMinutes(10);
+
+    private final NotificationOutboxService outboxService;
+
+    private final NotificationClient notificationClient;
+
+    private final ExecutorService executor;
+
+    private final int batchSize;
+
+    private final Duration lease;
+
+    private final int maxAttempts;
+
+    public NotificationOutboxDispatcher(NotificationOutboxService outboxService,
+                                        NotificationClient notificationClient,
+                                        int threads, int batchSize, Duration lease, int maxAttempts) {
+        this.outboxService = outboxService;
+        this.notificationClient = notificationClient;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.outbox.poll-interval:PT1S}")
+    public void dispatch() {
+        List<NotificationOutbox> batch;
+        // Полная пачка — значит, в очереди есть еще, забираем следующую без ожидания
+        do {
+            batch = outboxService.claimBatch(batchSize, lease);
+            // Подписки и отписки — до рассылок из той же пачки. Для пары (группа, пользователь) в пачке не больше
+            // одной строки: следующая забирается только после отправки предыдущей (lockNextBatch)
+            batch.stream()
+                    .filter(n -> n.getKind().isMembership())
+                    .forEach(n -> send(List.of(n)));
+            // Одно и то же уведомление разным пользователям уходит одним запросом
+            Map<List<Object>, List<NotificationOutbox>> byPayload = batch.stream()
+                    .filter(n -> !n.getKind().isMembership())
+                    .collect(Collectors.groupingBy(NotificationOutboxDispatcher::payloadKey,
+                            LinkedHashMap::new, Collectors.toList()));
+            CompletableFuture.allOf(byPayload.values().stream()
+                            .map(notifications -> CompletableFuture.runAsync(() -> send(notifications), executor))
+                            .toArray(CompletableFuture[]::new))
+                    .join();
+        } while (batch.size() == batchSize);
+    }
+
+    private static List<Object> payloadKey(NotificationOutbox notification) {
+        return notification.getKind() == NotificationOutbox.Kind.USER
+                ? Arrays.asList(notification.getKind(), notification.getGroupId(),
+                        notification.getTitle(), notification.getMessage())
+                : List.of(notification.getKind(), notification.getId());
+    }
+
+    private void send(List<NotificationOutbox> notifications) {
+        NotificationOutbox first = notifications.get(0);
+        try {
+            switch (first.getKind()) {
+                case USER -> notificationClient.sendToUsers(
+                        notifications.stream().map(NotificationOutbox::getUserId).distinct().toList(),
+                        first.getGroupId(), new NotificationRequest(first.getTitle(), first.getMessage()));
+                case GROUP -> notificationClient.sendToGroup(first.getGroupId(),
+                        new NotificationRequest(first.getTitle(), first.getMessage()));
+                case SUBSCRIBE -> notificationClient.subscribeToGroup(first.getGroupId(), first.getUserId());
+                case UNSUBSCRIBE -> notificationClient.unsubscribeFromGroup(first.getGroupId(), first.getUserId());
+            }
+            outboxService.markSent(notifications);
+        } catch (RuntimeException e) {
+            for (NotificationOutbox notification : notifications) {
+                if (notification.getAttempts() >= maxAttempts) {
+                    logger.warning(String.format("Notification %d (%s) failed after %d attempts: %s",
+                            notification.getId(), notification.getKind(), notification.getAttempts(),
+                            e.getMessage()));
+                    outboxService.markFailed(notification, e.getMessage());
+                } else {
+                    outboxService.scheduleRetry(notification, backoff(notification.getAttempts()), e.getMessage());
+                }
+            }
+        }
+    }
+
+    // 2, 4, 8 ... секунд, но не больше maxBackoff
+    static Duration backoff(int attempts) {
+        Duration delay = Duration.ofSeconds(1L << Math.min(attempts, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.serviceclient.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    // SKIP LOCKED: параллельные экземпляры сервиса забирают непересекающиеся пачки.
+    // Подписка/отписка пары (group_id, user_id) не забирается, пока есть более ранняя неотправленная строка
+    // той же пары: повтор упавшей подписки не обгонит отписку после него, в том числе на другом экземпляре
+    @Query(value = "SELECT * FROM notification_outbox o " +
+            "WHERE o.source = :source AND o.failed_at IS NULL AND o.available_at <= :now " +
+            "AND (o.locked_until IS NULL OR o.locked_until < :now) " +
+            "AND NOT (o.kind IN ('SUBSCRIBE', 'UNSUBSCRIBE') AND EXISTS (" +
+            "SELECT 1 FROM notification_outbox e WHERE e.source = o.source " +
+            "AND e.kind IN ('SUBSCRIBE', 'UNSUBSCRIBE') AND e.group_id = o.group_id AND e.user_id = o.user_id " +
+            "AND e.id < o.id AND e.failed_at IS NULL)) " +
+            "ORDER BY o.id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<NotificationOutbox> lockNextBatch(@Param("source") String source,
+                                           @Param("now") LocalDateTime now,
+                                           @Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.availableAt = :retryAt, o.lockedUntil = null, o.lastError = :error " +
+            "WHERE o.id = :id")
+    void scheduleRetry(@Param("id") Long id,
+                       @Param("retryAt") LocalDateTime retryAt,
+                       @Param("error") String error);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.failedAt = :failedAt, o.lockedUntil = null, o.lastError = :error " +
+            "WHERE o.id = :id")
+    void markFailed(@Param("id") Long id,
+                    @Param("failedAt") LocalDateTime failedAt,
+                    @Param("error") String error);
+}
@@ -0,0 +1,91 @@
+package org.example.serviceclient.outbox;
+
+import org.example.serviceclient.request.NotificationRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Постановка уведомлений в outbox. Вызывается внутри транзакции доменной операции,
+ * поэтому уведомление уходит только если изменение закоммичено, а запрос не ждет notification-service.
+ */
+public class NotificationOutboxService {
+
+    private final NotificationOutboxRepository outboxRepository;
+
+    private final String source;
+
+    public NotificationOutboxService(NotificationOutboxRepository outboxRepository, String source) {
+        this.outboxRepository = outboxRepository;
+        this.source = source;
+    }
+
+    public void enqueue(String userId, NotificationRequest notificationRequest) {
+        enqueue(userId, null, notificationRequest);
+    }
+
+    // С groupId notification-service объединяет уведомления пользователю по группе в дайджест
+    public void enqueue(String userId, Long groupId, NotificationRequest notificationRequest) {
+        outboxRepository.save(new NotificationOutbox(source, NotificationOutbox.Kind.USER, groupId, userId,
+                notificationRequest.getTitle(), notificationRequest.getMessage()));
+    }
+
+    // Одно и то же уведомление нескольким пользователям; диспетчер отправит его одним запросом
+    public void enqueue(Collection<String> userIds, NotificationRequest notificationRequest) {
+        outboxRepository.saveAll(userIds.stream()
+                .map(userId -> new NotificationOutbox(source, userId,
+                        notificationRequest.getTitle(), notificationRequest.getMessage()))
+                .toList());
+    }
+
+    // Одна рассылка в топик group-{id} вместо уведомления каждому участнику
+    public void enqueueForGroup(Long groupId, NotificationRequest notificationRequest) {
+        outboxRepository.save(new NotificationOutbox(source, NotificationOutbox.Kind.GROUP, groupId, null,
+                notificationRequest.getTitle(), notificationRequest.getMessage()));
+    }
+
+    public void subscribe(Long groupId, String userId) {
+        outboxRepository.save(new NotificationOutbox(source, NotificationOutbox.Kind.SUBSCRIBE, groupId, userId,
+                null, null));
+    }
+
+    public void unsubscribe(Long groupId, String userId) {
+        outboxRepository.save(new NotificationOutbox(source, NotificationOutbox.Kind.UNSUBSCRIBE, groupId, userId,
+                null, null));
+    }
+
+    /**
+     * Забирает пачку готовых к отправке уведомлений и продлевает на них аренду.
+     * Если экземпляр упадет во время отправки, после lease строки заберет другой.
+     */
+    @Transactional
+    public List<NotificationOutbox> claimBatch(int batchSize, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutbox> batch = outboxRepository.lockNextBatch(source, now, batchSize);
+        LocalDateTime lockedUntil = now.plus(lease);
+        for (NotificationOutbox notification : batch) {
+            notification.setLockedUntil(lockedUntil);
+            notification.setAttempts(notification.getAttempts() + 1);
+        }
+        return batch;
+    }
+
+    public void markSent(List<NotificationOutbox> notifications) {
+        outboxRepository.deleteAllByIdInBatch(notifications.stream().map(NotificationOutbox::getId).toList());
+    }
+
+    public void markFailed(NotificationOutbox notification, String error) {
+        outboxRepository.markFailed(notification.getId(), LocalDateTime.now(), truncate(error));
+    }
+
+    public void scheduleRetry(NotificationOutbox notification, Duration delay, String error) {
+        outboxRepository.scheduleRetry(notification.getId(), LocalDateTime.now().plus(delay), truncate(error));
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+}
@@ -1,15 +1,19 @@
-package org.example.expensesservice.request;
+package org.example.serviceclient.request;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.util.List;
+
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-public class NotificationRequest {
+public class BulkNotificationRequest {
+    private List<String> userIds;
     private String title;
     private String message;
-}
\ No newline at end of file
+    private Long groupId;
+}
@@ -1,4 +1,4 @@
-package org.example.groupsservice.request;
+package org.example.serviceclient.request;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -12,4 +12,4 @@ import lombok.Setter;
 public class NotificationRequest {
     private String title;
     private String message;
-}
\ No newline at end of file
+}
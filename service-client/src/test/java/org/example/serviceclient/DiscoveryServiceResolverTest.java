@@ -0,0 +1,45 @@
+package org.example.serviceclient;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DiscoveryServiceResolverTest {
+
+    @Mock
+    private LoadBalancerClient loadBalancerClient;
+
+    @InjectMocks
+    private DiscoveryServiceResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void resolve_shouldCallChosenInstanceDirectly() {
+        when(loadBalancerClient.choose("groups-service")).thenReturn(
+                new DefaultServiceInstance("groups-1", "groups-service", "10.0.0.5", 41234, false));
+
+        URI uri = resolver.resolve("groups-service", "/groups/7");
+
+        assertThat(uri).isEqualTo(URI.create("http://10.0.0.5:41234/groups/7"));
+    }
+
+    @Test
+    void resolve_shouldThrow_whenNoInstances() {
+        assertThatThrownBy(() -> resolver.resolve("groups-service", "/groups/7"))
+                .isInstanceOfSatisfying(ServiceClientException.class,
+                        e -> assertThat(e.responseStatus()).isEqualTo(502));
+    }
+}
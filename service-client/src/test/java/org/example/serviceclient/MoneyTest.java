@@ -0,0 +1,30 @@
+package org.example.serviceclient;
+
+import org.example.serviceclient.money.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void of_shouldRoundToMinorUnits() {
+        assertThat(Money.of(new BigDecimal("12.345"), "RUB").minorUnits()).isEqualTo(1235L);
+        assertThat(Money.ofMinor(1235L, "RUB").toBigDecimal()).isEqualByComparingTo("12.35");
+    }
+
+    @Test
+    void split_shouldGiveRemainderToFirstShare() {
+        long[] shares = Money.of(new BigDecimal("100.00"), "RUB").split(3);
+
+        assertThat(shares).containsExactly(3334L, 3333L, 3333L);
+    }
+
+    @Test
+    void plus_shouldThrow_whenCurrenciesDiffer() {
+        assertThatThrownBy(() -> Money.zero("RUB").plus(Money.zero("USD")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
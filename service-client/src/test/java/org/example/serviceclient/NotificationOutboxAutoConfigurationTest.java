@@ -0,0 +1,46 @@
+package org.example.serviceclient;
+
+import org.example.serviceclient.outbox.NotificationOutbox;
+import org.example.serviceclient.outbox.NotificationOutboxAutoConfiguration;
+import org.example.serviceclient.outbox.NotificationOutboxDispatcher;
+import org.example.serviceclient.outbox.NotificationOutboxRepository;
+import org.example.serviceclient.outbox.NotificationOutboxService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackages;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class NotificationOutboxAutoConfigurationTest {
+
+    // Конвертер строк в Duration (notification.outbox.lease), как в SpringApplication
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(context -> context.getBeanFactory()
+                    .setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withConfiguration(AutoConfigurations.of(NotificationOutboxAutoConfiguration.class))
+            .withBean(NotificationOutboxRepository.class, () -> mock(NotificationOutboxRepository.class))
+            .withBean(NotificationClient.class, () -> mock(NotificationClient.class))
+            .withPropertyValues("spring.application.name=groups-service");
+
+    @Test
+    void outbox_shouldBeDisabled_byDefault() {
+        contextRunner.run(context -> {
+            assertThat(context).doesNotHaveBean(NotificationOutboxService.class);
+            assertThat(context).doesNotHaveBean(NotificationOutboxDispatcher.class);
+        });
+    }
+
+    @Test
+    void outbox_shouldRegisterEntityPackage_whenEnabled() {
+        contextRunner.withPropertyValues("notification.outbox.enabled=true").run(context -> {
+            assertThat(context).hasSingleBean(NotificationOutboxService.class);
+            assertThat(context).hasSingleBean(NotificationOutboxDispatcher.class);
+            // Иначе Hibernate и Spring Data не найдут NotificationOutbox в пакетах сервиса
+            assertThat(AutoConfigurationPackages.get(context.getBeanFactory()))
+                    .contains(NotificationOutbox.class.getPackageName());
+        });
+    }
+}
@@ -0,0 +1,213 @@
+package org.example.serviceclient;
+
+import org.example.serviceclient.outbox.NotificationOutbox;
+import org.example.serviceclient.outbox.NotificationOutboxDispatcher;
+import org.example.serviceclient.outbox.NotificationOutboxRepository;
+import org.example.serviceclient.outbox.NotificationOutboxService;
+import org.example.serviceclient.request.NotificationRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class NotificationOutboxDispatcherTest {
+
+    @Mock
+    private NotificationOutboxService outboxService;
+
+    @Mock
+    private NotificationClient notificationClient;
+
+    private NotificationOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        dispatcher = new NotificationOutboxDispatcher(outboxService, notificationClient,
+                2, 10, Duration.ofMinutes(1), 3);
+    }
+
+    @Test
+    void dispatch_shouldSendSamePayloadInOneRequest() {
+        NotificationOutbox first = notification(1L, "user1", 1);
+        NotificationOutbox second = notification(2L, "user2", 1);
+        when(outboxService.claimBatch(10, Duration.ofMinutes(1))).thenReturn(List.of(first, second));
+
+        dispatcher.dispatch();
+
+        verify(notificationClient).sendToUsers(eq(List.of("user1", "user2")), isNull(),
+                any(NotificationRequest.class));
+        verify(outboxService).markSent(List.of(first, second));
+    }
+
+    @Test
+    void dispatch_shouldKeepDigestGroupsInSeparateRequests() {
+        NotificationOutbox first = notification(1L, "user1", 1);
+        first.setGroupId(5L);
+        NotificationOutbox second = notification(2L, "user2", 1);
+        second.setGroupId(6L);
+        when(outboxService.claimBatch(10, Duration.ofMinutes(1))).thenReturn(List.of(first, second));
+
+        dispatcher.dispatch();
+
+        verify(notificationClient).sendToUsers(eq(List.of("user1")), eq(5L),
+                any(NotificationRequest.class));
+        verify(notificationClient).sendToUsers(eq(List.of("user2")), eq(6L),
+                any(NotificationRequest.class));
+    }
+
+    @Test
+    void dispatch_shouldBroadcastGroupEventAfterMembershipChanges() {
+        NotificationOutbox broadcast = new NotificationOutbox("groups-service", NotificationOutbox.Kind.GROUP,
+                5L, null, "title", "message");
+        broadcast.setId(1L);
+        NotificationOutbox subscribe = new NotificationOutbox("groups-service", NotificationOutbox.Kind.SUBSCRIBE,
+                5L, "user1", null, null);
+        subscribe.setId(2L);
+        when(outboxService.claimBatch(10, Duration.ofMinutes(1))).thenReturn(List.of(broadcast, subscribe));
+
+        dispatcher.dispatch();
+
+        InOrder inOrder = inOrder(notificationClient);
+        inOrder.verify(notificationClient).subscribeToGroup(5L, "user1");
+        inOrder.verify(notificationClient).sendToGroup(eq(5L), any(NotificationRequest.class));
+        verify(notificationClient, never()).sendToUsers(anyList(), any(), any());
+        verify(outboxService).markSent(List.of(subscribe));
+        verify(outboxService).markSent(List.of(broadcast));
+    }
+
+    @Test
+    void dispatch_shouldDeliverUserNotice_whenMembersUnsubscribedInSameBatch() {
+        NotificationOutbox first = notification(1L, "user1", 1);
+        NotificationOutbox second = notification(2L, "user2", 1);
+        NotificationOutbox unsubscribeFirst = new NotificationOutbox("groups-service",
+                NotificationOutbox.Kind.UNSUBSCRIBE, 5L, "user1", null, null);
+        unsubscribeFirst.setId(3L);
+        NotificationOutbox unsubscribeSecond = new NotificationOutbox("groups-service",
+                NotificationOutbox.Kind.UNSUBSCRIBE, 5L, "user2", null, null);
+        unsubscribeSecond.setId(4L);
+        when(outboxService.claimBatch(10, Duration.ofMinutes(1)))
+                .thenReturn(List.of(first, second, unsubscribeFirst, unsubscribeSecond));
+
+        dispatcher.dispatch();
+
+        // Отписки уходят первыми, но уведомление адресовано пользователям, а не топику group-5
+        InOrder inOrder = inOrder(notificationClient);
+        inOrder.verify(notificationClient).unsubscribeFromGroup(5L, "user1");
+        inOrder.verify(notificationClient).unsubscribeFromGroup(5L, "user2");
+        inOrder.verify(notificationClient).sendToUsers(eq(List.of("user1", "user2")), isNull(),
+                any(NotificationRequest.class));
+        verify(notificationClient, never()).sendToGroup(anyLong(), any());
+        verify(outboxService).markSent(List.of(first, second));
+    }
+
+    @Test
+    void dispatch_shouldScheduleRetry_whenSendFails() {
+        NotificationOutbox notification = notification(1L, "user1", 2);
+        when(outboxService.claimBatch(10, Duration.ofMinutes(1))).thenReturn(List.of(notification));
+        doThrow(new ServiceClientException("notification-service", 503, "503"))
+                .when(notificationClient).sendToUsers(eq(List.of("user1")), isNull(), any(NotificationRequest.class));
+
+        dispatcher.dispatch();
+
+        verify(outboxService).scheduleRetry(notification, Duration.ofSeconds(4), "503");
+        verify(outboxService, never()).markSent(anyList());
+    }
+
+    @Test
+    void dispatch_shouldMarkFailed_whenAttemptsExhausted() {
+        NotificationOutbox notification = notification(1L, "user1", 3);
+        when(outboxService.claimBatch(10, Duration.ofMinutes(1))).thenReturn(List.of(notification));
+        doThrow(new ServiceClientException("notification-service", 503, "503"))
+                .when(notificationClient).sendToUsers(eq(List.of("user1")), isNull(), any(NotificationRequest.class));
+
+        dispatcher.dispatch();
+
+        verify(outboxService).markFailed(notification, "503");
+        verify(outboxService, never()).markSent(anyList());
+        verify(outboxService, never()).scheduleRetry(any(), any(), any());
+    }
+
+    @Test
+    void dispatch_shouldNotLetUnsubscribeOvertakeFailedSubscribe() {
+        NotificationOutboxRepository repository = mock(NotificationOutboxRepository.class);
+        List<NotificationOutbox> table = outboxTable(repository);
+        NotificationOutboxService service = new NotificationOutboxService(repository, "groups-service");
+        NotificationOutboxDispatcher membershipDispatcher = new NotificationOutboxDispatcher(service,
+                notificationClient, 2, 10, Duration.ofMinutes(1), 3);
+        service.subscribe(5L, "user1");
+        service.unsubscribe(5L, "user1");
+        doThrow(new ServiceClientException("notification-service", 503, "503"))
+                .doNothing()
+                .when(notificationClient).subscribeToGroup(5L, "user1");
+
+        // Подписка упала и ждет повтора: отписка за ней не забирается, хотя сама ушла бы успешно
+        membershipDispatcher.dispatch();
+        membershipDispatcher.dispatch();
+        verify(notificationClient, never()).unsubscribeFromGroup(anyLong(), anyString());
+
+        // Время повтора наступило: сначала подписка, затем отписка — пользователь остается отписанным
+        table.get(0).setAvailableAt(LocalDateTime.now().minusSeconds(1));
+        membershipDispatcher.dispatch();
+        membershipDispatcher.dispatch();
+
+        InOrder inOrder = inOrder(notificationClient);
+        inOrder.verify(notificationClient, times(2)).subscribeToGroup(5L, "user1");
+        inOrder.verify(notificationClient).unsubscribeFromGroup(5L, "user1");
+        assertTrue(table.isEmpty());
+    }
+
+    // Таблица outbox в памяти; lockNextBatch повторяет условия запроса репозитория
+    private List<NotificationOutbox> outboxTable(NotificationOutboxRepository repository) {
+        List<NotificationOutbox> table = new ArrayList<>();
+        when(repository.save(any(NotificationOutbox.class))).thenAnswer(inv -> {
+            NotificationOutbox notification = inv.getArgument(0);
+            notification.setId((long) table.size() + 1);
+            table.add(notification);
+            return notification;
+        });
+        when(repository.lockNextBatch(anyString(), any(LocalDateTime.class), anyInt())).thenAnswer(inv -> {
+            LocalDateTime now = inv.getArgument(1);
+            return table.stream()
+                    .filter(n -> n.getFailedAt() == null && !n.getAvailableAt().isAfter(now))
+                    .filter(n -> n.getLockedUntil() == null || n.getLockedUntil().isBefore(now))
+                    .filter(n -> !n.getKind().isMembership() || table.stream().noneMatch(e ->
+                            e.getKind().isMembership() && e.getGroupId().equals(n.getGroupId())
+                                    && e.getUserId().equals(n.getUserId())
+                                    && e.getId() < n.getId() && e.getFailedAt() == null))
+                    .limit((int) inv.getArgument(2))
+                    .toList();
+        });
+        doAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            table.removeIf(n -> ids.contains(n.getId()));
+            return null;
+        }).when(repository).deleteAllByIdInBatch(anyCollection());
+        doAnswer(inv -> {
+            table.stream().filter(n -> n.getId().equals(inv.getArgument(0))).forEach(n -> {
+                n.setAvailableAt(inv.getArgument(1));
+                n.setLockedUntil(null);
+                n.setLastError(inv.getArgument(2));
+            });
+            return null;
+        }).when(repository).scheduleRetry(anyLong(), any(LocalDateTime.class), any());
+        return table;
+    }
+
+    private NotificationOutbox notification(Long id, String userId, int attempts) {
+        NotificationOutbox notification = new NotificationOutbox("groups-service", userId, "title", "message");
+        notification.setId(id);
+        notification.setAttempts(attempts);
+        return notification;
+    }
+}
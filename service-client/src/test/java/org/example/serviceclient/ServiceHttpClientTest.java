@@ -0,0 +1,324 @@
+package org.example.serviceclient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.serviceclient.dto.GroupDescriptor;
+import org.example.serviceclient.request.NotificationRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ServiceHttpClientTest {
+
+    private HttpServer server;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ServiceClientProperties properties;
+
+    private ServiceHttpClient httpClient;
+
+    private final AtomicReference<byte[]> lastBody = new AtomicReference<>();
+
+    private final AtomicReference<String> lastContentType = new AtomicReference<>();
+
+    private final AtomicReference<String> lastServiceToken = new AtomicReference<>();
+
+    private final List<String> ifNoneMatch = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger batchCalls = new AtomicInteger();
+
+    private final AtomicInteger groupCalls = new AtomicInteger();
+
+    private final AtomicInteger slowCalls = new AtomicInteger();
+
+    private final AtomicReference<String> lastDeadline = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/groups-service/groups/1", exchange -> {
+            groupCalls.incrementAndGet();
+            lastDeadline.set(exchange.getRequestHeaders().getFirst(RequestDeadline.header));
+            respond(exchange, 200, "{\"id\":1,\"name\":\"Trip\",\"unknown\":true}");
+        });
+        server.createContext("/groups-service/groups/2", exchange -> respond(exchange, 404, "Group not found"));
+        server.createContext("/groups-service/groups/3", exchange -> {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "{}");
+        });
+        // Первый запрос зависает, следующие отвечают сразу
+        server.createContext("/groups-service/groups/5", exchange -> {
+            if (slowCalls.getAndIncrement() == 0) {
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            respond(exchange, 200, "{\"id\":5}");
+        });
+        server.createContext("/groups-service/groups/1/descriptor", exchange -> {
+            ifNoneMatch.add(String.valueOf(exchange.getRequestHeaders().getFirst("If-None-Match")));
+            if ("\"3\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                respond(exchange, 304, "");
+            } else {
+                respond(exchange, 200, "{\"id\":1,\"version\":3,\"closed\":false,\"memberIds\":[\"user1\"]}");
+            }
+        });
+        server.createContext("/auth-service/users/batch", exchange -> {
+            batchCalls.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            respond(exchange, 200, "[{\"id\":\"user1\",\"username\":\"first\"}]");
+        });
+        server.createContext("/notification-service/users/notifications", exchange -> {
+            lastContentType.set(exchange.getRequestHeaders().getFirst("Content-Type"));
+            lastServiceToken.set(exchange.getRequestHeaders().getFirst(ServiceHttpClient.serviceTokenHeader));
+            lastBody.set(exchange.getRequestBody().readAllBytes());
+            respond(exchange, 202, "");
+        });
+        // Ответ в CBOR, если клиент его принимает
+        server.createContext("/groups-service/groups/6", exchange -> {
+            String accept = String.valueOf(exchange.getRequestHeaders().getFirst("Accept"));
+            Map<String, Object> group = Map.of("id", 6, "name", "Binary");
+            if (accept.startsWith("application/cbor")) {
+                exchange.getResponseHeaders().set("Content-Type", "application/cbor");
+                respond(exchange, 200, new CBORMapper().writeValueAsBytes(group));
+            } else {
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                respond(exchange, 200, new ObjectMapper().writeValueAsBytes(group));
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        properties = new ServiceClientProperties();
+        properties.setTimeouts(Map.of("get-group", Duration.ofMillis(200)));
+        meterRegistry = new SimpleMeterRegistry();
+        httpClient = new ServiceHttpClient(properties,
+                new GatewayServiceResolver("http://localhost:" + server.getAddress().getPort()), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void call_shouldDecodeResponse_andIgnoreUnknownFields() {
+        GroupView group = new GroupsClient(httpClient, 100).getGroup("Bearer token", 1L, GroupView.class);
+
+        assertThat(group.id).isEqualTo(1L);
+        assertThat(group.name).isEqualTo("Trip");
+        assertThat(meterRegistry.get("service.client.requests")
+                .tags("service", "groups-service", "endpoint", "get-group", "outcome", "SUCCESS", "status", "200")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void call_shouldRetryOnAnotherInstance_whenConnectionRefused() throws IOException {
+        int deadPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            deadPort = socket.getLocalPort();
+        }
+        ServiceResolver gateway = new GatewayServiceResolver("http://localhost:" + server.getAddress().getPort());
+        AtomicInteger calls = new AtomicInteger();
+        // Первый выбранный экземпляр уже остановлен
+        ServiceResolver resolver = (service, path) -> calls.getAndIncrement() == 0
+                ? URI.create("http://localhost:" + deadPort + "/" + service + path)
+                : gateway.resolve(service, path);
+        try (ServiceHttpClient retrying = new ServiceHttpClient(properties, resolver, meterRegistry)) {
+            GroupView group = new GroupsClient(retrying, 100).getGroup("Bearer token", 1L, GroupView.class);
+
+            assertThat(group.id).isEqualTo(1L);
+            assertThat(calls.get()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void call_shouldKeepStatus_whenServiceAnswersWithError() {
+        assertThatThrownBy(() -> new GroupsClient(httpClient, 100).getGroup("Bearer token", 2L, GroupView.class))
+                .isInstanceOfSatisfying(ServiceClientException.class, e -> {
+                    assertThat(e.isNotFound()).isTrue();
+                    assertThat(e.responseStatus()).isEqualTo(404);
+                    assertThat(e.getMessage()).contains("Group not found");
+                });
+    }
+
+    @Test
+    void call_shouldApplyPerEndpointTimeout() {
+        assertThatThrownBy(() -> new GroupsClient(httpClient, 100).getGroup("Bearer token", 3L, GroupView.class))
+                .isInstanceOfSatisfying(ServiceClientException.class, e -> {
+                    assertThat(e.isTimedOut()).isTrue();
+                    assertThat(e.responseStatus()).isEqualTo(504);
+                });
+    }
+
+    @Test
+    void call_shouldPassRemainingBudget() {
+        RequestDeadline.start(Duration.ofSeconds(5));
+
+        new GroupsClient(httpClient, 100).getGroup("Bearer token", 1L, GroupView.class);
+
+        assertThat(Long.parseLong(lastDeadline.get())).isBetween(1L, 5000L);
+    }
+
+    @Test
+    void call_shouldNotStart_whenDeadlineExpired() {
+        RequestDeadline.start(Duration.ZERO);
+
+        assertThatThrownBy(() -> new GroupsClient(httpClient, 100).getGroup("Bearer token", 1L, GroupView.class))
+                .isInstanceOfSatisfying(ServiceClientException.class,
+                        e -> assertThat(e.responseStatus()).isEqualTo(504));
+        assertThat(groupCalls.get()).isZero();
+        assertThat(meterRegistry.get("service.client.requests").tags("outcome", "DEADLINE_EXCEEDED")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void call_shouldSendHedgedRequest_afterP95() {
+        properties.getHedging().setEnabled(true);
+        Timer baseline = Timer.builder("service.client.requests")
+                .tags("service", "groups-service", "endpoint", "get-group", "outcome", "SUCCESS", "status", "200",
+                        "retry", "false", "hedged", "false")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        for (int i = 0; i < 100; i++) {
+            baseline.record(Duration.ofMillis(10));
+        }
+
+        GroupView group = new GroupsClient(httpClient, 100).getGroup("Bearer token", 5L, GroupView.class);
+
+        assertThat(group.id).isEqualTo(5L);
+        assertThat(slowCalls.get()).isEqualTo(2);
+        assertThat(meterRegistry.get("service.client.hedges").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void call_shouldNotHedge_whenDisabled() {
+        assertThatThrownBy(() -> new GroupsClient(httpClient, 100).getGroup("Bearer token", 5L, GroupView.class))
+                .isInstanceOfSatisfying(ServiceClientException.class, e -> assertThat(e.isTimedOut()).isTrue());
+        assertThat(slowCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void getGroupDescriptor_shouldRevalidateCachedCopy() {
+        GroupsClient groupsClient = new GroupsClient(httpClient, 100);
+
+        GroupDescriptor first = groupsClient.getGroupDescriptor("Bearer token", 1L);
+        GroupDescriptor second = groupsClient.getGroupDescriptor("Bearer token", 1L);
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.hasMember("user1")).isTrue();
+        assertThat(ifNoneMatch).containsExactly("null", "\"3\"");
+    }
+
+    @Test
+    void getUsers_shouldSplitIdsIntoBatches() {
+        List<String> userIds = new ArrayList<>();
+        for (int i = 0; i < AuthClient.maxBatchSize + 50; i++) {
+            userIds.add("user" + i);
+        }
+
+        List<UserView> users = new AuthClient(httpClient).getUsers("Bearer token", userIds, UserView[].class);
+
+        assertThat(batchCalls.get()).isEqualTo(2);
+        assertThat(users).hasSize(2);
+        assertThat(users.get(0).username).isEqualTo("first");
+    }
+
+    @Test
+    void sendToUsers_shouldPostBulkRequest() {
+        properties.setCbor(false);
+
+        new NotificationClient(httpClient).sendToUsers(List.of("user1", "user2"), 7L,
+                new NotificationRequest("title", "message"));
+
+        assertThat(lastContentType.get()).isEqualTo("application/json");
+        assertThat(new String(lastBody.get(), StandardCharsets.UTF_8))
+                .contains("\"userIds\":[\"user1\",\"user2\"]", "\"groupId\":7");
+    }
+
+    @Test
+    void sendToUsers_shouldPostCbor_byDefault() throws IOException {
+        new NotificationClient(httpClient).sendToUsers(List.of("user1", "user2"), 7L,
+                new NotificationRequest("title", "message"));
+
+        assertThat(lastContentType.get()).isEqualTo("application/cbor");
+        JsonNode body = new CBORMapper().readTree(lastBody.get());
+        assertThat(body.path("userIds").toString()).isEqualTo("[\"user1\",\"user2\"]");
+        assertThat(body.path("groupId").asLong()).isEqualTo(7L);
+    }
+
+    @Test
+    void sendToUsers_shouldPassServiceToken_whenConfigured() {
+        new NotificationClient(httpClient).sendToUsers(List.of("user1"), null,
+                new NotificationRequest("title", "message"));
+        assertThat(lastServiceToken.get()).isNull();
+
+        properties.setServiceToken("secret");
+        new NotificationClient(httpClient).sendToUsers(List.of("user1"), null,
+                new NotificationRequest("title", "message"));
+
+        assertThat(lastServiceToken.get()).isEqualTo("secret");
+    }
+
+    @Test
+    void call_shouldNegotiateResponseFormat() {
+        GroupView binary = new GroupsClient(httpClient, 100).getGroup("Bearer token", 6L, GroupView.class);
+        properties.setCbor(false);
+        GroupView text = new GroupsClient(httpClient, 100).getGroup("Bearer token", 6L, GroupView.class);
+
+        assertThat(binary.name).isEqualTo("Binary");
+        assertThat(text.name).isEqualTo("Binary");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        respond(exchange, status, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] bytes) throws IOException {
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            exchange.getResponseBody().write(bytes);
+        }
+        exchange.close();
+    }
+
+    static class GroupView {
+        public Long id;
+        public String name;
+    }
+
+    static class UserView {
+        public String id;
+        public String username;
+    }
+}
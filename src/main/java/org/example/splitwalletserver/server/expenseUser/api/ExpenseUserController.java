@@ -8,7 +8,6 @@ import org.example.splitwalletserver.server.expenseUser.db.ExpenseUser;
 import org.example.splitwalletserver.server.expenseUser.domain.ExpenseUserService;
 import org.example.splitwalletserver.server.expenses.request.UpdateExpenseParticipantRequest;
 import org.example.splitwalletserver.server.expenses.request.UpdatePaidAmountRequest;
-import org.modelmapper.ModelMapper;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -24,7 +23,6 @@ import java.util.List;
 public class ExpenseUserController {
 
     private final ExpenseUserService expenseUserService;
-    private final ModelMapper modelMapper;
 
     @Operation(
             summary = "Получить участников расхода",
@@ -37,7 +35,7 @@ public class ExpenseUserController {
                                                          @PathVariable Long expenseId) {
         List<ExpenseUserDto> expenseUserDtos = expenseUserService.getExpenseUsers(groupId, expenseId)
                 .stream()
-                .map(expense -> modelMapper.map(expense, ExpenseUserDto.class))
+                .map(ExpenseUserMapper::toDto)
                 .toList();
         return ResponseEntity.ok().body(expenseUserDtos);
     }
@@ -54,7 +52,7 @@ public class ExpenseUserController {
             @RequestBody @Valid List<UpdateExpenseParticipantRequest> requests) {
         List<ExpenseUser> updatedParticipants = expenseUserService.updateExpense(groupId, expenseId, requests);
         return ResponseEntity.status(201).body(updatedParticipants.stream()
-                .map(eu -> modelMapper.map(eu, ExpenseUserDto.class))
+                .map(ExpenseUserMapper::toDto)
                 .toList());
     }
 
@@ -71,7 +69,7 @@ public class ExpenseUserController {
             @PathVariable String userId,
             @RequestBody @Valid UpdatePaidAmountRequest request) {
         ExpenseUser updated = expenseUserService.updatePaidAmount(groupId, expenseId, userId, request.getPaid());
-        return ResponseEntity.status(201).body(modelMapper.map(updated, ExpenseUserDto.class));
+        return ResponseEntity.status(201).body(ExpenseUserMapper.toDto(updated));
     }
 
     @Operation(
@@ -0,0 +1,22 @@
+package org.example.splitwalletserver.server.expenseUser.api;
+
+import org.example.splitwalletserver.server.expenseUser.db.ExpenseUser;
+
+/**
+ * ExpenseUser в ExpenseUserDto без ModelMapper: у пользователя и расхода читается только id.
+ */
+public final class ExpenseUserMapper {
+
+    private ExpenseUserMapper() {
+    }
+
+    public static ExpenseUserDto toDto(ExpenseUser expenseUser) {
+        return ExpenseUserDto.builder()
+                .id(expenseUser.getId())
+                .userId(expenseUser.getUser() == null ? null : expenseUser.getUser().getId())
+                .expenseId(expenseUser.getExpense() == null ? null : expenseUser.getExpense().getId())
+                .amount(expenseUser.getAmount())
+                .paid(expenseUser.getPaid())
+                .build();
+    }
+}
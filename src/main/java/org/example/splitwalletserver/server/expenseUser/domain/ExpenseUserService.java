@@ -18,6 +18,8 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
@@ -52,10 +54,18 @@ public class ExpenseUserService {
                     "Sum of participants amounts must equal expense amount (" + expense.getAmount() + ")");
         }
 
+        var usersById = userService.getUsersByIds(requests.stream()
+                        .map(UpdateExpenseParticipantRequest::getUserId).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(User::getId, Function.identity()));
+
         expense.getExpenseUsers().clear();
         for (UpdateExpenseParticipantRequest request : requests) {
+            User user = usersById.get(request.getUserId());
+            if (user == null) {
+                throw new EntityNotFoundException("User with id " + request.getUserId() + " not found");
+            }
             ExpenseUser eu = new ExpenseUser();
-            eu.setUser(userService.getUserById(request.getUserId()));
+            eu.setUser(user);
             eu.setExpense(expense);
             eu.setAmount(request.getAmount());
             eu.setPaid(request.getPaid());
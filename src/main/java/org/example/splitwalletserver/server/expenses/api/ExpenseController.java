@@ -9,7 +9,6 @@ import org.example.splitwalletserver.server.expenses.domain.ExpenseService;
 import org.example.splitwalletserver.server.expenses.request.CreateExpenseRequest;
 import org.example.splitwalletserver.server.expenses.request.UpdateExpenseRequest;
 import org.example.splitwalletserver.server.users.services.UserServiceImpl;
-import org.modelmapper.ModelMapper;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -23,8 +22,6 @@ import java.util.List;
 @Tag(name = "Expense", description = "Operations about expenses")
 public class ExpenseController {
 
-    private final ModelMapper modelMapper;
-
     private final ExpenseService expenseService;
 
     private final UserServiceImpl userService;
@@ -86,7 +83,7 @@ public class ExpenseController {
 
 
     private ExpenseDto fromExpenseToExpenseDto(Expense expense) {
-        var expenseDto = modelMapper.map(expense, ExpenseDto.class);
+        var expenseDto = ExpenseMapper.toDto(expense);
         var amount = expense.getExpenseUsers().stream().filter(eu ->
                         eu.getUser().getId().equals(userService.getCurrentUser().getId()))
                 .findFirst().orElseThrow(()->new RuntimeException("Error!!!")).getAmount();
@@ -94,6 +91,6 @@ public class ExpenseController {
         return expenseDto;
     }
 
-    private ExpenseDto fromExpenseToDTO(Expense expense) {return modelMapper.map(expense, ExpenseDto.class);}
+    private ExpenseDto fromExpenseToDTO(Expense expense) {return ExpenseMapper.toDto(expense);}
 
 }
\ No newline at end of file
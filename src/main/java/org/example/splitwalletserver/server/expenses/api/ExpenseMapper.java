@@ -0,0 +1,29 @@
+package org.example.splitwalletserver.server.expenses.api;
+
+import org.example.splitwalletserver.server.expenses.db.Expense;
+
+/**
+ * Expense в ExpenseDto без ModelMapper: читаются только поля, которые объявлены в DTO,
+ * а у создателя и группы — только id.
+ */
+public final class ExpenseMapper {
+
+    private ExpenseMapper() {
+    }
+
+    public static ExpenseDto toDto(Expense expense) {
+        return ExpenseDto.builder()
+                .id(expense.getId())
+                .createdAt(expense.getCreatedAt())
+                .updatedAt(expense.getUpdatedAt())
+                .name(expense.getName())
+                .date(expense.getDate())
+                .description(expense.getDescription())
+                .amount(expense.getAmount())
+                .currency(expense.getCurrency())
+                .userWhoCreatedId(expense.getUserWhoCreated() == null ? null : expense.getUserWhoCreated().getId())
+                .isActive(expense.getIsActive())
+                .groupId(expense.getGroup() == null ? null : expense.getGroup().getId())
+                .build();
+    }
+}
@@ -13,7 +13,6 @@ import org.example.splitwalletserver.server.groups.domain.GroupService;
 import org.example.splitwalletserver.server.groups.request.CreateGroupRequest;
 import org.example.splitwalletserver.server.users.dto.UserInsensitiveInfoDTO;
 import org.example.splitwalletserver.server.users.model.User;
-import org.modelmapper.ModelMapper;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -28,7 +27,6 @@ import java.util.List;
 public class GroupController {
 
     private final GroupService groupService;
-    private final ModelMapper modelMapper;
 
     @PostMapping()
     @Operation(summary = "Создать новую группу",
@@ -162,6 +160,6 @@ public class GroupController {
         return ResponseEntity.status(201).body("Success!!!");
     }
 
-    private GroupDTO fromGroupToDTO(Group group) {return modelMapper.map(group, GroupDTO.class);}
-    private UserInsensitiveInfoDTO fromUserToDTO(User user) {return modelMapper.map(user, UserInsensitiveInfoDTO.class);}
+    private GroupDTO fromGroupToDTO(Group group) {return GroupMapper.toDto(group);}
+    private UserInsensitiveInfoDTO fromUserToDTO(User user) {return GroupMapper.toDto(user);}
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package org.example.splitwalletserver.server.groups.api;
+
+import org.example.splitwalletserver.server.groups.db.Group;
+import org.example.splitwalletserver.server.users.dto.UserInsensitiveInfoDTO;
+import org.example.splitwalletserver.server.users.model.User;
+
+/**
+ * Group и User в DTO ответов без ModelMapper: читаются только поля, которые объявлены в DTO,
+ * поэтому members и events группы не загружаются.
+ */
+public final class GroupMapper {
+
+    private GroupMapper() {
+    }
+
+    public static GroupDTO toDto(Group group) {
+        return GroupDTO.builder()
+                .id(group.getId())
+                .name(group.getName())
+                .createdAt(group.getCreatedAt())
+                .updatedAt(group.getUpdatedAt())
+                .userOwner(group.getUserOwner() == null ? null : toDto(group.getUserOwner()))
+                .isClosed(group.getIsClosed())
+                .build();
+    }
+
+    // name и phoneNumber в User нет, ModelMapper их тоже не заполнял
+    public static UserInsensitiveInfoDTO toDto(User user) {
+        return UserInsensitiveInfoDTO.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .build();
+    }
+}
@@ -4,6 +4,8 @@ import org.example.splitwalletserver.server.users.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +14,6 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findById(String id);
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
+
+    List<User> findByIdIn(Collection<String> ids);
 }
\ No newline at end of file
@@ -6,9 +6,13 @@ import org.example.splitwalletserver.server.users.dto.UserDTO;
 import org.example.splitwalletserver.server.users.model.User;
 import org.keycloak.representations.AccessTokenResponse;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface UserService {
     UserDTO createUser(UserDTO userRegistrationRecord);
     AccessTokenResponse login(LoginUserDTO loginUserDTO);
     User getUserById(String userId);
+    List<User> getUsersByIds(Collection<String> userIds);
     void deleteUserById(String userId);
 }
@@ -124,6 +124,15 @@ public class UserServiceImpl implements UserService {
         return  fromUserRepresentationToUser(getUsersResource().get(userId).toRepresentation());
     }
 
+    // Пользователи по списку id одним запросом к user_entity, без обращений к Keycloak по одному
+    @Override
+    public List<User> getUsersByIds(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        return userRepository.findByIdIn(userIds);
+    }
+
     @Override
     public void deleteUserById(String userId) {
         try (Response delete = getUsersResource().delete(userId)){